@@ -0,0 +1,47 @@
+package com.confluence.mcp.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * 在调用方线程上加载异步缓存的条目
+ * <p>
+ * 同步缓存的 get(key, loader) 在哈希表的桶锁（synchronized）内执行加载函数，加载函数阻塞在HTTP请求上时，
+ * 虚拟线程会钉住其载体线程，同一个桶上的其他键也要等待加载结束。这里只在锁内放入一个未完成的Future，
+ * 由第一个未命中的调用方在锁外加载并完成它，并发访问同一键的调用方等待这个Future，仍然只触发一次加载。
+ */
+final class CacheLoading {
+
+    private CacheLoading() {
+    }
+
+    /**
+     * 获取缓存条目，未命中时在当前线程上加载；加载失败或返回null时不保留在缓存中
+     */
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.apply(key));
+            } catch (Throwable t) {
+                created.completeExceptionally(t);
+                throw t;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.confluence.mcp.cache;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 带衰减的Count-Min访问频率草图
+ * <p>
+ * 每个键映射到 depth 行中各一个计数器，记录访问时各行计数器加一，估算时取各行最小值，
+ * 结果只会高估不会低估，内存占用固定，与访问过的键的数量无关。
+ * 累计记录 sampleSize 次后所有计数器减半，使频率估计偏向近期访问，长期不再访问的键逐渐冷却。
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final int[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int additions;
+
+    /**
+     * @param expectedKeys 预计需要区分的热点键数量，每行计数器数量为其4倍向上取整到2的幂
+     */
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(16, expectedKeys * 4 - 1)) << 1;
+        this.table = new int[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = width * 10;
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @return 记录后的频率估计
+     */
+    public int increment(String key) {
+        lock.lock();
+        try {
+            int estimate = Integer.MAX_VALUE;
+            for (int i = 0; i < DEPTH; i++) {
+                int index = indexOf(key, i);
+                estimate = Math.min(estimate, ++table[i][index]);
+            }
+            if (++additions >= sampleSize) {
+                reset();
+            }
+            return estimate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 估算键的访问频率
+     */
+    public int estimate(String key) {
+        lock.lock();
+        try {
+            int estimate = Integer.MAX_VALUE;
+            for (int i = 0; i < DEPTH; i++) {
+                estimate = Math.min(estimate, table[i][indexOf(key, i)]);
+            }
+            return estimate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        for (int[] row : table) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] >>>= 1;
+            }
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(String key, int row) {
+        long hash = (key.hashCode() + SEEDS[row]) * SEEDS[row];
+        hash ^= hash >>> 32;
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,380 @@
+package com.confluence.mcp.cache;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.ConfluenceException;
+import com.confluence.mcp.exception.UpstreamUnavailableException;
+import com.confluence.mcp.service.ConfluencePageService;
+import com.confluence.mcp.service.PageContent;
+import com.confluence.mcp.store.PageStore;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 页面内容缓存
+ * <p>
+ * 以页面ID为键缓存提取后的正文，按总字节数限制容量（W-TinyLFU淘汰）并设置存活时间。
+ * 同一页面的并发未命中只会触发一次上游请求，请求在第一个调用方的线程上、缓存锁外执行；超过重新校验间隔的条目在被访问时异步重新校验：
+ * 有ETag/Last-Modified的条目发起条件请求，304时沿用缓存；其余条目比对页面版本号，版本变化才重新获取。
+ * 未命中时先查找持久化存储，加载和重新校验的结果同时写入持久化存储，重启后无需重新请求。
+ * Confluence熔断期间，持久化存储中已过期的页面仍会返回并标记为过期内容，而不是直接失败。
+ * 加载期间页面被失效（webhook或索引同步）时，加载结果不写回持久化存储，以免旧内容覆盖失效操作。
+ */
+@Slf4j
+@Component
+public class PageContentCache {
+
+    /**
+     * 失效计数的分段数，按页面ID哈希分段，不同页面共用分段只会多放弃一些写回
+     */
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    private final ConfluencePageService pageService;
+    private final PageStore pageStore;
+    private final ExecutorService executor;
+    private final boolean enabled;
+    private final long revalidateAfter;
+    private final PageLoader pageLoader = new PageLoader();
+    private final AsyncLoadingCache<String, PageContent> cache;
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    private final LongAdder revalidatedCount = new LongAdder();
+    private final LongAdder versionChangedCount = new LongAdder();
+    private final LongAdder conditionalRequestCount = new LongAdder();
+    private final LongAdder notModifiedCount = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder staleServedCount = new LongAdder();
+
+    public PageContentCache(ConfluenceConfig config, ConfluencePageService pageService, PageStore pageStore,
+                            @Qualifier("pageFetchExecutor") ExecutorService executor) {
+        ConfluenceConfig.Cache cacheConfig = config.getCache();
+        this.pageService = pageService;
+        this.pageStore = pageStore;
+        this.executor = executor;
+        this.enabled = Boolean.TRUE.equals(cacheConfig.getPageEnabled());
+        this.revalidateAfter = cacheConfig.getPageRevalidateAfter();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheConfig.getPageMaxBytes())
+                .weigher((String pageId, PageContent page) -> page.estimatedBytes())
+                .expireAfterWrite(Duration.ofMillis(cacheConfig.getPageTtl()))
+                .refreshAfterWrite(Duration.ofMillis(cacheConfig.getPageRevalidateAfter()))
+                .executor(executor)
+                .recordStats()
+                .buildAsync(pageLoader);
+    }
+
+    /**
+     * 获取页面内容，未命中时从Confluence加载
+     */
+    public PageContent get(String pageId) {
+        try {
+            return execute(() -> enabled ? CacheLoading.get(cache, pageId, this::load) : pageService.fetchPage(pageId));
+        } catch (UpstreamUnavailableException e) {
+            return staleFallback(pageId).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * 在页面获取线程池上获取单个页面内容，用于批量请求失败后逐页获取
+     */
+    public CompletableFuture<PageContent> getAsync(String pageId) {
+        return CompletableFuture.supplyAsync(() -> get(pageId), executor);
+    }
+
+    /**
+     * 异步批量获取页面内容，已缓存或持久化存储中未过期的页面直接返回，其余页面合并为批量请求加载；
+     * 不存在或无权访问的页面不会出现在结果中。
+     * 批量加载的页面在请求发出前就以未完成的条目登记在缓存中，并发获取同一页面的调用方（包括单页获取）等待这次加载，
+     * 不会重复请求，失效操作也能看到正在加载的页面
+     */
+    public CompletableFuture<Map<String, PageContent>> getAllAsync(Collection<String> pageIds) {
+        if (!enabled) {
+            return pageService.fetchPagesAsync(pageIds);
+        }
+        List<String> ids = pageIds.stream().distinct().toList();
+        return cache.getAll(ids, (misses, executor) -> loadAll(misses)).handle((pages, error) -> {
+            if (error == null) {
+                return pages;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof UpstreamUnavailableException)) {
+                throw error instanceof CompletionException completionException
+                        ? completionException : new CompletionException(cause);
+            }
+            Map<String, PageContent> available = new HashMap<>(cache.synchronous().getAllPresent(ids));
+            for (String pageId : ids) {
+                if (!available.containsKey(pageId)) {
+                    staleFallback(pageId).ifPresent(page -> available.put(pageId, page));
+                }
+            }
+            return available;
+        });
+    }
+
+    /**
+     * 批量加载缓存中没有的页面：持久化存储中未过期的直接使用，其余页面合并为一次批量请求，结果写入持久化存储
+     */
+    private CompletableFuture<Map<String, PageContent>> loadAll(Set<? extends String> pageIds) {
+        Map<String, Long> stamps = new HashMap<>();
+        pageIds.forEach(pageId -> stamps.put(pageId, invalidationStamp(pageId)));
+        Map<String, PageContent> pages = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String pageId : pageIds) {
+            Optional<PageContent> stored = pageStore.get(pageId).filter(this::isFresh);
+            if (stored.isPresent()) {
+                pages.put(pageId, stored.get());
+            } else {
+                misses.add(pageId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(pages);
+        }
+        log.debug("页面缓存批量未命中，从Confluence批量加载: 页面数={}", misses.size());
+        return pageService.fetchPagesAsync(misses).thenApply(loaded -> {
+            loaded.forEach((pageId, page) ->
+                    storeIfCurrent(pageId, page, stamps.getOrDefault(pageId, invalidationStamp(pageId))));
+            pages.putAll(loaded);
+            return pages;
+        });
+    }
+
+    /**
+     * 在当前线程上加载页面，检查型异常包装为CompletionException，由 {@link #execute} 统一转换
+     */
+    private PageContent load(String pageId) {
+        try {
+            return pageLoader.load(pageId);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Confluence不可用时从持久化存储中取出页面，标记为过期内容，不写入内存缓存，恢复后即可重新加载
+     */
+    private Optional<PageContent> staleFallback(String pageId) {
+        Optional<PageContent> stored = pageStore.get(pageId).map(page -> page.toBuilder().stale(true).build());
+        if (stored.isPresent()) {
+            staleServedCount.increment();
+            log.warn("Confluence暂不可用，返回持久化存储中的过期内容: 页面ID={}", pageId);
+        }
+        return stored;
+    }
+
+    /**
+     * 页面是否已在内存缓存中，不计入命中统计
+     */
+    public boolean isCached(String pageId) {
+        return enabled && cache.asMap().containsKey(pageId);
+    }
+
+    /**
+     * 使页面缓存失效，下次访问时重新从Confluence加载
+     */
+    public void invalidateAll(Collection<String> pageIds) {
+        pageIds.forEach(pageId -> invalidations.incrementAndGet(stripe(pageId)));
+        cache.synchronous().invalidateAll(pageIds);
+        pageStore.delete(pageIds);
+    }
+
+    /**
+     * 按索引同步得到的最新版本号，使内存缓存或持久化存储中版本不同的页面失效；
+     * 版本一致和未缓存的页面保持不变，全量同步不会清空整个空间的缓存
+     *
+     * @param versions 页面ID到最新版本号的映射，版本号未知时按已变化处理
+     * @return 失效的页面数
+     */
+    public int invalidateChanged(Map<String, Integer> versions) {
+        List<String> changed = new ArrayList<>();
+        versions.forEach((pageId, version) -> {
+            if (isCachedOutdated(pageId, version)
+                    || pageStore.get(pageId).map(page -> isOutdated(page, version)).orElse(false)) {
+                changed.add(pageId);
+            }
+        });
+        if (!changed.isEmpty()) {
+            invalidateAll(changed);
+        }
+        return changed.size();
+    }
+
+    /**
+     * 内存缓存中的条目是否与最新版本不一致，不计入命中统计；正在加载的条目可能在页面修改前发出了请求，同样视为不一致
+     */
+    private boolean isCachedOutdated(String pageId, Integer version) {
+        CompletableFuture<PageContent> future = cache.asMap().get(pageId);
+        if (future == null || future.isCompletedExceptionally()) {
+            return false;
+        }
+        return !future.isDone() || isOutdated(future.join(), version);
+    }
+
+    private static boolean isOutdated(PageContent page, Integer version) {
+        return version == null || !version.equals(page.getVersion());
+    }
+
+    /**
+     * 页面当前的失效计数，加载开始时记下，写回前比对
+     */
+    private long invalidationStamp(String pageId) {
+        return invalidations.get(stripe(pageId));
+    }
+
+    private static int stripe(String pageId) {
+        return (pageId.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+    }
+
+    /**
+     * 加载开始后页面未被失效时写入持久化存储。写入后再次比对，写入期间发生的失效已删除过存储，此时删除刚写入的旧内容
+     */
+    private void storeIfCurrent(String pageId, PageContent page, long stamp) {
+        if (invalidationStamp(pageId) != stamp) {
+            log.debug("页面在加载期间已失效，不写回持久化存储: 页面ID={}", pageId);
+            return;
+        }
+        pageStore.put(page);
+        if (invalidationStamp(pageId) != stamp) {
+            pageStore.delete(List.of(pageId));
+        }
+    }
+
+    /**
+     * 内容是否在重新校验间隔内获取或校验过
+     */
+    private boolean isFresh(PageContent page) {
+        return System.currentTimeMillis() - page.getFetchedAt() < revalidateAfter;
+    }
+
+    /**
+     * 执行加载，将加载异常统一转换为运行时异常
+     */
+    private <T> T execute(Callable<T> loader) {
+        try {
+            return loader.call();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ConfluenceException(cause.getMessage(), cause);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfluenceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("weightBytes", cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("evictionBytes", stats.evictionWeight());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("revalidatedCount", revalidatedCount.sum());
+        result.put("versionChangedCount", versionChangedCount.sum());
+        long conditionalRequests = conditionalRequestCount.sum();
+        long notModified = notModifiedCount.sum();
+        result.put("conditionalRequestCount", conditionalRequests);
+        result.put("notModifiedCount", notModified);
+        result.put("notModifiedRate", conditionalRequests == 0 ? 0.0 : (double) notModified / conditionalRequests);
+        result.put("bytesSaved", bytesSaved.sum());
+        result.put("staleServedCount", staleServedCount.sum());
+        return result;
+    }
+
+    /**
+     * 页面加载器：未命中时在调用方线程上执行，重新校验在页面获取线程池中执行。首次加载先查找持久化存储，未过期时直接使用，过期时按重新校验的方式处理，不存在时获取完整页面；
+     * 重新校验时有ETag/Last-Modified则发起条件请求，否则先比对版本号。加载结果写入持久化存储
+     */
+    private class PageLoader implements CacheLoader<String, PageContent> {
+
+        @Override
+        public PageContent load(String pageId) throws Exception {
+            long stamp = invalidationStamp(pageId);
+            Optional<PageContent> stored = pageStore.get(pageId);
+            if (stored.isPresent()) {
+                if (isFresh(stored.get())) {
+                    log.debug("页面缓存未命中，从持久化存储加载: 页面ID={}", pageId);
+                    return stored.get();
+                }
+                log.debug("持久化存储中的页面已超过重新校验间隔，重新校验: 页面ID={}", pageId);
+                return store(pageId, revalidate(pageId, stored.get()), stamp);
+            }
+            log.debug("页面缓存未命中，从Confluence加载: 页面ID={}", pageId);
+            return store(pageId, pageService.fetchPage(pageId), stamp);
+        }
+
+        @Override
+        public PageContent reload(String pageId, PageContent oldValue) throws Exception {
+            long stamp = invalidationStamp(pageId);
+            return store(pageId, revalidate(pageId, oldValue), stamp);
+        }
+
+        private PageContent store(String pageId, PageContent page, long stamp) {
+            storeIfCurrent(pageId, page, stamp);
+            return page;
+        }
+
+        private PageContent revalidate(String pageId, PageContent oldValue) throws Exception {
+            if (oldValue.getEtag() != null || oldValue.getLastModified() != null) {
+                conditionalRequestCount.increment();
+                Optional<PageContent> modified = pageService.fetchPageIfModified(oldValue);
+                if (modified.isEmpty()) {
+                    // 304：沿用已提取的内容，无需重新下载和解析
+                    notModifiedCount.increment();
+                    bytesSaved.add(oldValue.getResponseBytes());
+                    log.debug("页面未修改(304)，沿用缓存: 页面ID={}", pageId);
+                    return oldValue.toBuilder().fetchedAt(System.currentTimeMillis()).build();
+                }
+                versionChangedCount.increment();
+                log.debug("页面已修改，使用条件请求返回的新内容: 页面ID={}", pageId);
+                return modified.get();
+            }
+            if (oldValue.getVersion() != null) {
+                Optional<Integer> currentVersion = pageService.fetchVersion(pageId);
+                if (currentVersion.isPresent() && currentVersion.get().equals(oldValue.getVersion())) {
+                    revalidatedCount.increment();
+                    log.debug("页面版本未变化，沿用缓存: 页面ID={}, 版本={}", pageId, oldValue.getVersion());
+                    return oldValue.toBuilder().fetchedAt(System.currentTimeMillis()).build();
+                }
+            }
+            versionChangedCount.increment();
+            log.debug("页面版本已变化或未知，重新加载: 页面ID={}", pageId);
+            return pageService.fetchPage(pageId);
+        }
+    }
+}
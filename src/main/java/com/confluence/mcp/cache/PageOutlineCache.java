@@ -0,0 +1,91 @@
+package com.confluence.mcp.cache;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.ConfluenceException;
+import com.confluence.mcp.service.ConfluencePageService;
+import com.confluence.mcp.service.PageDocument;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 页面大纲与全文缓存
+ * <p>
+ * 分段读取长页面时，同一页面通常会被连续读取多次（先看大纲，再逐段读取），
+ * 因此页面只完整解析一次，全文和章节大纲按页面ID缓存，后续各段直接从缓存中切分。
+ * 缓存按全文估算的内存占用限制总容量，同一页面的并发加载共享同一次上游请求，请求在缓存锁外执行。
+ */
+@Slf4j
+@Component
+public class PageOutlineCache {
+
+    private final ConfluencePageService pageService;
+    private final AsyncCache<String, PageDocument> cache;
+
+    public PageOutlineCache(ConfluencePageService pageService, ConfluenceConfig config) {
+        ConfluenceConfig.Cache cacheConfig = config.getCache();
+        this.pageService = pageService;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheConfig.getDocumentMaxBytes())
+                .weigher((String pageId, PageDocument document) -> document.estimatedBytes())
+                .expireAfterWrite(Duration.ofMillis(cacheConfig.getDocumentTtl()))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * 获取完整解析的页面
+     */
+    public PageDocument get(String pageId) {
+        return CacheLoading.get(cache, pageId, this::load);
+    }
+
+    /**
+     * 获取已缓存的完整页面，未缓存时返回空，不会请求Confluence，也不计入命中统计
+     */
+    public Optional<PageDocument> getIfPresent(String pageId) {
+        return Optional.ofNullable(cache.synchronous().policy().getIfPresentQuietly(pageId));
+    }
+
+    /**
+     * 使指定页面的缓存失效
+     */
+    public void invalidateAll(Collection<String> pageIds) {
+        cache.synchronous().invalidateAll(pageIds);
+    }
+
+    private PageDocument load(String pageId) {
+        try {
+            PageDocument document = pageService.fetchDocument(pageId);
+            log.debug("页面大纲已缓存: 页面ID={}, 章节数={}, 估算大小={}字节",
+                    pageId, document.getSections().size(), document.estimatedBytes());
+            return document;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfluenceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,301 @@
+package com.confluence.mcp.cache;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.resilience.UpstreamGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 热点页面预取
+ * <p>
+ * 页面访问高度集中在少数热点页面上。工具调用读取页面时记录到带衰减的访问频率草图，
+ * 同时保留估计频率最高的一批候选页面：候选已满时只接纳比现有最冷候选更热的页面，候选超出一定比例后按频率淘汰；启动后和每隔 warm-interval 将最热的 warm-top-n 个页面
+ * 按批量请求逐批预热到页面缓存，热点页面ID保存在 state-file 中，重启后据此预热。
+ * 搜索后可选地在后台预取排名靠前的结果，调用方决定打开哪个页面时通常已在缓存中。
+ * <p>
+ * 预取不与实时请求争抢：同时在途的预取批量请求不超过 max-in-flight，且只在访问Confluence的
+ * 在途请求数低于并发上限的 max-upstream-utilization 比例、熔断器关闭时发出，否则直接放弃本次预取。
+ */
+@Slf4j
+@Component
+public class PagePrefetcher implements AutoCloseable {
+
+    /**
+     * 候选页面数超过 tracked-pages 的该比例后，淘汰最冷的候选
+     */
+    private static final double PRUNE_SLACK = 0.25;
+
+    private final ConfluenceConfig.Prefetch prefetchConfig;
+    private final PageContentCache pageContentCache;
+    private final UpstreamGuard upstreamGuard;
+    private final boolean enabled;
+    private final int bulkSize;
+    private final Path stateFile;
+    private final int trackedPages;
+    private final int pruneThreshold;
+
+    private final FrequencySketch sketch;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock candidatesLock = new ReentrantLock();
+    private int admissionThreshold;
+    private final Semaphore budget;
+    private final AtomicBoolean warming = new AtomicBoolean();
+
+    private final LongAdder prefetchRequests = new LongAdder();
+    private final LongAdder prefetchedPages = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+
+    public PagePrefetcher(ConfluenceConfig config, PageContentCache pageContentCache, UpstreamGuard upstreamGuard) {
+        this.prefetchConfig = config.getPrefetch();
+        this.pageContentCache = pageContentCache;
+        this.upstreamGuard = upstreamGuard;
+        this.enabled = Boolean.TRUE.equals(prefetchConfig.getEnabled());
+        this.bulkSize = Math.max(1, config.getFetch().getBulkSize());
+        String file = prefetchConfig.getStateFile();
+        this.stateFile = file == null || file.isBlank() ? null : Path.of(file);
+        this.trackedPages = Math.max(1, prefetchConfig.getTrackedPages());
+        this.pruneThreshold = trackedPages + Math.max(1, (int) (trackedPages * PRUNE_SLACK));
+        this.sketch = new FrequencySketch(trackedPages);
+        this.budget = new Semaphore(Math.max(1, prefetchConfig.getMaxInFlight()));
+    }
+
+    /**
+     * 记录一次页面访问
+     */
+    public void recordAccess(String pageId) {
+        if (!enabled || pageId == null || pageId.isBlank()) {
+            return;
+        }
+        int estimate = sketch.increment(pageId);
+        if (candidates.contains(pageId)) {
+            return;
+        }
+        // 候选已满时只接纳比上次淘汰后最冷的候选更热的页面；候选超出一定比例后才排序淘汰，排序开销分摊到多次接纳
+        candidatesLock.lock();
+        try {
+            if (candidates.size() >= trackedPages && estimate <= admissionThreshold) {
+                return;
+            }
+            candidates.add(pageId);
+            if (candidates.size() >= pruneThreshold) {
+                prune();
+            }
+        } finally {
+            candidatesLock.unlock();
+        }
+    }
+
+    /**
+     * 按当前频率估计排序的热点页面
+     */
+    public List<String> topPages(int limit) {
+        candidatesLock.lock();
+        try {
+            return prune().stream().limit(limit).toList();
+        } finally {
+            candidatesLock.unlock();
+        }
+    }
+
+    /**
+     * 按当前频率估计排序候选页面，淘汰超出 tracked-pages 的部分，并以保留的最低频率作为新的接纳门槛。
+     * 淘汰前重新读取频率估计，排序后访问次数又超过门槛的候选保留。调用方持有 candidatesLock
+     *
+     * @return 保留的候选页面，按频率从高到低排列
+     */
+    private List<String> prune() {
+        Map<String, Integer> estimates = new HashMap<>();
+        for (String pageId : candidates) {
+            estimates.put(pageId, sketch.estimate(pageId));
+        }
+        List<String> ranked = estimates.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (ranked.size() <= trackedPages) {
+            admissionThreshold = ranked.size() < trackedPages ? 0 : estimates.get(ranked.get(ranked.size() - 1));
+            return ranked;
+        }
+        int threshold = estimates.get(ranked.get(trackedPages - 1));
+        for (String pageId : ranked.subList(trackedPages, ranked.size())) {
+            if (sketch.estimate(pageId) <= threshold) {
+                candidates.remove(pageId);
+            }
+        }
+        admissionThreshold = threshold;
+        return ranked.subList(0, trackedPages);
+    }
+
+    /**
+     * 在后台预取搜索结果中排名靠前的页面
+     *
+     * @param pageIds 按排名排列的页面ID
+     */
+    public void prefetchSearchHits(List<String> pageIds) {
+        int hits = prefetchConfig.getSearchHits();
+        if (!enabled || hits <= 0 || pageIds.isEmpty()) {
+            return;
+        }
+        prefetch(pageIds.subList(0, Math.min(hits, pageIds.size())));
+    }
+
+    /**
+     * 启动后按上次保存的热点页面预热
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (!enabled || stateFile == null || !Files.exists(stateFile)) {
+            return;
+        }
+        try {
+            List<String> pageIds = Files.readAllLines(stateFile, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .limit(prefetchConfig.getWarmTopN())
+                    .toList();
+            // 上次的排名作为初始频率，越靠前越高
+            for (int i = 0; i < pageIds.size(); i++) {
+                candidates.add(pageIds.get(i));
+                for (int n = 0; n < Math.max(1, 4 - i * 4 / pageIds.size()); n++) {
+                    sketch.increment(pageIds.get(i));
+                }
+            }
+            log.info("按上次保存的热点页面启动预热: 页面数={}", pageIds.size());
+            warm(pageIds);
+        } catch (IOException e) {
+            log.warn("读取热点页面文件失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期预热热点页面，并保存热点页面ID
+     */
+    @Scheduled(initialDelayString = "${confluence.prefetch.warm-interval:600000}",
+            fixedDelayString = "${confluence.prefetch.warm-interval:600000}")
+    public void scheduledWarm() {
+        if (!enabled) {
+            return;
+        }
+        List<String> top = topPages(prefetchConfig.getWarmTopN());
+        warm(top);
+        saveState(top);
+    }
+
+    /**
+     * 逐批预热未缓存的页面，前一批完成后再发出下一批；没有预取余量时停止，等待下次预热
+     */
+    void warm(List<String> pageIds) {
+        List<String> misses = pageIds.stream().filter(pageId -> !pageContentCache.isCached(pageId)).toList();
+        if (misses.isEmpty() || !warming.compareAndSet(false, true)) {
+            return;
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < misses.size(); from += bulkSize) {
+            batches.add(misses.subList(from, Math.min(from + bulkSize, misses.size())));
+        }
+        log.debug("开始预热热点页面: 未缓存{}个, 共{}批", misses.size(), batches.size());
+        warmBatch(batches, 0);
+    }
+
+    private void warmBatch(List<List<String>> batches, int index) {
+        CompletableFuture<?> batch = index < batches.size() ? prefetch(batches.get(index)) : null;
+        if (batch == null) {
+            warming.set(false);
+            return;
+        }
+        batch.whenComplete((result, error) -> warmBatch(batches, index + 1));
+    }
+
+    /**
+     * 在预取余量内批量获取未缓存的页面
+     *
+     * @return 预取请求，没有需要预取的页面或没有余量时返回null
+     */
+    CompletableFuture<?> prefetch(List<String> pageIds) {
+        List<String> misses = pageIds.stream().filter(pageId -> !pageContentCache.isCached(pageId)).toList();
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!upstreamGuard.hasSpareCapacity(prefetchConfig.getMaxUpstreamUtilization()) || !budget.tryAcquire()) {
+            skippedCount.increment();
+            log.debug("没有预取余量，放弃预取: 页面数={}", misses.size());
+            return null;
+        }
+        prefetchRequests.increment();
+        try {
+            return pageContentCache.getAllAsync(misses).whenComplete((pages, error) -> {
+                budget.release();
+                if (error != null) {
+                    log.debug("预取页面失败: 页面数={}, 错误={}", misses.size(), error.getMessage());
+                } else {
+                    prefetchedPages.add(pages.size());
+                }
+            });
+        } catch (RuntimeException e) {
+            budget.release();
+            log.debug("预取页面失败: 页面数={}, 错误={}", misses.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveState(List<String> pageIds) {
+        if (stateFile == null || pageIds.isEmpty()) {
+            return;
+        }
+        try {
+            if (stateFile.getParent() != null) {
+                Files.createDirectories(stateFile.getParent());
+            }
+            Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            Files.write(temp, pageIds, StandardCharsets.UTF_8);
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("保存热点页面文件失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 预取统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("trackedPages", candidates.size());
+        result.put("prefetchRequests", prefetchRequests.sum());
+        result.put("prefetchedPages", prefetchedPages.sum());
+        result.put("skippedForBudget", skippedCount.sum());
+        return result;
+    }
+
+    /**
+     * 停止时保存热点页面ID，重启后据此预热
+     */
+    @Override
+    public void close() {
+        if (enabled) {
+            saveState(topPages(prefetchConfig.getWarmTopN()));
+        }
+    }
+}
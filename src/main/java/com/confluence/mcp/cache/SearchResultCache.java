@@ -0,0 +1,127 @@
+package com.confluence.mcp.cache;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.config.SearchMode;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 搜索结果缓存
+ * <p>
+ * 以规范化后的(CQL, 限制数, 搜索模式)为键短时间缓存渲染后的搜索结果，
+ * 相同的在途搜索共享同一次上游请求，搜索在第一个调用方的线程上、缓存锁外执行。
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    private final boolean enabled;
+    private final AsyncCache<SearchKey, SearchResult> cache;
+
+    public SearchResultCache(ConfluenceConfig config) {
+        ConfluenceConfig.Cache cacheConfig = config.getCache();
+        this.enabled = Boolean.TRUE.equals(cacheConfig.getSearchEnabled());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getSearchMaxEntries())
+                .expireAfterWrite(Duration.ofMillis(cacheConfig.getSearchTtl()))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * 获取搜索结果
+     *
+     * @param key    规范化后的搜索键
+     * @param bypass 是否跳过缓存直接查询，查询结果仍会写入缓存
+     * @param loader 执行搜索的函数
+     */
+    public String get(SearchKey key, boolean bypass, Supplier<SearchResult> loader) {
+        if (!enabled) {
+            return loader.get().getText();
+        }
+        if (bypass) {
+            log.debug("跳过搜索结果缓存: {}", key);
+            SearchResult result = loader.get();
+            if (result.isCacheable()) {
+                cache.synchronous().put(key, result);
+            }
+            return result.getText();
+        }
+
+        SearchResult result = CacheLoading.get(cache, key, k -> loader.get());
+        if (!result.isCacheable()) {
+            // 部分结果只返回给本次在途的调用方，不保留在缓存中
+            cache.synchronous().asMap().remove(key, result);
+        }
+        return result.getText();
+    }
+
+    /**
+     * 使结果中包含指定页面的搜索失效
+     */
+    public void invalidatePages(Collection<String> pageIds) {
+        Set<String> changed = Set.copyOf(pageIds);
+        cache.synchronous().asMap().values().removeIf(result -> result.getPageIds().stream().anyMatch(changed::contains));
+    }
+
+    /**
+     * 使全部搜索结果失效，新建的页面可能出现在任何搜索中
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    /**
+     * 搜索缓存键
+     */
+    @Value
+    public static class SearchKey {
+        String cql;
+        int limit;
+        SearchMode mode;
+    }
+
+    /**
+     * 渲染后的搜索结果
+     */
+    @Value
+    public static class SearchResult {
+        String text;
+
+        /**
+         * 是否可以缓存，部分结果不可缓存
+         */
+        boolean cacheable;
+
+        /**
+         * 结果中的页面ID，页面变更时用于使对应的搜索失效
+         */
+        Set<String> pageIds;
+    }
+}
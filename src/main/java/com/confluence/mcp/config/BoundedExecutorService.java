@@ -0,0 +1,62 @@
+package com.confluence.mcp.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限制同时执行任务数的线程池包装
+ * <p>
+ * 每个任务一个虚拟线程时没有固定的线程数，这里用公平信号量代替线程数限制同时执行的任务数：
+ * 超出上限的任务在各自的虚拟线程上按提交顺序等待许可，等待期间不占用载体线程，
+ * 效果与固定线程数加无界队列的线程池相同。
+ */
+class BoundedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    BoundedExecutorService(ExecutorService delegate, int maxConcurrency) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -42,6 +42,11 @@ public class ConfluenceConfig {
      */
     private Integer defaultSearchLimit = 10;
 
+    /**
+     * 默认搜索模式：lean使用搜索摘要，deep逐页获取正文摘要
+     */
+    private SearchMode defaultSearchMode = SearchMode.LEAN;
+
     /**
      * 连接超时时间（毫秒）
      */
@@ -51,4 +56,507 @@ public class ConfluenceConfig {
      * 读取超时时间（毫秒）
      */
     private Integer readTimeout = 30000;
-}
\ No newline at end of file
+
+    /**
+     * 是否请求压缩传输（gzip/deflate，存在brotli解码器时包括br）
+     */
+    private Boolean compressionEnabled = true;
+
+    /**
+     * 并发获取页面时的HTTP客户端模式：async为非阻塞客户端，blocking为阻塞客户端加线程池
+     */
+    private HttpClientMode httpClientMode = HttpClientMode.ASYNC;
+
+    /**
+     * 页面内容并发获取配置
+     */
+    private Fetch fetch = new Fetch();
+
+    /**
+     * 页面内容并发获取配置
+     */
+    @Data
+    public static class Fetch {
+
+        /**
+         * 单次搜索或批量获取中同时在途的页面请求数上限
+         */
+        private Integer perSearchMaxInFlight = 5;
+
+        /**
+         * 全局同时在途的页面请求数上限（不会超过连接池单路由上限）
+         */
+        private Integer globalMaxInFlight = 20;
+
+        /**
+         * 单次搜索或批量获取页面内容的截止时间（毫秒），超时的页面以部分结果返回
+         */
+        private Integer searchDeadline = 10000;
+
+        /**
+         * 获取页面时请求的正文格式：view为渲染后的HTML，storage为存储格式（无需服务端渲染）
+         */
+        private PageBodyFormat bodyFormat = PageBodyFormat.VIEW;
+
+        /**
+         * 批量获取页面时单次请求包含的页面数上限
+         */
+        private Integer bulkSize = 25;
+    }
+
+    /**
+     * 缓存配置
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 缓存配置
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * 是否启用页面内容缓存
+         */
+        private Boolean pageEnabled = true;
+
+        /**
+         * 页面内容缓存的总容量上限（字节）
+         */
+        private Long pageMaxBytes = 64L * 1024 * 1024;
+
+        /**
+         * 页面内容缓存的存活时间（毫秒）
+         */
+        private Integer pageTtl = 3600000;
+
+        /**
+         * 页面内容缓存按版本号重新校验的间隔（毫秒）
+         */
+        private Integer pageRevalidateAfter = 300000;
+
+        /**
+         * 是否启用搜索结果缓存
+         */
+        private Boolean searchEnabled = true;
+
+        /**
+         * 搜索结果缓存的存活时间（毫秒）
+         */
+        private Integer searchTtl = 30000;
+
+        /**
+         * 搜索结果缓存的最大条目数
+         */
+        private Integer searchMaxEntries = 500;
+
+        /**
+         * 按章节分段读取时，页面大纲与全文缓存的总容量上限（字节）
+         */
+        private Long documentMaxBytes = 32L * 1024 * 1024;
+
+        /**
+         * 页面大纲与全文缓存的存活时间（毫秒）
+         */
+        private Integer documentTtl = 600000;
+
+        /**
+         * 分段读取时单个页面解析的最大字符数
+         */
+        private Integer documentMaxChars = 1000000;
+    }
+
+    /**
+     * 搜索结果摘要配置
+     */
+    private Snippet snippet = new Snippet();
+
+    /**
+     * 搜索结果摘要配置：深度模式下按关键字从页面正文中选取相关片段
+     */
+    @Data
+    public static class Snippet {
+
+        /**
+         * 每个页面最多选取的片段数
+         */
+        private Integer maxPassages = 3;
+
+        /**
+         * 每个页面摘要的总字符数上限
+         */
+        private Integer maxChars = 500;
+
+        /**
+         * 单个片段的最大字符数
+         */
+        private Integer passageLength = 200;
+    }
+
+    /**
+     * webhook缓存失效配置
+     */
+    private Webhook webhook = new Webhook();
+
+    /**
+     * webhook缓存失效配置：接收Confluence推送的页面变更事件，使对应的页面和搜索缓存失效
+     */
+    @Data
+    public static class Webhook {
+
+        /**
+         * 是否启用webhook接口
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 与Confluence共享的密钥，用于校验X-Hub-Signature签名或X-Webhook-Token请求头，为空时拒绝所有事件
+         */
+        private String secret = "";
+
+        /**
+         * 同一页面的事件合并等待时间（毫秒），页面在此时间内没有新事件后才处理
+         */
+        private Long debounce = 2000L;
+
+        /**
+         * 页面持续收到事件时，从第一个事件起最多等待的时间（毫秒）
+         */
+        private Long maxDelay = 10000L;
+
+        /**
+         * 页面更新或创建后是否立即批量重新获取，关闭时只使缓存失效，下次访问时再获取
+         */
+        private Boolean refresh = true;
+    }
+
+    /**
+     * 热点页面预取配置
+     */
+    private Prefetch prefetch = new Prefetch();
+
+    /**
+     * 热点页面预取配置：按访问频率定期预热页面缓存，搜索后预取排名靠前的结果
+     */
+    @Data
+    public static class Prefetch {
+
+        /**
+         * 是否启用预取
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 跟踪的候选热点页面数，同时决定访问频率草图的大小
+         */
+        private Integer trackedPages = 2000;
+
+        /**
+         * 每次预热的热点页面数
+         */
+        private Integer warmTopN = 200;
+
+        /**
+         * 定期预热的间隔（毫秒）
+         */
+        private Long warmInterval = 600000L;
+
+        /**
+         * 搜索后在后台预取的排名靠前的结果数，0表示不预取
+         */
+        private Integer searchHits = 0;
+
+        /**
+         * 同时在途的预取批量请求数上限
+         */
+        private Integer maxInFlight = 2;
+
+        /**
+         * 只在访问Confluence的在途请求数低于并发上限的该比例时预取
+         */
+        private Double maxUpstreamUtilization = 0.5;
+
+        /**
+         * 保存热点页面ID的文件，启动时据此预热，为空时不保存
+         */
+        private String stateFile = "./data/popular-pages.txt";
+    }
+
+    /**
+     * 本地全文索引配置
+     */
+    private Index index = new Index();
+
+    /**
+     * 本地全文索引配置
+     */
+    @Data
+    public static class Index {
+
+        /**
+         * 是否启用本地全文索引，启用后已索引空间的搜索由本地索引回答
+         */
+        private Boolean enabled = false;
+
+        /**
+         * 需要建立索引的空间，多个空间以逗号分隔，未配置时使用默认空间
+         */
+        private String spaces = "";
+
+        /**
+         * 索引文件目录
+         */
+        private String directory = "./data/index";
+
+        /**
+         * 同步的间隔（毫秒），首次同步为全量同步，之后仅同步水位线之后修改的页面
+         */
+        private Long syncInterval = 3600000L;
+
+        /**
+         * 启动后首次同步的延迟（毫秒）
+         */
+        private Long initialDelay = 10000L;
+
+        /**
+         * 同步时单次请求获取的页面数
+         */
+        private Integer syncPageSize = 50;
+
+        /**
+         * 每个页面索引的正文最大字符数
+         */
+        private Integer maxContentLength = 100000;
+
+        /**
+         * 同步时获取页面正文的最大在途请求数
+         */
+        private Integer syncMaxInFlight = 2;
+
+        /**
+         * 同步时每秒最多发往Confluence的请求数，不大于0时不限制
+         */
+        private Double syncRequestsPerSecond = 2.0;
+
+        /**
+         * 增量同步时水位线向前回退的时长（毫秒），用于覆盖CQL分钟精度与时钟偏差
+         */
+        private Long watermarkOverlap = 300000L;
+
+        /**
+         * 构造lastmodified条件使用的时区，应与同步账号在Confluence中的时区一致，未配置时使用系统时区
+         */
+        private String timeZone = "";
+    }
+
+    /**
+     * 页面持久化存储配置
+     */
+    private Store store = new Store();
+
+    /**
+     * 页面持久化存储配置
+     */
+    @Data
+    public static class Store {
+
+        /**
+         * 是否启用页面持久化存储，启用后重启时可直接使用已提取的页面内容
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 存储文件目录
+         */
+        private String directory = "./data/store";
+
+        /**
+         * 存储文件最大字节数，超过时压缩并淘汰最早写入的页面
+         */
+        private Long maxBytes = 256L * 1024 * 1024;
+
+        /**
+         * 后台检查是否需要压缩的间隔（毫秒）
+         */
+        private Long compactInterval = 600000L;
+
+        /**
+         * 触发压缩的无效记录占比
+         */
+        private Double compactGarbageRatio = 0.5;
+    }
+
+    /**
+     * 访问Confluence的自适应并发限制与熔断配置
+     */
+    private Resilience resilience = new Resilience();
+
+    /**
+     * 访问Confluence的自适应并发限制与熔断配置
+     */
+    @Data
+    public static class Resilience {
+
+        /**
+         * 是否启用自适应并发限制与熔断
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 初始并发上限
+         */
+        private Integer initialLimit = 10;
+
+        /**
+         * 并发上限的下限
+         */
+        private Integer minLimit = 1;
+
+        /**
+         * 并发上限的上限，不超过连接池单路由连接数
+         */
+        private Integer maxLimit = 20;
+
+        /**
+         * 慢请求阈值（毫秒），超过时视为拥塞并降低并发上限
+         */
+        private Long slowCallThreshold = 5000L;
+
+        /**
+         * 拥塞（慢请求、超时、429/5xx）时并发上限乘以的系数
+         */
+        private Double backoffRatio = 0.7;
+
+        /**
+         * 并发已满时等待空位的最长时间（毫秒），超时后快速失败
+         */
+        private Long acquireTimeout = 1000L;
+
+        /**
+         * 熔断统计的最近请求数
+         */
+        private Integer windowSize = 20;
+
+        /**
+         * 窗口内至少有多少个请求才计算失败率
+         */
+        private Integer minimumCalls = 10;
+
+        /**
+         * 触发熔断的失败率
+         */
+        private Double failureRateThreshold = 0.5;
+
+        /**
+         * 熔断打开后拒绝请求的时长（毫秒），之后进入半开状态试探
+         */
+        private Long openDuration = 30000L;
+
+        /**
+         * 半开状态允许的试探请求数，全部成功后关闭熔断
+         */
+        private Integer halfOpenCalls = 3;
+    }
+
+    /**
+     * 访问Confluence的客户端限流配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 访问Confluence的客户端限流配置，所有请求共享同一个令牌桶
+     */
+    @Data
+    public static class RateLimit {
+
+        /**
+         * 每秒请求数，按Confluence的配额设置，不大于0时不限流
+         */
+        private Double requestsPerSecond = 0.0;
+
+        /**
+         * 令牌桶容量，允许的突发请求数
+         */
+        private Double burst = 10.0;
+    }
+
+    /**
+     * 请求失败后的重试配置
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * 请求失败后的重试配置，只用于GET请求：限流（429/503）、502/504和连接失败时按退避时间重试，
+     * 服务端返回Retry-After时按其等待
+     */
+    @Data
+    public static class Retry {
+
+        /**
+         * 最多尝试次数（含首次请求），1为不重试
+         */
+        private Integer maxAttempts = 3;
+
+        /**
+         * 首次重试的退避上限（毫秒），之后每次翻倍，实际等待时间在0到上限之间随机
+         */
+        private Long initialBackoff = 200L;
+
+        /**
+         * 退避上限的最大值（毫秒）
+         */
+        private Long maxBackoff = 5000L;
+
+        /**
+         * 愿意等待的最长Retry-After（毫秒），超过时不重试，直接返回限流错误
+         */
+        private Long maxRetryAfter = 30000L;
+    }
+
+    /**
+     * HTTP连接池配置
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * HTTP连接池配置，同步与异步连接池使用相同的设置
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * 连接池最大连接数
+         */
+        private Integer maxTotal = 100;
+
+        /**
+         * 单路由最大连接数，即同时连接Confluence的最大连接数
+         */
+        private Integer maxPerRoute = 20;
+
+        /**
+         * 空闲连接的最长保持时间（毫秒），服务端通过Keep-Alive要求更短时以服务端为准
+         */
+        private Long keepAlive = 180000L;
+
+        /**
+         * 空闲超过该时间（毫秒）的连接被后台清理
+         */
+        private Long idleEviction = 30000L;
+
+        /**
+         * 启动后预先建立的连接数，0为不预热
+         */
+        private Integer warmupConnections = 0;
+
+        /**
+         * TLS会话缓存的最大会话数，用于新连接恢复会话、省去完整握手
+         */
+        private Integer tlsSessionCacheSize = 100;
+
+        /**
+         * TLS会话缓存时间（秒）
+         */
+        private Integer tlsSessionTimeout = 86400;
+    }
+}
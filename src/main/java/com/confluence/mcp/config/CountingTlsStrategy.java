@@ -0,0 +1,100 @@
+package com.confluence.mcp.config;
+
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
+import org.apache.hc.core5.util.Timeout;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计TLS握手次数的TLS策略，同步与异步连接池共用，从而共用同一个TLS会话缓存
+ * <p>
+ * 恢复的会话沿用原会话的创建时间：TLS 1.2沿用缓存中的会话对象，TLS 1.3按PSK恢复时虽然生成新的会话对象，
+ * 但创建时间复制自原会话。因此握手完成后会话的创建时间早于本次握手开始时间即为恢复的会话，否则为完整握手。
+ */
+public class CountingTlsStrategy extends DefaultClientTlsStrategy {
+
+    private final LongAdder fullHandshakes = new LongAdder();
+    private final LongAdder resumedHandshakes = new LongAdder();
+
+    public CountingTlsStrategy(SSLContext sslContext) {
+        super(sslContext);
+    }
+
+    @Override
+    public SSLSocket upgrade(Socket socket, String target, int port, Object attachment, HttpContext context)
+            throws IOException {
+        long handshakeStart = System.currentTimeMillis();
+        SSLSocket sslSocket = super.upgrade(socket, target, port, attachment, context);
+        record(sslSocket.getSession(), handshakeStart);
+        return sslSocket;
+    }
+
+    @Override
+    public void upgrade(TransportSecurityLayer tlsSession, NamedEndpoint endpoint, Object attachment,
+                        Timeout handshakeTimeout, FutureCallback<TransportSecurityLayer> callback) {
+        long handshakeStart = System.currentTimeMillis();
+        super.upgrade(tlsSession, endpoint, attachment, handshakeTimeout, new FutureCallback<>() {
+            @Override
+            public void completed(TransportSecurityLayer result) {
+                TlsDetails tlsDetails = result.getTlsDetails();
+                if (tlsDetails != null) {
+                    record(tlsDetails.getSSLSession(), handshakeStart);
+                }
+                if (callback != null) {
+                    callback.completed(result);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                if (callback != null) {
+                    callback.failed(ex);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                if (callback != null) {
+                    callback.cancelled();
+                }
+            }
+        });
+    }
+
+    /**
+     * 记录一次完成的握手
+     *
+     * @param handshakeStart 握手开始时间（毫秒时间戳）
+     */
+    void record(SSLSession session, long handshakeStart) {
+        if (session.getCreationTime() < handshakeStart) {
+            resumedHandshakes.increment();
+        } else {
+            fullHandshakes.increment();
+        }
+    }
+
+    /**
+     * 完整握手次数
+     */
+    public long getFullHandshakes() {
+        return fullHandshakes.sum();
+    }
+
+    /**
+     * 恢复会话的简化握手次数
+     */
+    public long getResumedHandshakes() {
+        return resumedHandshakes.sum();
+    }
+}
@@ -0,0 +1,63 @@
+package com.confluence.mcp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 页面并发获取线程池配置类
+ */
+@Slf4j
+@Configuration
+public class FetchExecutorConfig {
+
+    /**
+     * 配置页面获取线程池，同时执行的任务数即全局在途请求上限，且不超过连接池单路由上限。
+     * 在Java 21及以上版本开启 spring.threads.virtual.enabled 时，每个任务使用一个虚拟线程，
+     * 由信号量限制同时执行的任务数；否则使用固定数量的平台线程。
+     * 线程池只执行读取响应体、加载页面等I/O任务，限流等待、重试退避和并发许可的重新尝试不在其中排队
+     */
+    @Bean
+    public ExecutorService pageFetchExecutor(ConfluenceConfig config, Environment environment) {
+        int threads = Math.max(1, Math.min(config.getFetch().getGlobalMaxInFlight(),
+                config.getPool().getMaxPerRoute()));
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("页面获取使用虚拟线程: 同时执行任务数上限={}", threads);
+            ThreadFactory threadFactory = new VirtualThreadTaskExecutor("page-fetch-").getVirtualThreadFactory();
+            return new BoundedExecutorService(newThreadPerTaskExecutor(threadFactory), threads);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "page-fetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 项目按Java 17编译，通过反射调用Java 21的 Executors.newThreadPerTaskExecutor
+     */
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("当前JDK不支持虚拟线程", e);
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.confluence.mcp.config;
 
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
 import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,37 +22,105 @@ import javax.net.ssl.SSLContext;
 
 /**
  * HTTP客户端配置类
+ * <p>
+ * 连接池大小、空闲连接保持与清理时间由 {@link ConfluenceConfig.Pool} 配置。两个连接池共用一个SSLContext，
+ * 新连接可以恢复任一连接池已建立的TLS会话，只需简化握手。
  */
 @Configuration
 public class HttpClientConfig {
 
     /**
-     * 配置HTTP连接池
+     * 配置TLS策略：使用JVM默认的SSLContext，保留 javax.net.ssl.keyStore/trustStore 配置的客户端证书和信任库；
+     * 会话缓存大小与时间可配置（作用于默认SSLContext的客户端会话缓存），并统计完整握手与会话恢复次数
      */
     @Bean
-    public PoolingHttpClientConnectionManager connectionManager() {
+    public CountingTlsStrategy tlsStrategy(ConfluenceConfig config) {
         try {
             SSLContext sslContext = SSLContext.getDefault();
-
-            return PoolingHttpClientConnectionManagerBuilder.create()
-                    .setMaxConnTotal(100)
-                    .setMaxConnPerRoute(20)
-                    .setSSLSocketFactory(new SSLConnectionSocketFactory(sslContext))
-                    .build();
+            sslContext.getClientSessionContext().setSessionCacheSize(config.getPool().getTlsSessionCacheSize());
+            sslContext.getClientSessionContext().setSessionTimeout(config.getPool().getTlsSessionTimeout());
+            return new CountingTlsStrategy(sslContext);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to create HTTP connection manager", e);
+            throw new RuntimeException("Failed to create TLS strategy", e);
         }
     }
 
+    /**
+     * 配置HTTP连接池
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager connectionManager(ConfluenceConfig config, CountingTlsStrategy tlsStrategy) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getPool().getMaxTotal())
+                .setMaxConnPerRoute(config.getPool().getMaxPerRoute())
+                .setTlsSocketStrategy(tlsStrategy)
+                .setDefaultConnectionConfig(connectionConfig(config))
+                .build();
+    }
+
     /**
      * 配置HTTP客户端
      */
     @Bean
-    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager, ConfluenceConfig config) {
+        // 响应解压由HttpClientUtil处理，以便统计压缩前后的字节数
         return HttpClients.custom()
                 .setConnectionManager(connectionManager)
+                .disableContentCompression()
+                .setKeepAliveStrategy(keepAliveStrategy(config))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(config.getPool().getIdleEviction()))
+                .build();
+    }
+
+    /**
+     * 配置异步HTTP连接池，TLS连接上通过ALPN协商HTTP/2，服务端不支持时使用HTTP/1.1
+     */
+    @Bean
+    public PoolingAsyncClientConnectionManager asyncConnectionManager(ConfluenceConfig config,
+                                                                      CountingTlsStrategy tlsStrategy) {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getPool().getMaxTotal())
+                .setMaxConnPerRoute(config.getPool().getMaxPerRoute())
+                .setTlsStrategy(tlsStrategy)
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                        .build())
+                .setDefaultConnectionConfig(connectionConfig(config))
+                .build();
+    }
+
+    /**
+     * 配置异步HTTP客户端
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient asyncHttpClient(PoolingAsyncClientConnectionManager asyncConnectionManager,
+                                                    ConfluenceConfig config) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(asyncConnectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy(config))
                 .evictExpiredConnections()
-                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .evictIdleConnections(TimeValue.ofMilliseconds(config.getPool().getIdleEviction()))
                 .build();
+        client.start();
+        return client;
+    }
+
+    private ConnectionConfig connectionConfig(ConfluenceConfig config) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectionTimeout()))
+                .build();
+    }
+
+    /**
+     * 空闲连接保持时间：服务端通过Keep-Alive指定的时间与配置值中较短的一个
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy(ConfluenceConfig config) {
+        TimeValue maxKeepAlive = TimeValue.ofMilliseconds(config.getPool().getKeepAlive());
+        return (response, context) -> {
+            TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(serverKeepAlive) && serverKeepAlive.compareTo(maxKeepAlive) < 0
+                    ? serverKeepAlive : maxKeepAlive;
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package com.confluence.mcp.config;
+
+/**
+ * 并发获取页面时使用的HTTP客户端模式
+ */
+public enum HttpClientMode {
+
+    /**
+     * 非阻塞异步客户端，等待响应时不占用线程，TLS连接上通过ALPN协商HTTP/2；
+     * 响应体经有界缓冲区在页面获取线程池中边接收边解析
+     */
+    ASYNC,
+
+    /**
+     * 阻塞客户端，每个在途请求占用页面获取线程池中的一个线程
+     */
+    BLOCKING
+}
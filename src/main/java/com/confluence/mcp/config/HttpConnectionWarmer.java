@@ -0,0 +1,115 @@
+package com.confluence.mcp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接预热：启动完成后预先建立到Confluence的连接（TCP连接与TLS握手），首批请求无需等待建立连接
+ * <p>
+ * 同步连接池直接租用并建立warmupConnections个连接后归还，不发送HTTP请求；
+ * 异步连接池只能通过请求建立连接，并发发送同样数量的不带认证的HEAD请求（HTTP/2下复用同一个连接）。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HttpConnectionWarmer {
+
+    private final ConfluenceConfig config;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient asyncHttpClient;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int connections = config.getPool().getWarmupConnections();
+        if (connections <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        HttpRoute route;
+        try {
+            route = route(config.getUrl());
+        } catch (RuntimeException e) {
+            log.warn("Confluence地址无效，跳过连接预热: {}", e.getMessage());
+            return;
+        }
+        int classic = warmUpClassic(route, Math.min(connections, config.getPool().getMaxPerRoute()));
+        int async = config.getHttpClientMode() == HttpClientMode.ASYNC ? warmUpAsync(connections) : 0;
+        log.info("连接预热完成: 同步连接池新建{}个连接, 异步连接池完成{}个请求, 耗时{}ms",
+                classic, async, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 租用指定数量的连接并逐个建立，全部归还后留在连接池中供后续请求复用
+     */
+    private int warmUpClassic(HttpRoute route, int connections) {
+        Timeout timeout = Timeout.ofMilliseconds(config.getConnectionTimeout());
+        List<ConnectionEndpoint> endpoints = new ArrayList<>();
+        int connected = 0;
+        try {
+            for (int i = 0; i < connections; i++) {
+                ConnectionEndpoint endpoint = connectionManager.lease("warmup-" + i, route, timeout, null).get(timeout);
+                endpoints.add(endpoint);
+                if (!endpoint.isConnected()) {
+                    connectionManager.connect(endpoint, null, HttpClientContext.create());
+                    connected++;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("同步连接池预热失败: 已建立{}个连接, 原因={}", connected, e.getMessage());
+        } finally {
+            TimeValue keepAlive = TimeValue.ofMilliseconds(config.getPool().getKeepAlive());
+            endpoints.forEach(endpoint -> connectionManager.release(endpoint, null, keepAlive));
+        }
+        return connected;
+    }
+
+    private int warmUpAsync(int requests) {
+        List<Future<SimpleHttpResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(asyncHttpClient.execute(SimpleRequestBuilder.head(config.getUrl()).build(), null));
+        }
+        int completed = 0;
+        for (Future<SimpleHttpResponse> future : futures) {
+            try {
+                future.get(config.getConnectionTimeout() + config.getReadTimeout(), TimeUnit.MILLISECONDS);
+                completed++;
+            } catch (Exception e) {
+                future.cancel(true);
+                log.debug("异步连接池预热请求失败: {}", e.getMessage());
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Confluence地址对应的路由，与请求时的路由一致（端口补全为协议默认端口）才能复用预热的连接
+     */
+    static HttpRoute route(String url) {
+        URI uri = URI.create(url);
+        HttpHost host = new HttpHost(uri.getScheme(), uri.getHost(), uri.getPort());
+        if (host.getPort() < 0) {
+            host = new HttpHost(host.getSchemeName(), host.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(host));
+        }
+        return new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName()));
+    }
+}
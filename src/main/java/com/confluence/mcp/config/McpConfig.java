@@ -1,17 +1,29 @@
 package com.confluence.mcp.config;
 
+import com.confluence.mcp.metrics.TimedToolCallback;
 import com.confluence.mcp.tool.ConfluenceTool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
+
 @Configuration
 public class McpConfig {
+    /**
+     * 注册Confluence工具，每个工具调用记录耗时指标
+     */
     @Bean
-    public ToolCallbackProvider confluenceToolProvider(ConfluenceTool confluenceTool) {
-        return MethodToolCallbackProvider.builder()
+    public ToolCallbackProvider confluenceToolProvider(ConfluenceTool confluenceTool, MeterRegistry meterRegistry) {
+        ToolCallback[] callbacks = MethodToolCallbackProvider.builder()
                 .toolObjects(confluenceTool)
-                .build();
+                .build()
+                .getToolCallbacks();
+        return ToolCallbackProvider.from(Arrays.stream(callbacks)
+                .map(callback -> (ToolCallback) new TimedToolCallback(callback, meterRegistry))
+                .toList());
     }
 }
@@ -0,0 +1,30 @@
+package com.confluence.mcp.config;
+
+/**
+ * 通过REST接口获取页面时请求的正文格式
+ */
+public enum PageBodyFormat {
+
+    /**
+     * 渲染后的HTML，宏已展开，Confluence需要渲染页面
+     */
+    VIEW("body.view"),
+
+    /**
+     * 存储格式（XHTML），无需渲染，开销更小，但宏只保留定义不展开
+     */
+    STORAGE("body.storage");
+
+    private final String expand;
+
+    PageBodyFormat(String expand) {
+        this.expand = expand;
+    }
+
+    /**
+     * REST接口expand参数中对应的字段
+     */
+    public String getExpand() {
+        return expand;
+    }
+}
@@ -0,0 +1,12 @@
+package com.confluence.mcp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置类，用于本地索引的周期同步
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
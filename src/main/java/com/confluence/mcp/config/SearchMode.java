@@ -0,0 +1,32 @@
+package com.confluence.mcp.config;
+
+/**
+ * 搜索模式
+ */
+public enum SearchMode {
+
+    /**
+     * 精简模式：使用搜索接口返回的高亮摘要，一次搜索只发起一次HTTP请求
+     */
+    LEAN,
+
+    /**
+     * 深度模式：逐个获取搜索结果页面并提取正文摘要
+     */
+    DEEP;
+
+    /**
+     * 解析搜索模式参数，无法识别时返回默认模式
+     */
+    public static SearchMode parse(String value, SearchMode defaultMode) {
+        if (value == null || value.isBlank()) {
+            return defaultMode;
+        }
+        for (SearchMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        return defaultMode;
+    }
+}
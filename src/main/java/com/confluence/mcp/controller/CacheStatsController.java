@@ -0,0 +1,43 @@
+package com.confluence.mcp.controller;
+
+import com.confluence.mcp.cache.PageContentCache;
+import com.confluence.mcp.cache.PageOutlineCache;
+import com.confluence.mcp.cache.PagePrefetcher;
+import com.confluence.mcp.cache.SearchResultCache;
+import com.confluence.mcp.store.PageStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存统计接口
+ */
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final PageContentCache pageContentCache;
+    private final SearchResultCache searchResultCache;
+    private final PageOutlineCache pageOutlineCache;
+    private final PagePrefetcher pagePrefetcher;
+    private final PageStore pageStore;
+
+    /**
+     * 查询各缓存与持久化存储的命中、未命中与淘汰计数
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("page", pageContentCache.stats());
+        result.put("search", searchResultCache.stats());
+        result.put("outline", pageOutlineCache.stats());
+        result.put("prefetch", pagePrefetcher.stats());
+        result.put("store", pageStore.stats());
+        return result;
+    }
+}
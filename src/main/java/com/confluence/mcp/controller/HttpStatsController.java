@@ -0,0 +1,37 @@
+package com.confluence.mcp.controller;
+
+import com.confluence.mcp.config.CountingTlsStrategy;
+import com.confluence.mcp.resilience.UpstreamGuard;
+import com.confluence.mcp.util.HttpClientUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP传输统计接口
+ */
+@RestController
+@RequestMapping("/api/v1/http")
+@RequiredArgsConstructor
+public class HttpStatsController {
+
+    private final HttpClientUtil httpClientUtil;
+    private final UpstreamGuard upstreamGuard;
+    private final CountingTlsStrategy tlsStrategy;
+
+    /**
+     * 查询响应的传输字节数（压缩后）与解码后字节数，TLS握手次数，以及访问Confluence的并发上限和熔断状态
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>(httpClientUtil.transferStats());
+        result.put("tlsFullHandshakes", tlsStrategy.getFullHandshakes());
+        result.put("tlsResumedHandshakes", tlsStrategy.getResumedHandshakes());
+        result.put("upstream", upstreamGuard.stats());
+        return result;
+    }
+}
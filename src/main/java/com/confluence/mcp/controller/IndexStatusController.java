@@ -0,0 +1,35 @@
+package com.confluence.mcp.controller;
+
+import com.confluence.mcp.index.IndexSyncService;
+import com.confluence.mcp.index.LocalSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地索引状态接口
+ */
+@RestController
+@RequestMapping("/api/v1/index")
+@RequiredArgsConstructor
+public class IndexStatusController {
+
+    private final LocalSearchIndex localSearchIndex;
+    private final IndexSyncService indexSyncService;
+
+    /**
+     * 查询索引文档数、各空间水位线，以及最近一次同步的进度与吞吐量
+     */
+    @GetMapping("/status")
+    public Map<String, Object> status() throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", localSearchIndex.stats());
+        result.put("sync", indexSyncService.status());
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package com.confluence.mcp.controller;
+
+import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.JsonParserUtil.WebhookEvent;
+import com.confluence.mcp.webhook.WebhookInvalidationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Confluence webhook接口：接收页面变更事件，使对应的缓存失效
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/webhook")
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private final WebhookInvalidationService invalidationService;
+    private final JsonParserUtil jsonParserUtil;
+
+    /**
+     * 接收页面变更事件，校验密钥后合并处理；事件异步处理，立即返回202
+     */
+    @PostMapping("/confluence")
+    public ResponseEntity<Map<String, Object>> receive(
+            @RequestBody byte[] body,
+            @RequestHeader(value = "X-Hub-Signature", required = false) String signature,
+            @RequestHeader(value = "X-Webhook-Token", required = false) String token) {
+        if (!invalidationService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "webhook未启用"));
+        }
+        if (!invalidationService.isAuthorized(body, signature, token)) {
+            log.warn("webhook签名校验失败");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "签名校验失败"));
+        }
+
+        Optional<WebhookEvent> event;
+        try {
+            event = jsonParserUtil.parseWebhookEvent(body);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "无法解析事件: " + e.getMessage()));
+        }
+        boolean accepted = event.map(invalidationService::submit).orElse(false);
+        return ResponseEntity.accepted().body(Map.of("accepted", accepted));
+    }
+
+    /**
+     * 查询收到、忽略、拒绝与合并的事件数，以及失效和重新获取的页面数
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return invalidationService.stats();
+    }
+}
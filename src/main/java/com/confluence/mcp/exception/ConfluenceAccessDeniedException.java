@@ -0,0 +1,11 @@
+package com.confluence.mcp.exception;
+
+/**
+ * 认证失败或无权访问（401/403）
+ */
+public class ConfluenceAccessDeniedException extends ConfluenceHttpException {
+
+    public ConfluenceAccessDeniedException(int statusCode, String message) {
+        super(statusCode, message);
+    }
+}
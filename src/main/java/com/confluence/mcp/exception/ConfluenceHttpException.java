@@ -0,0 +1,40 @@
+package com.confluence.mcp.exception;
+
+/**
+ * Confluence返回错误状态码，具体原因见各子类
+ */
+public class ConfluenceHttpException extends ConfluenceException {
+
+    private final int statusCode;
+
+    public ConfluenceHttpException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 按状态码创建对应类型的异常
+     *
+     * @param retryAfterMillis 响应中Retry-After表示的等待时间，未返回时为null
+     */
+    public static ConfluenceHttpException of(int statusCode, Long retryAfterMillis) {
+        String message = "HTTP请求失败，状态码: " + statusCode;
+        if (statusCode == 429 || (statusCode == 503 && retryAfterMillis != null)) {
+            return new ConfluenceThrottledException(statusCode, message, retryAfterMillis);
+        }
+        if (statusCode == 401 || statusCode == 403) {
+            return new ConfluenceAccessDeniedException(statusCode, message);
+        }
+        if (statusCode == 404) {
+            return new ConfluenceNotFoundException(message);
+        }
+        if (statusCode >= 500) {
+            return new ConfluenceServerException(statusCode, message);
+        }
+        return new ConfluenceHttpException(statusCode, message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.confluence.mcp.exception;
+
+/**
+ * 页面或空间不存在（404）
+ */
+public class ConfluenceNotFoundException extends ConfluenceHttpException {
+
+    public ConfluenceNotFoundException(String message) {
+        super(404, message);
+    }
+}
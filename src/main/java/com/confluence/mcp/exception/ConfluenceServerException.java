@@ -0,0 +1,11 @@
+package com.confluence.mcp.exception;
+
+/**
+ * Confluence服务端错误（5xx，限流除外）
+ */
+public class ConfluenceServerException extends ConfluenceHttpException {
+
+    public ConfluenceServerException(int statusCode, String message) {
+        super(statusCode, message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.confluence.mcp.exception;
+
+/**
+ * Confluence限流：429，或带Retry-After的503
+ */
+public class ConfluenceThrottledException extends ConfluenceHttpException {
+
+    private final Long retryAfterMillis;
+
+    public ConfluenceThrottledException(int statusCode, String message, Long retryAfterMillis) {
+        super(statusCode, retryAfterMillis == null ? message + "（Confluence限流，请稍后重试）"
+                : message + "（Confluence限流，建议" + Math.max(1, (retryAfterMillis + 999) / 1000) + "秒后重试）");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * 服务端要求的等待时间（毫秒），未返回Retry-After时为null
+     */
+    public Long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
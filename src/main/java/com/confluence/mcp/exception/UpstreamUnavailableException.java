@@ -0,0 +1,11 @@
+package com.confluence.mcp.exception;
+
+/**
+ * Confluence暂不可用：熔断器打开或并发已满时快速失败，请求未发往Confluence
+ */
+public class UpstreamUnavailableException extends ConfluenceException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
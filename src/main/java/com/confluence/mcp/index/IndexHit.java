@@ -0,0 +1,27 @@
+package com.confluence.mcp.index;
+
+import lombok.Value;
+
+/**
+ * 本地索引的搜索命中
+ */
+@Value
+public class IndexHit {
+
+    String id;
+    String title;
+    String spaceKey;
+    Integer version;
+    String lastModified;
+    String webUrl;
+
+    /**
+     * 正文中与查询最相关的片段
+     */
+    String snippet;
+
+    /**
+     * BM25相关度得分
+     */
+    float score;
+}
@@ -0,0 +1,342 @@
+package com.confluence.mcp.index;
+
+import com.confluence.mcp.cache.PageContentCache;
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.util.HtmlTextExtractor;
+import com.confluence.mcp.util.HttpClientUtil;
+import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.JsonParserUtil.ConfluencePage;
+import com.confluence.mcp.util.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * 本地索引同步服务
+ * <p>
+ * 首次同步抓取空间的全部页面和博客；之后以上次同步开始时间为水位线，
+ * 通过lastmodified条件只获取之后修改的页面，并比对空间中现存的页面ID删除已删除的页面。
+ * 水位线随索引一起持久化，重启后继续增量同步。所有请求共享同一个限流器，正文获取的在途请求数有上限。
+ * 同步得到的页面版本号与页面缓存比对，只有版本变化和已删除的页面从页面缓存中失效。
+ */
+@Slf4j
+@Service
+public class IndexSyncService {
+
+    /**
+     * 列出页面ID时单次请求的页面数
+     */
+    private static final int ID_LIST_PAGE_SIZE = 200;
+
+    private static final String CONTENT_TYPES = "type in (page,blogpost)";
+
+    private final ConfluenceConfig config;
+    private final HttpClientUtil httpClientUtil;
+    private final JsonParserUtil jsonParserUtil;
+    private final HtmlTextExtractor htmlTextExtractor;
+    private final LocalSearchIndex localSearchIndex;
+    private final PageContentCache pageContentCache;
+    private final RateLimiter rateLimiter;
+    private final DateTimeFormatter cqlDateFormatter;
+
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    private final Map<String, Progress> progressBySpace = new ConcurrentHashMap<>();
+
+    public IndexSyncService(ConfluenceConfig config, HttpClientUtil httpClientUtil, JsonParserUtil jsonParserUtil,
+                            HtmlTextExtractor htmlTextExtractor, LocalSearchIndex localSearchIndex,
+                            PageContentCache pageContentCache) {
+        ConfluenceConfig.Index indexConfig = config.getIndex();
+        this.config = config;
+        this.httpClientUtil = httpClientUtil;
+        this.jsonParserUtil = jsonParserUtil;
+        this.htmlTextExtractor = htmlTextExtractor;
+        this.localSearchIndex = localSearchIndex;
+        this.pageContentCache = pageContentCache;
+        double requestsPerSecond = indexConfig.getSyncRequestsPerSecond();
+        this.rateLimiter = new RateLimiter(requestsPerSecond, Math.max(1.0, requestsPerSecond));
+        ZoneId zone = indexConfig.getTimeZone() == null || indexConfig.getTimeZone().isBlank()
+                ? ZoneId.systemDefault() : ZoneId.of(indexConfig.getTimeZone());
+        this.cqlDateFormatter = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm").withZone(zone);
+    }
+
+    @Scheduled(initialDelayString = "${confluence.index.initial-delay:10000}",
+            fixedDelayString = "${confluence.index.sync-interval:3600000}")
+    public void scheduledSync() {
+        if (!localSearchIndex.isEnabled()) {
+            return;
+        }
+        syncAll();
+    }
+
+    /**
+     * 同步所有配置的空间，单个空间失败不影响其他空间
+     */
+    public void syncAll() {
+        if (!syncing.compareAndSet(false, true)) {
+            log.info("本地索引同步正在进行，跳过本次同步");
+            return;
+        }
+        try {
+            for (String spaceKey : configuredSpaces()) {
+                try {
+                    syncSpace(spaceKey);
+                } catch (Exception e) {
+                    log.warn("空间{}索引同步失败: {}", spaceKey, e.getMessage(), e);
+                }
+            }
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    /**
+     * 同步单个空间：没有水位线时全量同步，否则只同步水位线之后修改的页面，并删除空间中已不存在的页面
+     */
+    public SyncStatus syncSpace(String spaceKey) throws Exception {
+        long startedAt = System.currentTimeMillis();
+        Long watermark = localSearchIndex.lastSyncedAt(spaceKey).orElse(null);
+        Progress progress = new Progress(spaceKey, watermark, startedAt);
+        progressBySpace.put(spaceKey, progress);
+        try {
+            // 1. 列出水位线之后修改的页面，回退一段时间以覆盖分钟精度和时钟偏差
+            Long since = watermark != null ? watermark - config.getIndex().getWatermarkOverlap() : null;
+            Set<String> changed = listPageIds(searchUrlBuilder(spaceKey, since), config.getIndex().getSyncPageSize(),
+                    progress);
+            progress.changedPages.set(changed.size());
+            log.info("空间{}开始{}同步: 修改的页面数={}", spaceKey, watermark == null ? "全量" : "增量", changed.size());
+
+            // 2. 批量获取修改页面的正文并写入索引
+            fetchAndIndex(new ArrayList<>(changed), progress);
+
+            // 3. 比对空间中现存的页面，删除已不存在的页面；全量同步列出的即为全部页面
+            Set<String> live = watermark == null ? changed
+                    : listPageIds(start -> buildIdListUrl(spaceKey, start), ID_LIST_PAGE_SIZE, progress);
+            Set<String> deleted = new HashSet<>(localSearchIndex.pageIds(spaceKey));
+            deleted.removeAll(live);
+            localSearchIndex.delete(deleted);
+            progress.deletedPages.set(deleted.size());
+
+            localSearchIndex.commitSpaceSync(spaceKey, startedAt);
+            pageContentCache.invalidateAll(deleted);
+
+            SyncStatus status = progress.finish(SyncStatus.State.SUCCEEDED, null);
+            log.info("空间{}索引同步完成: 写入{}个, 删除{}个, 请求{}次, 耗时{}ms, {}页/秒", spaceKey,
+                    status.getIndexedPages(), status.getDeletedPages(), status.getRequestCount(),
+                    status.getFinishedAt() - startedAt, String.format("%.1f", status.getPagesPerSecond()));
+            return status;
+        } catch (Exception e) {
+            progress.finish(SyncStatus.State.FAILED, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 各空间最近一次同步的进度
+     */
+    public List<SyncStatus> status() {
+        return progressBySpace.values().stream().map(Progress::snapshot).toList();
+    }
+
+    /**
+     * 分页列出页面ID，以返回空页作为结束条件（服务端可能下调单页数量）
+     */
+    private Set<String> listPageIds(PageUrlBuilder urlBuilder, int pageSize, Progress progress) throws Exception {
+        Set<String> ids = new LinkedHashSet<>();
+        int start = 0;
+        while (true) {
+            rateLimiter.acquire();
+            progress.requestCount.incrementAndGet();
+            List<ConfluencePage> pages = httpClientUtil.executeGetRequest(
+                    urlBuilder.build(start) + "&limit=" + Math.max(1, pageSize), jsonParserUtil::parseSearchResults);
+            if (pages.isEmpty()) {
+                return ids;
+            }
+            pages.stream().map(ConfluencePage::getId).forEach(ids::add);
+            start += pages.size();
+        }
+    }
+
+    /**
+     * 按批量大小获取页面正文并写入索引，在途请求数不超过配置上限
+     */
+    private void fetchAndIndex(List<String> pageIds, Progress progress) throws Exception {
+        int bulkSize = Math.max(1, config.getFetch().getBulkSize());
+        Semaphore inFlight = new Semaphore(Math.max(1, config.getIndex().getSyncMaxInFlight()));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < pageIds.size() && failure.get() == null; from += bulkSize) {
+            List<String> batch = pageIds.subList(from, Math.min(from + bulkSize, pageIds.size()));
+            inFlight.acquire();
+            rateLimiter.acquire();
+            progress.requestCount.incrementAndGet();
+            batches.add(httpClientUtil.executeGetRequestAsync(buildBulkUrl(batch), body -> jsonParserUtil.parseSearchResults(
+                            body, html -> htmlTextExtractor.extractFragment(html, config.getIndex().getMaxContentLength())))
+                    .thenAccept(pages -> indexPages(pages, progress))
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            failure.compareAndSet(null, error);
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void indexPages(List<ConfluencePage> pages, Progress progress) {
+        try {
+            Map<String, Integer> versions = new HashMap<>();
+            for (ConfluencePage page : pages) {
+                localSearchIndex.upsert(toIndexedPage(progress.spaceKey, page));
+                progress.indexedPages.incrementAndGet();
+                versions.put(page.getId(), page.getVersion());
+            }
+            // 只使版本已变化的页面缓存失效，全量同步不会清空整个空间的页面缓存
+            int invalidated = pageContentCache.invalidateChanged(versions);
+            log.debug("空间{}同步进度: {}/{}, 本批失效缓存{}个", progress.spaceKey, progress.indexedPages.get(),
+                    progress.changedPages.get(), invalidated);
+        } catch (Exception e) {
+            throw new IllegalStateException("写入本地索引失败: " + e.getMessage(), e);
+        }
+    }
+
+    private List<String> configuredSpaces() {
+        String spaces = config.getIndex().getSpaces();
+        if (spaces == null || spaces.isBlank()) {
+            return List.of(config.getDefaultSpace());
+        }
+        return Arrays.stream(spaces.split(","))
+                .map(String::trim)
+                .filter(space -> !space.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * 构建变更列表URL：/rest/api/search?cql=space="X" and type in (...) and lastmodified >= "..."
+     */
+    private PageUrlBuilder searchUrlBuilder(String spaceKey, Long since) {
+        StringBuilder cql = new StringBuilder(spaceCql(spaceKey)).append(" and ").append(CONTENT_TYPES);
+        if (since != null) {
+            cql.append(" and lastmodified >= \"").append(cqlDateFormatter.format(Instant.ofEpochMilli(since))).append('"');
+        }
+        cql.append(" order by lastmodified asc");
+        String prefix = config.getUrl() + "/rest/api/search?cql=" + encode(cql.toString()) + "&excerpt=none";
+        return start -> prefix + "&start=" + start;
+    }
+
+    /**
+     * 构建页面ID列表URL：/rest/api/content/search?cql=space="X" and type in (...)
+     */
+    private String buildIdListUrl(String spaceKey, int start) {
+        return config.getUrl() + "/rest/api/content/search?cql=" + encode(spaceCql(spaceKey) + " and " + CONTENT_TYPES)
+                + "&start=" + start;
+    }
+
+    /**
+     * 构建批量获取URL：/rest/api/content/search?cql=id in (...)，展开正文、版本、空间和标签
+     */
+    private String buildBulkUrl(Collection<String> pageIds) {
+        String cql = "id in (" + pageIds.stream()
+                .map(id -> "\"" + id.replace("\"", "") + "\"")
+                .collect(Collectors.joining(",")) + ")";
+        String expand = config.getFetch().getBodyFormat().getExpand() + ",version,space,metadata.labels";
+        return config.getUrl() + "/rest/api/content/search?cql=" + encode(cql)
+                + "&limit=" + pageIds.size()
+                + "&expand=" + encode(expand);
+    }
+
+    private String spaceCql(String spaceKey) {
+        return "space=\"" + spaceKey.replace("\"", "") + "\"";
+    }
+
+    private IndexedPage toIndexedPage(String spaceKey, ConfluencePage page) {
+        String content = page.getBody() == null || page.getBody().getText() == null ? "" : page.getBody().getText();
+        return IndexedPage.builder()
+                .id(page.getId())
+                .type(page.getType())
+                .title(page.getTitle())
+                .spaceKey(page.getSpaceKey() != null ? page.getSpaceKey() : spaceKey)
+                .labels(page.getLabels())
+                .content(content)
+                .version(page.getVersion())
+                .lastModified(page.getLastModified())
+                .webUrl(page.getWebUrl())
+                .build();
+    }
+
+    private String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface PageUrlBuilder {
+        String build(int start);
+    }
+
+    /**
+     * 单个空间同步过程中的计数，供进度查询读取快照
+     */
+    private static class Progress {
+        private final String spaceKey;
+        private final Long watermark;
+        private final long startedAt;
+        private final AtomicInteger changedPages = new AtomicInteger();
+        private final AtomicInteger indexedPages = new AtomicInteger();
+        private final AtomicInteger deletedPages = new AtomicInteger();
+        private final AtomicInteger requestCount = new AtomicInteger();
+        private volatile SyncStatus.State state = SyncStatus.State.RUNNING;
+        private volatile Long finishedAt;
+        private volatile String error;
+
+        Progress(String spaceKey, Long watermark, long startedAt) {
+            this.spaceKey = spaceKey;
+            this.watermark = watermark;
+            this.startedAt = startedAt;
+        }
+
+        SyncStatus finish(SyncStatus.State state, String error) {
+            this.error = error;
+            this.finishedAt = System.currentTimeMillis();
+            this.state = state;
+            return snapshot();
+        }
+
+        SyncStatus snapshot() {
+            return SyncStatus.builder()
+                    .spaceKey(spaceKey)
+                    .state(state)
+                    .fullSync(watermark == null)
+                    .watermark(watermark)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .changedPages(changedPages.get())
+                    .indexedPages(indexedPages.get())
+                    .deletedPages(deletedPages.get())
+                    .requestCount(requestCount.get())
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.confluence.mcp.index;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * 写入本地索引的页面
+ */
+@Value
+@Builder
+public class IndexedPage {
+
+    String id;
+    String type;
+    String title;
+    String spaceKey;
+    List<String> labels;
+
+    /**
+     * 提取后的纯文本正文
+     */
+    String content;
+
+    Integer version;
+    String lastModified;
+    String webUrl;
+}
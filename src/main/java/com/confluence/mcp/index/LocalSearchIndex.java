@@ -0,0 +1,326 @@
+package com.confluence.mcp.index;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地全文索引
+ * <p>
+ * 基于Lucene在本地磁盘上索引已配置空间的页面标题、正文、空间与标签，按BM25排序并生成正文片段。
+ * 各空间的最后同步时间保存在索引提交信息中，既用于判断索引新鲜度，也作为重启后增量同步的水位线。
+ */
+@Slf4j
+@Component
+public class LocalSearchIndex implements AutoCloseable {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_SPACE = "space";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_CONTENT = "content";
+    private static final String FIELD_LABELS = "labels";
+    private static final String FIELD_VERSION = "version";
+    private static final String FIELD_LAST_MODIFIED = "lastModified";
+    private static final String FIELD_URL = "url";
+
+    /**
+     * 提交信息中记录空间同步时间的键前缀
+     */
+    private static final String SYNCED_AT_PREFIX = "syncedAt.";
+
+    private static final int SNIPPET_LENGTH = 300;
+
+    /**
+     * 正文字段额外记录偏移量，生成片段时无需重新分析正文
+     */
+    private static final FieldType CONTENT_FIELD_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        CONTENT_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_FIELD_TYPE.freeze();
+    }
+
+    private final boolean enabled;
+    private final int maxContentLength;
+    private final Analyzer analyzer;
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final Map<String, Long> syncedAt = new ConcurrentHashMap<>();
+
+    public LocalSearchIndex(ConfluenceConfig config) throws IOException {
+        ConfluenceConfig.Index indexConfig = config.getIndex();
+        this.enabled = Boolean.TRUE.equals(indexConfig.getEnabled());
+        this.maxContentLength = indexConfig.getMaxContentLength();
+        if (!enabled) {
+            this.analyzer = null;
+            this.directory = null;
+            this.writer = null;
+            this.searcherManager = null;
+            return;
+        }
+
+        // CJK二元分词，中英文混合内容均可检索
+        this.analyzer = new CJKAnalyzer();
+        this.directory = FSDirectory.open(Path.of(indexConfig.getDirectory()));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (entry.getKey().startsWith(SYNCED_AT_PREFIX)) {
+                    syncedAt.put(entry.getKey().substring(SYNCED_AT_PREFIX.length()), Long.parseLong(entry.getValue()));
+                }
+            }
+        }
+        log.info("本地全文索引已打开: 目录={}, 文档数={}, 已同步空间={}",
+                indexConfig.getDirectory(), writer.getDocStats().numDocs, syncedAt.keySet());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 空间是否已完成过至少一次同步，可由本地索引回答搜索
+     */
+    public boolean isIndexed(String spaceKey) {
+        return enabled && syncedAt.containsKey(spaceKey);
+    }
+
+    /**
+     * 空间最后一次同步完成的时间（同步开始时刻，毫秒）
+     */
+    public Optional<Long> lastSyncedAt(String spaceKey) {
+        return Optional.ofNullable(syncedAt.get(spaceKey));
+    }
+
+    /**
+     * 写入或替换页面，提交前对搜索不可见
+     */
+    public void upsert(IndexedPage page) throws IOException {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, page.getId(), Field.Store.YES));
+        document.add(new StringField(FIELD_SPACE, nullToEmpty(page.getSpaceKey()), Field.Store.YES));
+        document.add(new StringField(FIELD_TYPE, nullToEmpty(page.getType()), Field.Store.NO));
+        document.add(new TextField(FIELD_TITLE, nullToEmpty(page.getTitle()), Field.Store.YES));
+        String content = nullToEmpty(page.getContent());
+        if (content.length() > maxContentLength) {
+            content = content.substring(0, maxContentLength);
+        }
+        document.add(new Field(FIELD_CONTENT, content, CONTENT_FIELD_TYPE));
+        if (page.getLabels() != null) {
+            for (String label : page.getLabels()) {
+                document.add(new TextField(FIELD_LABELS, label, Field.Store.NO));
+            }
+        }
+        if (page.getVersion() != null) {
+            document.add(new StoredField(FIELD_VERSION, page.getVersion()));
+        }
+        if (page.getLastModified() != null) {
+            document.add(new StoredField(FIELD_LAST_MODIFIED, page.getLastModified()));
+        }
+        if (page.getWebUrl() != null) {
+            document.add(new StoredField(FIELD_URL, page.getWebUrl()));
+        }
+        writer.updateDocument(new Term(FIELD_ID, page.getId()), document);
+    }
+
+    /**
+     * 删除页面，提交前对搜索不可见
+     */
+    public void delete(Collection<String> pageIds) throws IOException {
+        if (pageIds.isEmpty()) {
+            return;
+        }
+        writer.deleteDocuments(pageIds.stream().map(id -> new Term(FIELD_ID, id)).toArray(Term[]::new));
+    }
+
+    /**
+     * 空间中已索引的全部页面ID（仅包含已提交的页面）
+     */
+    public Set<String> pageIds(String spaceKey) throws IOException {
+        Query query = new TermQuery(new Term(FIELD_SPACE, spaceKey));
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, Math.max(1, searcher.count(query)));
+            StoredFields storedFields = searcher.storedFields();
+            Set<String> ids = new HashSet<>();
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                ids.add(storedFields.document(scoreDoc.doc, Set.of(FIELD_ID)).get(FIELD_ID));
+            }
+            return ids;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * 提交空间同步：记录同步水位线并提交，提交后新的搜索可见
+     *
+     * @param watermark 本次同步开始的时间，下次增量同步从此时间之后修改的页面开始
+     */
+    public void commitSpaceSync(String spaceKey, long watermark) throws IOException {
+        syncedAt.put(spaceKey, watermark);
+        Map<String, String> commitData = new HashMap<>();
+        syncedAt.forEach((space, time) -> commitData.put(SYNCED_AT_PREFIX + space, String.valueOf(time)));
+        writer.setLiveCommitData(commitData.entrySet());
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * 搜索已索引的页面，按BM25相关度排序
+     *
+     * @param keyword 搜索关键字，为空时返回全部页面
+     * @param spaces  限定的空间
+     * @param types   限定的内容类型，为空时不限定
+     * @param limit   返回数量上限
+     */
+    public List<IndexHit> search(String keyword, Collection<String> spaces, Collection<String> types, int limit)
+            throws IOException {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(buildTextQuery(keyword), BooleanClause.Occur.MUST)
+                .add(termsQuery(FIELD_SPACE, spaces), BooleanClause.Occur.FILTER);
+        if (types != null && !types.isEmpty()) {
+            builder.add(termsQuery(FIELD_TYPE, types), BooleanClause.Occur.FILTER);
+        }
+        Query query = builder.build();
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, Math.max(1, limit));
+            UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+                    .withFormatter(new DefaultPassageFormatter("", "", "...", false))
+                    .withMaxLength(maxContentLength)
+                    .build();
+            String[] snippets = highlighter.highlight(FIELD_CONTENT, query, topDocs, 1);
+
+            StoredFields storedFields = searcher.storedFields();
+            List<IndexHit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                Document document = storedFields.document(scoreDoc.doc);
+                Number version = document.getField(FIELD_VERSION) != null
+                        ? document.getField(FIELD_VERSION).numericValue() : null;
+                hits.add(new IndexHit(
+                        document.get(FIELD_ID),
+                        document.get(FIELD_TITLE),
+                        document.get(FIELD_SPACE),
+                        version != null ? version.intValue() : null,
+                        document.get(FIELD_LAST_MODIFIED),
+                        document.get(FIELD_URL),
+                        truncate(snippets[i]),
+                        scoreDoc.score));
+            }
+            return hits;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * 索引统计信息
+     */
+    public Map<String, Object> stats() throws IOException {
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        if (enabled) {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                result.put("documentCount", ((DirectoryReader) searcher.getIndexReader()).numDocs());
+            } finally {
+                searcherManager.release(searcher);
+            }
+            result.put("syncedAt", new HashMap<>(syncedAt));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query buildTextQuery(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return new MatchAllDocsQuery();
+        }
+        // 标题与标签的匹配权重高于正文
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(
+                new String[]{FIELD_TITLE, FIELD_LABELS, FIELD_CONTENT}, analyzer,
+                Map.of(FIELD_TITLE, 2.0f, FIELD_LABELS, 1.5f, FIELD_CONTENT, 1.0f));
+        try {
+            return parser.parse(QueryParser.escape(keyword));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("无法解析搜索关键字: " + keyword, e);
+        }
+    }
+
+    private Query termsQuery(String field, Collection<String> values) {
+        List<BytesRef> terms = values.stream().map(BytesRef::new).toList();
+        return new TermInSetQuery(field, terms);
+    }
+
+    private String truncate(String snippet) {
+        if (snippet == null) {
+            return null;
+        }
+        return snippet.length() > SNIPPET_LENGTH ? snippet.substring(0, SNIPPET_LENGTH) + "..." : snippet;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
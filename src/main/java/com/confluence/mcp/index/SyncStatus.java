@@ -0,0 +1,62 @@
+package com.confluence.mcp.index;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 空间同步进度快照
+ */
+@Value
+@Builder
+public class SyncStatus {
+
+    public enum State {
+        RUNNING, SUCCEEDED, FAILED
+    }
+
+    String spaceKey;
+    State state;
+
+    /**
+     * 是否为全量同步（没有水位线时）
+     */
+    boolean fullSync;
+
+    /**
+     * 本次同步使用的水位线，全量同步时为null
+     */
+    Long watermark;
+
+    long startedAt;
+    Long finishedAt;
+
+    /**
+     * 水位线之后修改的页面数
+     */
+    int changedPages;
+
+    /**
+     * 已获取正文并写入索引的页面数
+     */
+    int indexedPages;
+
+    /**
+     * 从索引中删除的页面数
+     */
+    int deletedPages;
+
+    /**
+     * 发往Confluence的请求数
+     */
+    int requestCount;
+
+    String error;
+
+    /**
+     * 每秒写入索引的页面数
+     */
+    public double getPagesPerSecond() {
+        long elapsed = (finishedAt != null ? finishedAt : System.currentTimeMillis()) - startedAt;
+        return elapsed <= 0 ? 0.0 : indexedPages * 1000.0 / elapsed;
+    }
+}
@@ -0,0 +1,92 @@
+package com.confluence.mcp.metrics;
+
+import com.confluence.mcp.config.CountingTlsStrategy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * HTTP连接池指标：同步与异步连接池的租用、等待、空闲连接数与上限，每个路由的相同指标，
+ * 以及TLS完整握手与会话恢复次数（握手次数远小于请求数说明连接得到复用）
+ */
+@Component
+public class HttpPoolMetrics implements MeterBinder {
+
+    static final String CONNECTIONS = "confluence.http.pool.connections";
+    static final String ROUTE_CONNECTIONS = "confluence.http.pool.route.connections";
+    static final String TLS_HANDSHAKES = "confluence.http.tls.handshakes";
+
+    private static final Map<String, ToIntFunction<PoolStats>> STATES = Map.of(
+            "leased", PoolStats::getLeased,
+            "pending", PoolStats::getPending,
+            "available", PoolStats::getAvailable,
+            "max", PoolStats::getMax);
+
+    private final Map<String, ConnPoolControl<HttpRoute>> pools;
+    private final CountingTlsStrategy tlsStrategy;
+    private volatile MultiGauge routeGauge;
+
+    public HttpPoolMetrics(PoolingHttpClientConnectionManager connectionManager,
+                           PoolingAsyncClientConnectionManager asyncConnectionManager,
+                           CountingTlsStrategy tlsStrategy) {
+        this.pools = Map.of("classic", connectionManager, "async", asyncConnectionManager);
+        this.tlsStrategy = tlsStrategy;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pools.forEach((client, pool) -> STATES.forEach((state, value) ->
+                Gauge.builder(CONNECTIONS, pool, control -> value.applyAsInt(control.getTotalStats()))
+                        .description("HTTP连接池连接数")
+                        .tags("client", client, "state", state)
+                        .register(registry)));
+        FunctionCounter.builder(TLS_HANDSHAKES, tlsStrategy, CountingTlsStrategy::getFullHandshakes)
+                .description("TLS握手次数")
+                .tag("type", "full")
+                .register(registry);
+        FunctionCounter.builder(TLS_HANDSHAKES, tlsStrategy, CountingTlsStrategy::getResumedHandshakes)
+                .description("TLS握手次数")
+                .tag("type", "resumed")
+                .register(registry);
+        routeGauge = MultiGauge.builder(ROUTE_CONNECTIONS)
+                .description("HTTP连接池各路由的连接数")
+                .register(registry);
+        refreshRoutes();
+    }
+
+    /**
+     * 路由随请求动态出现，定期刷新各路由的指标
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void refreshRoutes() {
+        MultiGauge gauge = routeGauge;
+        if (gauge == null) {
+            return;
+        }
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        pools.forEach((client, pool) -> {
+            for (HttpRoute route : pool.getRoutes()) {
+                PoolStats stats = pool.getStats(route);
+                STATES.forEach((state, value) -> rows.add(MultiGauge.Row.of(
+                        Tags.of("client", client, "route", route.getTargetHost().toURI(), "state", state),
+                        value.applyAsInt(stats))));
+            }
+        });
+        gauge.register(rows, true);
+    }
+}
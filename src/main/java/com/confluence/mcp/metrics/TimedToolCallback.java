@@ -0,0 +1,68 @@
+package com.confluence.mcp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.function.Supplier;
+
+/**
+ * 记录MCP工具调用耗时的ToolCallback包装，标签包括工具名、结果与异常类型
+ */
+public class TimedToolCallback implements ToolCallback {
+
+    static final String TOOL_CALLS = "confluence.tool.calls";
+
+    private final ToolCallback delegate;
+    private final MeterRegistry registry;
+
+    public TimedToolCallback(ToolCallback delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return timed(() -> delegate.call(toolInput));
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return timed(() -> delegate.call(toolInput, toolContext));
+    }
+
+    private String timed(Supplier<String> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        String exception = "none";
+        try {
+            String result = call.get();
+            outcome = "success";
+            return result;
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TOOL_CALLS)
+                    .description("MCP工具调用耗时")
+                    .tag("tool", delegate.getToolDefinition().name())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
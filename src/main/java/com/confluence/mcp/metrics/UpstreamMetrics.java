@@ -0,0 +1,114 @@
+package com.confluence.mcp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confluence上游请求指标
+ * <p>
+ * 按接口类型（search、content_search、page）记录请求耗时直方图，标签包括状态码、结果分类与异常类型，
+ * 成功响应另外记录传输字节数分布。
+ */
+@Component
+@RequiredArgsConstructor
+public class UpstreamMetrics {
+
+    static final String REQUESTS = "confluence.http.client.requests";
+    static final String RESPONSE_SIZE = "confluence.http.client.response.size";
+
+    private final MeterRegistry registry;
+
+    /**
+     * 开始记录一次请求
+     */
+    public Recording start(String url) {
+        return new Recording(endpointOf(url), System.nanoTime());
+    }
+
+    /**
+     * 按URL路径划分接口类型
+     */
+    static String endpointOf(String url) {
+        String path;
+        try {
+            path = URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return "other";
+        }
+        if (path == null) {
+            return "other";
+        }
+        if (path.endsWith("/rest/api/search")) {
+            return "search";
+        }
+        if (path.endsWith("/rest/api/content/search")) {
+            return "content_search";
+        }
+        if (path.contains("/rest/api/content/")) {
+            return "page";
+        }
+        return "other";
+    }
+
+    /**
+     * 单次请求的记录，响应处理完成后调用stop
+     */
+    public final class Recording {
+
+        private final String endpoint;
+        private final long startedAt;
+        private volatile int status;
+        private volatile long responseBytes;
+        private volatile Throwable error;
+
+        private Recording(String endpoint, long startedAt) {
+            this.endpoint = endpoint;
+            this.startedAt = startedAt;
+        }
+
+        public void status(int status) {
+            this.status = status;
+        }
+
+        public void responseBytes(long responseBytes) {
+            this.responseBytes = responseBytes;
+        }
+
+        public void failed(Throwable error) {
+            this.error = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        }
+
+        public void stop() {
+            Tags tags = Tags.of(
+                    "endpoint", endpoint,
+                    "method", "GET",
+                    "status", status == 0 ? "NONE" : String.valueOf(status),
+                    "outcome", status == 0 ? Outcome.UNKNOWN.name() : Outcome.forStatus(status).name(),
+                    "exception", error == null ? "none" : error.getClass().getSimpleName());
+            Timer.builder(REQUESTS)
+                    .description("Confluence上游请求耗时（含响应体读取）")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (error == null && status > 0 && status < 400) {
+                DistributionSummary.builder(RESPONSE_SIZE)
+                        .description("Confluence响应的传输字节数")
+                        .baseUnit("bytes")
+                        .tag("endpoint", endpoint)
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(responseBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.confluence.mcp.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD自适应并发限制器
+ * <p>
+ * 请求正常完成且并发已接近上限时，上限加性增长（每个上限数量的请求约加1）；
+ * 出现慢请求、超时或服务端过载（429/5xx）时上限乘以退避系数。并发已满时调用方最多等待指定时间，
+ * 超时后由调用方快速失败，而不是在连接池中排队等待。
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long slowCallThresholdNanos;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long slowCallThresholdMillis, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMillis);
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * 获取一个并发名额，并发已满时立即返回，不等待
+     *
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取一个并发名额，并发已满时最多等待timeout
+     *
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 请求正常完成：慢请求视为拥塞，否则在并发接近上限时增长上限
+     */
+    public void onSuccess(long latencyNanos) {
+        lock.lock();
+        try {
+            if (latencyNanos > slowCallThresholdNanos) {
+                decrease();
+            } else if (inFlight * 2 >= limit) {
+                // 并发远低于上限时上限并不是瓶颈，不继续增长
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 请求超时或服务端过载，降低上限
+     */
+    public void onDropped() {
+        lock.lock();
+        try {
+            decrease();
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 请求结束但结果不反映服务端负载（如被取消），只归还名额
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            release();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    private void release() {
+        inFlight--;
+        released.signal();
+    }
+}
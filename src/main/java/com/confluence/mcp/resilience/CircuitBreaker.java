@@ -0,0 +1,207 @@
+package com.confluence.mcp.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于最近请求失败率的熔断器
+ * <p>
+ * 关闭状态下统计最近windowSize个请求的结果，请求数达到minimumCalls且失败率达到阈值时打开；
+ * 打开状态下直接拒绝请求，openDuration后进入半开状态，只放行halfOpenCalls个试探请求：
+ * 试探全部成功则关闭并清空统计，任一失败则重新打开。
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态，数值用于指标
+     */
+    public enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        private final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 最近请求结果的环形缓冲区，true为失败
+     */
+    private final boolean[] window;
+    private int windowCount;
+    private int windowIndex;
+    private int failureCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMillis, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDurationMillis, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                   long openDurationMillis, int halfOpenCalls, LongSupplier nanoClock) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 是否允许发起请求；打开状态到期后转为半开并放行有限个试探请求
+     */
+    public boolean tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+                state = State.HALF_OPEN;
+                halfOpenPermitted = 0;
+                halfOpenSucceeded = 0;
+            }
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (halfOpenPermitted >= halfOpenCalls) {
+                        yield false;
+                    }
+                    halfOpenPermitted++;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (++halfOpenSucceeded >= halfOpenCalls) {
+                    close();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (windowCount >= minimumCalls && failureRate() >= failureRateThreshold) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获得许可后请求未真正发出或结果无法判断，归还半开状态的试探名额
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && halfOpenPermitted > 0) {
+                halfOpenPermitted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭状态下窗口内的失败率
+     */
+    public double getFailureRate() {
+        lock.lock();
+        try {
+            return failureRate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 打开状态剩余的毫秒数，其他状态为0
+     */
+    public long remainingOpenMillis() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return 0;
+            }
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openDurationNanos - (nanoClock.getAsLong() - openedAt)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                failureCount--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            failureCount++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private double failureRate() {
+        return windowCount == 0 ? 0.0 : (double) failureCount / windowCount;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowCount = 0;
+        windowIndex = 0;
+        failureCount = 0;
+    }
+}
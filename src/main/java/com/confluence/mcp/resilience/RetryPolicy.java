@@ -0,0 +1,102 @@
+package com.confluence.mcp.resilience;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.ConfluenceServerException;
+import com.confluence.mcp.exception.ConfluenceThrottledException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * GET请求的重试策略
+ * <p>
+ * 限流（429/503）、502/504和连接失败时重试，超时不重试（已等待了完整的超时时间）。
+ * 服务端返回Retry-After时等待该时间再加少量随机抖动，超过愿意等待的上限时不重试；
+ * 否则按指数退避上限随机选择等待时间（full jitter），避免多个调用方同时重试。
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final long maxRetryAfter;
+    private final LongSupplier clock;
+
+    public RetryPolicy(ConfluenceConfig.Retry config) {
+        this(config, System::currentTimeMillis);
+    }
+
+    RetryPolicy(ConfluenceConfig.Retry config, LongSupplier clock) {
+        this.maxAttempts = Math.max(1, config.getMaxAttempts());
+        this.initialBackoff = Math.max(1, config.getInitialBackoff());
+        this.maxBackoff = Math.max(initialBackoff, config.getMaxBackoff());
+        this.maxRetryAfter = config.getMaxRetryAfter();
+        this.clock = clock;
+    }
+
+    /**
+     * 第attempt次请求失败后，下次重试前需要等待的毫秒数；不应重试时返回-1
+     */
+    public long retryDelayMillis(Throwable error, int attempt) {
+        if (attempt >= maxAttempts) {
+            return -1;
+        }
+        Throwable cause = unwrap(error);
+        if (cause instanceof ConfluenceThrottledException throttled) {
+            Long retryAfter = throttled.getRetryAfterMillis();
+            if (retryAfter == null) {
+                return backoff(attempt);
+            }
+            return retryAfter > maxRetryAfter ? -1 : retryAfter + ThreadLocalRandom.current().nextLong(initialBackoff);
+        }
+        if (cause instanceof ConfluenceServerException serverError) {
+            int status = serverError.getStatusCode();
+            return status == 502 || status == 503 || status == 504 ? backoff(attempt) : -1;
+        }
+        if (cause instanceof IOException && !(cause instanceof InterruptedIOException)) {
+            return backoff(attempt);
+        }
+        return -1;
+    }
+
+    /**
+     * 解析Retry-After响应头（秒数或HTTP日期），返回需要等待的毫秒数，无法解析时返回null
+     */
+    public Long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException ignored) {
+            // 不是秒数，按HTTP日期解析
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, date.toInstant().toEpochMilli() - clock.getAsLong());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
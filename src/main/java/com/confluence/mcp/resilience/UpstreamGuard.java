@@ -0,0 +1,278 @@
+package com.confluence.mcp.resilience;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.UpstreamUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问Confluence前的保护：先经过熔断器，再获取自适应并发名额，任一不满足时抛出
+ * {@link UpstreamUnavailableException} 快速失败。请求结束后通过 {@link Permit} 报告结果：
+ * 成功请求从获取许可到收到响应头的耗时用于调整并发上限，本地解析响应体的耗时不计入；超时、连接失败和429/5xx计为失败，同时降低并发上限并计入熔断统计。
+ */
+@Slf4j
+@Component
+public class UpstreamGuard implements MeterBinder {
+
+    static final String LIMIT = "confluence.upstream.concurrency.limit";
+    static final String IN_FLIGHT = "confluence.upstream.concurrency.in.flight";
+    static final String CIRCUIT_STATE = "confluence.upstream.circuit.state";
+    static final String FAILURE_RATE = "confluence.upstream.circuit.failure.rate";
+    static final String REJECTED = "confluence.upstream.rejected";
+
+    /**
+     * 异步获取许可时，并发已满后重新尝试的间隔（毫秒）
+     */
+    private static final long ASYNC_ACQUIRE_INTERVAL = 10;
+
+    private final boolean enabled;
+    private final long acquireTimeout;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+
+    private final LongAdder rejectedByCircuit = new LongAdder();
+    private final LongAdder rejectedByLimit = new LongAdder();
+
+    public UpstreamGuard(ConfluenceConfig config) {
+        ConfluenceConfig.Resilience resilience = config.getResilience();
+        this.enabled = Boolean.TRUE.equals(resilience.getEnabled());
+        this.acquireTimeout = resilience.getAcquireTimeout();
+        this.limiter = new AdaptiveConcurrencyLimiter(resilience.getInitialLimit(), resilience.getMinLimit(),
+                resilience.getMaxLimit(), resilience.getSlowCallThreshold(), resilience.getBackoffRatio());
+        this.circuitBreaker = new CircuitBreaker(resilience.getWindowSize(), resilience.getMinimumCalls(),
+                resilience.getFailureRateThreshold(), resilience.getOpenDuration(), resilience.getHalfOpenCalls());
+    }
+
+    /**
+     * 获取访问Confluence的许可
+     *
+     * @throws UpstreamUnavailableException 熔断器打开，或并发已满且等待超时
+     */
+    public Permit acquire() {
+        if (!enabled) {
+            return Permit.NOOP;
+        }
+        checkCircuit();
+        boolean acquired;
+        try {
+            acquired = limiter.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onIgnored();
+            throw new UpstreamUnavailableException("等待访问Confluence时被中断");
+        }
+        if (!acquired) {
+            throw rejectByLimit();
+        }
+        return new GuardedPermit(System.nanoTime());
+    }
+
+    /**
+     * 异步获取访问Confluence的许可，不阻塞调用线程：并发已满时由 CompletableFuture 的延迟执行器按间隔重新尝试，
+     * 直到获取成功或等待超过acquire-timeout。异步请求的重试可能由HTTP客户端I/O线程上的回调发起，不能在其中等待
+     *
+     * @return 许可；熔断器打开或等待超时时以 {@link UpstreamUnavailableException} 失败
+     */
+    public CompletableFuture<Permit> acquireAsync() {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(Permit.NOOP);
+        }
+        try {
+            checkCircuit();
+        } catch (UpstreamUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Permit> result = new CompletableFuture<>();
+        retryAcquire(result, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeout));
+        return result;
+    }
+
+    private void retryAcquire(CompletableFuture<Permit> result, long deadline) {
+        if (limiter.tryAcquire()) {
+            result.complete(new GuardedPermit(System.nanoTime()));
+            return;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            result.completeExceptionally(rejectByLimit());
+            return;
+        }
+        long delay = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(ASYNC_ACQUIRE_INTERVAL));
+        // 重新尝试不在页面获取线程池中排队，等待时间不受响应体读取占用线程的影响
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+                .execute(() -> retryAcquire(result, deadline));
+    }
+
+    private void checkCircuit() {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedByCircuit.increment();
+            throw new UpstreamUnavailableException("Confluence暂不可用（熔断中，约"
+                    + Math.max(1, TimeUnit.MILLISECONDS.toSeconds(circuitBreaker.remainingOpenMillis())) + "秒后重试）");
+        }
+    }
+
+    private UpstreamUnavailableException rejectByLimit() {
+        circuitBreaker.onIgnored();
+        rejectedByLimit.increment();
+        log.warn("访问Confluence的并发已满，快速失败: 并发上限={}, 在途={}", limiter.getLimit(), limiter.getInFlight());
+        return new UpstreamUnavailableException("Confluence响应缓慢，当前并发已达上限" + limiter.getLimit());
+    }
+
+    /**
+     * 是否有空闲的并发余量：熔断器关闭，且在途请求数低于并发上限的指定比例。
+     * 后台预取等非必要请求只在有余量时发出，不与实时请求争抢并发
+     *
+     * @param maxUtilization 允许的最大并发占用比例，0到1之间
+     */
+    public boolean hasSpareCapacity(double maxUtilization) {
+        if (!enabled) {
+            return true;
+        }
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED
+                && limiter.getInFlight() < limiter.getLimit() * maxUtilization;
+    }
+
+    /**
+     * 状态码是否表示服务端过载或故障
+     */
+    public static boolean isFailureStatus(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * 并发限制与熔断状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("concurrencyLimit", limiter.getLimit());
+        result.put("inFlight", limiter.getInFlight());
+        result.put("circuitState", circuitBreaker.getState().name());
+        result.put("failureRate", circuitBreaker.getFailureRate());
+        result.put("openRemainingMillis", circuitBreaker.remainingOpenMillis());
+        result.put("rejectedByCircuit", rejectedByCircuit.sum());
+        result.put("rejectedByLimit", rejectedByLimit.sum());
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(LIMIT, limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("访问Confluence的自适应并发上限")
+                .register(registry);
+        Gauge.builder(IN_FLIGHT, limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("访问Confluence的在途请求数")
+                .register(registry);
+        Gauge.builder(CIRCUIT_STATE, circuitBreaker, breaker -> breaker.getState().getCode())
+                .description("熔断器状态：0关闭，1半开，2打开")
+                .register(registry);
+        Gauge.builder(FAILURE_RATE, circuitBreaker, CircuitBreaker::getFailureRate)
+                .description("熔断统计窗口内的失败率")
+                .register(registry);
+        FunctionCounter.builder(REJECTED, rejectedByCircuit, LongAdder::doubleValue)
+                .tag("reason", "circuit_open")
+                .description("未发往Confluence而快速失败的请求数")
+                .register(registry);
+        FunctionCounter.builder(REJECTED, rejectedByLimit, LongAdder::doubleValue)
+                .tag("reason", "limit")
+                .description("未发往Confluence而快速失败的请求数")
+                .register(registry);
+    }
+
+    /**
+     * 访问许可，请求结束时调用且只调用一次结果方法
+     */
+    public interface Permit {
+
+        Permit NOOP = new Permit() {
+            @Override
+            public void responded() {
+            }
+
+            @Override
+            public void success() {
+            }
+
+            @Override
+            public void failure() {
+            }
+
+            @Override
+            public void ignore() {
+            }
+        };
+
+        /**
+         * 收到响应头，记录Confluence的响应耗时；之后读取和解析响应体的耗时不计入
+         */
+        void responded();
+
+        /**
+         * Confluence正常响应（包括404等客户端错误），未调用 {@link #responded()} 时耗时计算到此时
+         */
+        void success();
+
+        /**
+         * 超时、连接失败或429/5xx
+         */
+        void failure();
+
+        /**
+         * 结果不反映Confluence的状态，如请求被取消
+         */
+        void ignore();
+    }
+
+    private class GuardedPermit implements Permit {
+
+        private final long startedAt;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile long latency = -1;
+
+        GuardedPermit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public void responded() {
+            if (latency < 0) {
+                latency = System.nanoTime() - startedAt;
+            }
+        }
+
+        @Override
+        public void success() {
+            if (completed.compareAndSet(false, true)) {
+                limiter.onSuccess(latency >= 0 ? latency : System.nanoTime() - startedAt);
+                circuitBreaker.onSuccess();
+            }
+        }
+
+        @Override
+        public void failure() {
+            if (completed.compareAndSet(false, true)) {
+                limiter.onDropped();
+                circuitBreaker.onFailure();
+            }
+        }
+
+        @Override
+        public void ignore() {
+            if (completed.compareAndSet(false, true)) {
+                limiter.onIgnored();
+                circuitBreaker.onIgnored();
+            }
+        }
+    }
+}
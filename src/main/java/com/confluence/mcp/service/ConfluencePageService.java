@@ -0,0 +1,170 @@
+package com.confluence.mcp.service;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.ConfluenceException;
+import com.confluence.mcp.util.HtmlTextExtractor;
+import com.confluence.mcp.util.HttpClientUtil;
+import com.confluence.mcp.util.HttpClientUtil.ConditionalResponse;
+import com.confluence.mcp.util.HttpClientUtil.Validators;
+import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.JsonParserUtil.BodyExtractor;
+import com.confluence.mcp.util.JsonParserUtil.ConfluencePage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Confluence页面获取与内容提取服务
+ * <p>
+ * 通过REST内容接口获取页面正文，多个页面通过CQL的id in (...)查询批量获取，
+ * 不再请求带有完整界面的viewpage.action页面。正文在解析响应时直接提取到字符上限，不转换为字符串。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfluencePageService {
+
+    /**
+     * 页面正文的最大保留长度，更长的页面通过 {@link #fetchDocument} 分段读取
+     */
+    public static final int MAX_CONTENT_LENGTH = 5000;
+
+    private final ConfluenceConfig config;
+    private final HttpClientUtil httpClientUtil;
+    private final JsonParserUtil jsonParserUtil;
+    private final HtmlTextExtractor htmlTextExtractor;
+
+    /**
+     * 从Confluence获取单个页面并提取正文
+     */
+    public PageContent fetchPage(String pageId) throws Exception {
+        return fetchPage(pageId, Validators.NONE)
+                .orElseThrow(() -> new ConfluenceException("页面响应中没有内容: 页面ID=" + pageId));
+    }
+
+    /**
+     * 携带缓存内容的ETag/Last-Modified发起条件请求，页面未变化（304）时返回空，
+     * 否则返回重新提取的页面内容
+     */
+    public Optional<PageContent> fetchPageIfModified(PageContent cached) throws Exception {
+        return fetchPage(cached.getPageId(), new Validators(cached.getEtag(), cached.getLastModified()));
+    }
+
+    private Optional<PageContent> fetchPage(String pageId, Validators validators) throws Exception {
+        String url = config.getUrl() + "/rest/api/content/" + pageId + "?expand=" + encode(contentExpand());
+        ConditionalResponse<Optional<ConfluencePage>> response =
+                httpClientUtil.executeConditionalGetRequest(url, validators,
+                        body -> jsonParserUtil.parseContent(body, bodyExtractor(MAX_CONTENT_LENGTH)));
+        if (response.isNotModified()) {
+            return Optional.empty();
+        }
+        ConfluencePage page = response.getValue()
+                .orElseThrow(() -> new ConfluenceException("页面响应中没有内容: 页面ID=" + pageId));
+        return Optional.of(toPageContent(pageId, page).toBuilder()
+                .etag(response.getValidators().getEtag())
+                .lastModified(response.getValidators().getLastModified())
+                .responseBytes(response.getBodyBytes())
+                .build());
+    }
+
+    /**
+     * 获取页面并完整解析全文与章节大纲，全文长度上限为配置的 document-max-chars
+     */
+    public PageDocument fetchDocument(String pageId) throws Exception {
+        String url = config.getUrl() + "/rest/api/content/" + pageId + "?expand=" + encode(contentExpand());
+        BodyExtractor bodyExtractor = bodyExtractor(config.getCache().getDocumentMaxChars());
+        ConfluencePage page = httpClientUtil.executeGetRequest(url, body -> jsonParserUtil.parseContent(body, bodyExtractor))
+                .orElseThrow(() -> new ConfluenceException("页面响应中没有内容: 页面ID=" + pageId));
+        HtmlTextExtractor.Result result = bodyOf(page);
+        log.debug("页面完整解析完成: 页面ID={}, 字符数={}, 标题数={}",
+                pageId, result.getText() == null ? 0 : result.getText().length(), result.getHeadings().size());
+        return PageDocument.of(pageId, page.getTitle(), page.getVersion(), result.getText(), result.isTruncated(),
+                result.getHeadings());
+    }
+
+    /**
+     * 异步批量获取页面，按批量大小分批并发请求，返回页面ID到内容的映射；
+     * 不存在或无权访问的页面不会出现在结果中
+     */
+    public CompletableFuture<Map<String, PageContent>> fetchPagesAsync(Collection<String> pageIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(pageIds));
+        int bulkSize = Math.max(1, config.getFetch().getBulkSize());
+        List<CompletableFuture<List<ConfluencePage>>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += bulkSize) {
+            List<String> batch = ids.subList(from, Math.min(from + bulkSize, ids.size()));
+            batches.add(httpClientUtil.executeGetRequestAsync(buildBulkUrl(batch),
+                    body -> jsonParserUtil.parseSearchResults(body, bodyExtractor(MAX_CONTENT_LENGTH))));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, PageContent> pages = new HashMap<>();
+            for (CompletableFuture<List<ConfluencePage>> batch : batches) {
+                for (ConfluencePage page : batch.join()) {
+                    pages.put(page.getId(), toPageContent(page.getId(), page));
+                }
+            }
+            log.debug("批量获取页面完成: 请求{}个, 返回{}个", ids.size(), pages.size());
+            return pages;
+        });
+    }
+
+    /**
+     * 获取页面当前版本号，用于校验缓存是否过期
+     */
+    public Optional<Integer> fetchVersion(String pageId) throws Exception {
+        String url = config.getUrl() + "/rest/api/content/" + pageId + "?expand=version";
+        return jsonParserUtil.parsePageVersion(httpClientUtil.executeGetRequest(url));
+    }
+
+    /**
+     * 构建批量获取URL：/rest/api/content/search?cql=id in (...)
+     */
+    private String buildBulkUrl(List<String> pageIds) {
+        String cql = "id in (" + pageIds.stream()
+                .map(id -> "\"" + id.replace("\"", "") + "\"")
+                .collect(Collectors.joining(",")) + ")";
+        return config.getUrl() + "/rest/api/content/search?cql=" + encode(cql)
+                + "&limit=" + pageIds.size()
+                + "&expand=" + encode(contentExpand());
+    }
+
+    private String contentExpand() {
+        return config.getFetch().getBodyFormat().getExpand() + ",version,space";
+    }
+
+    private String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private PageContent toPageContent(String pageId, ConfluencePage page) {
+        HtmlTextExtractor.Result result = bodyOf(page);
+        return PageContent.builder()
+                .pageId(pageId)
+                .title(page.getTitle())
+                .spaceKey(page.getSpaceKey())
+                .content(result.getText())
+                .truncated(result.isTruncated())
+                .version(page.getVersion())
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private BodyExtractor bodyExtractor(int maxChars) {
+        return html -> htmlTextExtractor.extractFragment(html, maxChars);
+    }
+
+    private HtmlTextExtractor.Result bodyOf(ConfluencePage page) {
+        return page.getBody() != null ? page.getBody() : HtmlTextExtractor.Result.builder().build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.confluence.mcp.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 已提取的页面内容，只保存纯文本而不保存原始HTML
+ */
+@Value
+@Builder(toBuilder = true)
+public class PageContent {
+
+    String pageId;
+    String title;
+
+    /**
+     * 页面所在空间，未知时为null
+     */
+    String spaceKey;
+
+    /**
+     * 提取并清理后的正文，无法提取时为null
+     */
+    String content;
+
+    /**
+     * 正文是否因超过长度限制被截断
+     */
+    boolean truncated;
+
+    /**
+     * 页面版本号，未知时为null
+     */
+    Integer version;
+
+    /**
+     * 内容获取或最近一次校验的时间戳（毫秒）
+     */
+    long fetchedAt;
+
+    /**
+     * 响应的ETag，用于条件请求，服务端未返回或批量获取时为null
+     */
+    String etag;
+
+    /**
+     * 响应的Last-Modified，用于条件请求，服务端未返回或批量获取时为null
+     */
+    String lastModified;
+
+    /**
+     * 获取内容时读取的响应体字节数，批量获取时为0
+     */
+    long responseBytes;
+
+    /**
+     * 是否为Confluence不可用时返回的过期内容，不持久化
+     */
+    boolean stale;
+
+    /**
+     * 估算的内存占用（字节）
+     */
+    public int estimatedBytes() {
+        int chars = (content == null ? 0 : content.length()) + (title == null ? 0 : title.length())
+                + (pageId == null ? 0 : pageId.length()) + (spaceKey == null ? 0 : spaceKey.length()) + (etag == null ? 0 : etag.length())
+                + (lastModified == null ? 0 : lastModified.length());
+        return 64 + chars * 2;
+    }
+}
@@ -0,0 +1,146 @@
+package com.confluence.mcp.service;
+
+import com.confluence.mcp.util.HtmlTextExtractor.Heading;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * 完整解析的页面：全文与章节大纲，用于按章节或按偏移分段读取长页面
+ */
+@Value
+@Builder
+public class PageDocument {
+
+    String pageId;
+    String title;
+    Integer version;
+
+    /**
+     * 提取并清理后的全文，无法提取时为空字符串
+     */
+    String text;
+
+    /**
+     * 全文是否超过解析长度上限而被截断
+     */
+    boolean truncated;
+
+    /**
+     * 按出现顺序排列的章节
+     */
+    List<Section> sections;
+
+    /**
+     * 内容获取的时间戳（毫秒）
+     */
+    long fetchedAt;
+
+    /**
+     * 由全文和其中的标题构建页面：每个章节从标题开始，到下一个同级或更高级标题为止（包含子章节）
+     */
+    public static PageDocument of(String pageId, String title, Integer version, String text, boolean truncated,
+                                  List<Heading> headings) {
+        String fullText = text == null ? "" : text;
+        List<Section> sections = new ArrayList<>(headings.size());
+        for (int i = 0; i < headings.size(); i++) {
+            Heading heading = headings.get(i);
+            int end = fullText.length();
+            for (int j = i + 1; j < headings.size(); j++) {
+                if (headings.get(j).getLevel() <= heading.getLevel()) {
+                    end = headings.get(j).getOffset();
+                    break;
+                }
+            }
+            int start = Math.min(heading.getOffset(), fullText.length());
+            sections.add(new Section(i + 1, heading.getLevel(), heading.getTitle(), heading.getAnchor(),
+                    start, Math.max(0, end - start)));
+        }
+        return PageDocument.builder()
+                .pageId(pageId)
+                .title(title)
+                .version(version)
+                .text(fullText)
+                .truncated(truncated)
+                .sections(List.copyOf(sections))
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    /**
+     * 按序号、锚点（可带#）或标题查找章节，标题先精确匹配再按包含匹配，均不区分大小写
+     */
+    public Optional<Section> findSection(String selector) {
+        if (selector == null || selector.isBlank()) {
+            return Optional.empty();
+        }
+        String key = selector.trim();
+        if (key.chars().allMatch(Character::isDigit) && key.length() < 6) {
+            int index = Integer.parseInt(key);
+            return index >= 1 && index <= sections.size() ? Optional.of(sections.get(index - 1)) : Optional.empty();
+        }
+        String anchor = key.startsWith("#") ? key.substring(1) : key;
+        String lower = key.toLowerCase(Locale.ROOT);
+        return sections.stream().filter(section -> anchor.equals(section.getAnchor())).findFirst()
+                .or(() -> sections.stream().filter(section -> section.getTitle().equalsIgnoreCase(key)).findFirst())
+                .or(() -> sections.stream()
+                        .filter(section -> section.getTitle().toLowerCase(Locale.ROOT).contains(lower))
+                        .findFirst());
+    }
+
+    /**
+     * 正文开头到第一个标题之间的字符数
+     */
+    public int preambleLength() {
+        return sections.isEmpty() ? text.length() : sections.get(0).getOffset();
+    }
+
+    /**
+     * 估算的内存占用（字节）
+     */
+    public int estimatedBytes() {
+        int chars = text.length() + (title == null ? 0 : title.length());
+        for (Section section : sections) {
+            chars += section.getTitle().length() + (section.getAnchor() == null ? 0 : section.getAnchor().length());
+        }
+        return 64 + chars * 2 + sections.size() * 48;
+    }
+
+    /**
+     * 章节
+     */
+    @Value
+    public static class Section {
+
+        /**
+         * 从1开始的序号
+         */
+        int index;
+
+        /**
+         * 标题级别，1-6
+         */
+        int level;
+
+        String title;
+
+        /**
+         * 锚点，没有时为null
+         */
+        String anchor;
+
+        /**
+         * 章节在全文中的起始位置
+         */
+        int offset;
+
+        /**
+         * 章节字符数，包含子章节
+         */
+        int length;
+    }
+}
@@ -0,0 +1,195 @@
+package com.confluence.mcp.store;
+
+import com.confluence.mcp.service.PageContent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 存储记录编解码
+ * <p>
+ * 记录格式：魔数(4) | 键长度(4) | 键 | 内容长度(4，删除标记为-1) | deflate压缩的内容 | CRC32(4)，
+ * CRC覆盖键和内容。内容按字段顺序写入页面的元数据与正文。
+ */
+final class PageRecordCodec {
+
+    static final int MAGIC = 0x50475331;
+
+    /**
+     * 魔数、键长度、内容长度与CRC的固定字节数
+     */
+    static final int FIXED_BYTES = 16;
+
+    static final int TOMBSTONE = -1;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private PageRecordCodec() {
+    }
+
+    /**
+     * 编码页面记录
+     */
+    static byte[] encode(PageContent page) throws IOException {
+        return record(page.getPageId(), compress(page));
+    }
+
+    /**
+     * 编码删除标记
+     */
+    static byte[] encodeTombstone(String pageId) {
+        return record(pageId, null);
+    }
+
+    /**
+     * 校验buffer中offset处的记录，返回记录长度；记录不完整或校验失败时返回-1
+     */
+    static int validate(ByteBuffer buffer, int offset, int limit) {
+        if (limit - offset < FIXED_BYTES || buffer.getInt(offset) != MAGIC) {
+            return -1;
+        }
+        int keyLength = buffer.getInt(offset + 4);
+        if (keyLength <= 0 || keyLength > limit - offset - FIXED_BYTES) {
+            return -1;
+        }
+        int payloadLength = buffer.getInt(offset + 8 + keyLength);
+        int bodyLength = payloadLength == TOMBSTONE ? 0 : payloadLength;
+        if (bodyLength < 0 || bodyLength > limit - offset - FIXED_BYTES - keyLength) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + 8, keyLength));
+        crc.update(buffer.slice(offset + 12 + keyLength, bodyLength));
+        int length = FIXED_BYTES + keyLength + bodyLength;
+        return (int) crc.getValue() == buffer.getInt(offset + length - 4) ? length : -1;
+    }
+
+    static String readKey(ByteBuffer buffer, int offset) {
+        byte[] key = new byte[buffer.getInt(offset + 4)];
+        buffer.get(offset + 8, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    static boolean isTombstone(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + 8 + buffer.getInt(offset + 4)) == TOMBSTONE;
+    }
+
+    /**
+     * 解码offset处的页面记录
+     */
+    static PageContent decode(ByteBuffer buffer, int offset) throws IOException {
+        String pageId = readKey(buffer, offset);
+        int keyLength = buffer.getInt(offset + 4);
+        int payloadLength = buffer.getInt(offset + 8 + keyLength);
+        ByteBuffer payload = buffer.slice(offset + 12 + keyLength, payloadLength);
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteBufferInputStream(payload)))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                throw new IOException("不支持的存储记录格式: 页面ID=" + pageId);
+            }
+            return PageContent.builder()
+                    .pageId(pageId)
+                    .title(readString(in))
+                    .spaceKey(readString(in))
+                    .content(readString(in))
+                    .etag(readString(in))
+                    .lastModified(readString(in))
+                    .truncated(in.readBoolean())
+                    .version(in.readBoolean() ? in.readInt() : null)
+                    .fetchedAt(in.readLong())
+                    .responseBytes(in.readLong())
+                    .build();
+        }
+    }
+
+    private static byte[] compress(PageContent page) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_SPEED), true))) {
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, page.getTitle());
+            writeString(out, page.getSpaceKey());
+            writeString(out, page.getContent());
+            writeString(out, page.getEtag());
+            writeString(out, page.getLastModified());
+            out.writeBoolean(page.isTruncated());
+            out.writeBoolean(page.getVersion() != null);
+            if (page.getVersion() != null) {
+                out.writeInt(page.getVersion());
+            }
+            out.writeLong(page.getFetchedAt());
+            out.writeLong(page.getResponseBytes());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] record(String pageId, byte[] payload) {
+        byte[] key = pageId.getBytes(StandardCharsets.UTF_8);
+        int bodyLength = payload == null ? 0 : payload.length;
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_BYTES + key.length + bodyLength);
+        buffer.putInt(MAGIC).putInt(key.length).put(key).putInt(payload == null ? TOMBSTONE : payload.length);
+        if (payload != null) {
+            buffer.put(payload);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(key);
+        if (payload != null) {
+            crc.update(payload);
+        }
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 以输入流方式读取映射内存中的数据，避免复制
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.confluence.mcp.store;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.service.PageContent;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 页面持久化存储
+ * <p>
+ * 以追加写日志保存已提取的页面内容与元数据，每条记录单独压缩并带CRC校验，内存中维护页面ID到记录位置的索引，
+ * 读取时通过内存映射直接解码。启动时在后台扫描日志重建索引，扫描完成前读写均直接跳过，不阻塞启动；
+ * 无效记录占比过高或文件超过容量上限时在后台压缩，超过上限时淘汰最早写入的页面。
+ */
+@Slf4j
+@Component
+public class PageStore implements AutoCloseable {
+
+    private static final String LOG_FILE = "pages.log";
+    private static final String COMPACT_FILE = "pages.log.compact";
+
+    /**
+     * 超过容量上限压缩时，保留的页面总字节数占上限的比例
+     */
+    private static final double COMPACT_TARGET_RATIO = 0.75;
+
+    /**
+     * 文件小于此大小时不因无效记录占比触发压缩
+     */
+    private static final long MIN_COMPACT_BYTES = 1024 * 1024;
+
+    private final boolean enabled;
+    private final Path logPath;
+    private final Path compactPath;
+    private final long maxBytes;
+    private final double compactGarbageRatio;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+    /**
+     * 追加写入与压缩互斥
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * 压缩完成后切换文件时与读取互斥
+     */
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private final ExecutorService background;
+    private final AtomicBoolean compactionPending = new AtomicBoolean();
+    private final AtomicLong liveBytes = new AtomicLong();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder compactionCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+
+    private volatile boolean ready;
+    private volatile FileChannel channel;
+    private volatile MappedByteBuffer mapped;
+
+    public PageStore(ConfluenceConfig config) throws IOException {
+        ConfluenceConfig.Store storeConfig = config.getStore();
+        this.enabled = Boolean.TRUE.equals(storeConfig.getEnabled());
+        // 记录位置使用int偏移，容量上限不超过2GB
+        this.maxBytes = Math.min(storeConfig.getMaxBytes(), Integer.MAX_VALUE);
+        this.compactGarbageRatio = storeConfig.getCompactGarbageRatio();
+        Path directory = Path.of(storeConfig.getDirectory());
+        this.logPath = directory.resolve(LOG_FILE);
+        this.compactPath = directory.resolve(COMPACT_FILE);
+        if (!enabled) {
+            this.background = null;
+            return;
+        }
+
+        Files.createDirectories(directory);
+        this.channel = openLog();
+        this.background = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "page-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.execute(this::load);
+    }
+
+    /**
+     * 索引是否已加载完成
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 读取页面，未保存、已删除或索引尚未加载完成时返回空
+     */
+    public Optional<PageContent> get(String pageId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        swapLock.readLock().lock();
+        try {
+            Location location = index.get(pageId);
+            if (location == null || location.isDeleted()) {
+                missCount.increment();
+                return Optional.empty();
+            }
+            PageContent page = PageRecordCodec.decode(mappedFor(location), location.getOffset());
+            hitCount.increment();
+            return Optional.of(page);
+        } catch (IOException e) {
+            log.warn("读取页面存储失败: 页面ID={}, 错误={}", pageId, e.getMessage());
+            missCount.increment();
+            return Optional.empty();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 保存页面，写入失败只记录日志
+     */
+    public void put(PageContent page) {
+        if (!ready) {
+            return;
+        }
+        try {
+            append(page.getPageId(), PageRecordCodec.encode(page), false);
+            writeCount.increment();
+        } catch (IOException e) {
+            log.warn("写入页面存储失败: 页面ID={}, 错误={}", page.getPageId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 删除页面，写入删除标记
+     */
+    public void delete(Collection<String> pageIds) {
+        if (!ready) {
+            return;
+        }
+        for (String pageId : pageIds) {
+            Location location = index.get(pageId);
+            if (location == null || location.isDeleted()) {
+                continue;
+            }
+            try {
+                append(pageId, PageRecordCodec.encodeTombstone(pageId), true);
+            } catch (IOException e) {
+                log.warn("写入页面删除标记失败: 页面ID={}, 错误={}", pageId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 定期检查无效记录占比，过高时压缩
+     */
+    @Scheduled(initialDelayString = "${confluence.store.compact-interval:600000}",
+            fixedDelayString = "${confluence.store.compact-interval:600000}")
+    public void scheduledCompaction() {
+        if (!ready) {
+            return;
+        }
+        long fileBytes = fileBytes();
+        long garbageBytes = fileBytes - liveBytes.get();
+        if (fileBytes > maxBytes || (fileBytes >= MIN_COMPACT_BYTES && garbageBytes > fileBytes * compactGarbageRatio)) {
+            compact();
+        }
+    }
+
+    /**
+     * 压缩存储文件：只保留每个页面的最新记录，超过容量上限时淘汰最早写入的页面
+     */
+    public void compact() {
+        if (!ready) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            compactionPending.set(false);
+            if (!channel.isOpen()) {
+                channel = openLog();
+            }
+            long before = channel.size();
+            MappedByteBuffer source = ensureMapped(before);
+
+            // 从最新的记录开始保留，直到达到目标大小
+            List<Map.Entry<String, Location>> live = new ArrayList<>(index.entrySet().stream()
+                    .filter(entry -> !entry.getValue().isDeleted())
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Location> entry) -> entry.getValue().getOffset())
+                            .reversed())
+                    .toList());
+            long budget = before > maxBytes ? (long) (maxBytes * COMPACT_TARGET_RATIO) : Long.MAX_VALUE;
+            long kept = 0;
+            int keepCount = 0;
+            while (keepCount < live.size() && kept + live.get(keepCount).getValue().getLength() <= budget) {
+                kept += live.get(keepCount).getValue().getLength();
+                keepCount++;
+            }
+            int evicted = live.size() - keepCount;
+            List<Map.Entry<String, Location>> retained = new ArrayList<>(live.subList(0, keepCount));
+            retained.sort(Comparator.comparingInt(entry -> entry.getValue().getOffset()));
+
+            Map<String, Location> compacted = new HashMap<>();
+            int position = 0;
+            try (FileChannel out = FileChannel.open(compactPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Map.Entry<String, Location> entry : retained) {
+                    Location location = entry.getValue();
+                    ByteBuffer record = source.slice(location.getOffset(), location.getLength());
+                    while (record.hasRemaining()) {
+                        out.write(record);
+                    }
+                    compacted.put(entry.getKey(), new Location(position, location.getLength(), false));
+                    position += location.getLength();
+                }
+                out.force(true);
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                channel.close();
+                Files.move(compactPath, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = openLog();
+                mapped = null;
+                index.clear();
+                index.putAll(compacted);
+                liveBytes.set(position);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            compactionCount.increment();
+            evictedCount.add(evicted);
+            log.info("页面存储压缩完成: {}字节 -> {}字节, 保留{}个页面, 淘汰{}个页面", before, position, keepCount, evicted);
+        } catch (IOException e) {
+            log.warn("页面存储压缩失败: {}", e.getMessage(), e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 存储统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("ready", ready);
+        result.put("entries", index.values().stream().filter(location -> !location.isDeleted()).count());
+        result.put("fileBytes", enabled ? fileBytes() : 0L);
+        result.put("liveBytes", liveBytes.get());
+        result.put("maxBytes", maxBytes);
+        result.put("hitCount", hitCount.sum());
+        result.put("missCount", missCount.sum());
+        result.put("writeCount", writeCount.sum());
+        result.put("compactionCount", compactionCount.sum());
+        result.put("evictedCount", evictedCount.sum());
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        background.shutdownNow();
+        try {
+            background.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ready = false;
+        appendLock.lock();
+        try {
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 扫描日志重建索引，遇到不完整或损坏的记录时从该位置截断
+     */
+    private void load() {
+        long startedAt = System.currentTimeMillis();
+        appendLock.lock();
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                log.warn("页面存储文件超过2GB，清空后重新写入: {}", logPath);
+                channel.truncate(0);
+                size = 0;
+            }
+            MappedByteBuffer buffer = ensureMapped(size);
+            int offset = 0;
+            while (offset < size) {
+                int length = PageRecordCodec.validate(buffer, offset, (int) size);
+                if (length < 0) {
+                    log.warn("页面存储文件在偏移{}处不完整或已损坏，截断{}字节", offset, size - offset);
+                    channel.truncate(offset);
+                    mapped = null;
+                    break;
+                }
+                index(PageRecordCodec.readKey(buffer, offset),
+                        new Location(offset, length, PageRecordCodec.isTombstone(buffer, offset)));
+                offset += length;
+            }
+            ready = true;
+            log.info("页面存储加载完成: 页面数={}, 文件大小={}字节, 耗时={}ms",
+                    index.values().stream().filter(location -> !location.isDeleted()).count(), offset,
+                    System.currentTimeMillis() - startedAt);
+        } catch (IOException e) {
+            log.warn("页面存储加载失败，本次运行不使用持久化存储: {}", e.getMessage(), e);
+        } finally {
+            appendLock.unlock();
+        }
+        scheduleCompactionIfOverLimit();
+    }
+
+    private void append(String pageId, byte[] record, boolean tombstone) throws IOException {
+        appendLock.lock();
+        try {
+            // 写入线程被中断时FileChannel会被关闭，下次写入时重新打开
+            if (!channel.isOpen()) {
+                channel = openLog();
+            }
+            long offset = channel.size();
+            if (offset + record.length > Integer.MAX_VALUE) {
+                throw new IOException("页面存储文件已达到2GB");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            index(pageId, new Location((int) offset, record.length, tombstone));
+        } finally {
+            appendLock.unlock();
+        }
+        scheduleCompactionIfOverLimit();
+    }
+
+    /**
+     * 更新索引与有效字节数，调用方需持有appendLock
+     */
+    private void index(String pageId, Location location) {
+        Location previous = index.put(pageId, location);
+        if (previous != null && !previous.isDeleted()) {
+            liveBytes.addAndGet(-previous.getLength());
+        }
+        if (!location.isDeleted()) {
+            liveBytes.addAndGet(location.getLength());
+        }
+    }
+
+    private void scheduleCompactionIfOverLimit() {
+        if (ready && fileBytes() > maxBytes && compactionPending.compareAndSet(false, true)) {
+            background.execute(this::compact);
+        }
+    }
+
+    /**
+     * 返回覆盖指定记录的内存映射，文件增长后重新映射
+     */
+    private MappedByteBuffer mappedFor(Location location) throws IOException {
+        return ensureMapped(location.getOffset() + (long) location.getLength());
+    }
+
+    private MappedByteBuffer ensureMapped(long size) throws IOException {
+        MappedByteBuffer current = mapped;
+        if (current != null && current.capacity() >= size) {
+            return current;
+        }
+        MappedByteBuffer remapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        mapped = remapped;
+        return remapped;
+    }
+
+    private long fileBytes() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private FileChannel openLog() throws IOException {
+        return FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * 记录在文件中的位置，deleted表示该位置是删除标记
+     */
+    @Value
+    private static class Location {
+        int offset;
+        int length;
+        boolean deleted;
+    }
+}
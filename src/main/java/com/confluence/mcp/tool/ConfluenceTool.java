@@ -1,52 +1,114 @@
 package com.confluence.mcp.tool;
 
+import com.confluence.mcp.cache.PageContentCache;
+import com.confluence.mcp.cache.PageOutlineCache;
+import com.confluence.mcp.cache.PagePrefetcher;
+import com.confluence.mcp.cache.SearchResultCache;
+import com.confluence.mcp.cache.SearchResultCache.SearchKey;
+import com.confluence.mcp.cache.SearchResultCache.SearchResult;
 import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.config.SearchMode;
 import com.confluence.mcp.exception.ConfluenceException;
+import com.confluence.mcp.exception.ConfluenceHttpException;
+import com.confluence.mcp.exception.UpstreamUnavailableException;
+import com.confluence.mcp.index.IndexHit;
+import com.confluence.mcp.index.LocalSearchIndex;
+import com.confluence.mcp.service.PageContent;
+import com.confluence.mcp.service.PageDocument;
+import com.confluence.mcp.service.PageDocument.Section;
 import com.confluence.mcp.util.HttpClientUtil;
 import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.JsonParserUtil.ConfluencePage;
+import com.confluence.mcp.util.ParallelFetchUtil;
+import com.confluence.mcp.util.ParallelFetchUtil.FetchResult;
+import com.confluence.mcp.util.SnippetExtractor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.parser.Parser;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.stereotype.Component;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ConfluenceTool {
 
+    /**
+     * 批量获取页面时单次调用的页面数上限
+     */
+    private static final int MAX_BATCH_PAGES = 50;
+
+    /**
+     * 分段读取页面时默认的单段字符数
+     */
+    private static final int DEFAULT_CHUNK_LENGTH = 4000;
+
+    /**
+     * 分段读取页面时单段字符数上限
+     */
+    private static final int MAX_CHUNK_LENGTH = 20000;
+
+    private static final DateTimeFormatter SYNC_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
     private final ConfluenceConfig config;
     private final HttpClientUtil httpClientUtil;
     private final JsonParserUtil jsonParserUtil;
-
-    @Tool(description = "在Confluence中搜索内容，支持按关键字、空间和类型进行搜索，并返回详细的页面内容。当space未指定时，默认使用ZXJXTECH空间")
-    public String searchConfluence(String searchKeyword, String space, String contentType, Integer limit) {
-        log.info("Confluence搜索请求开始: 关键字={}, 空间={}(默认:ZXJXTECH), 内容类型={}, 限制数={}",
-            searchKeyword, space, contentType, limit);
+    private final ParallelFetchUtil parallelFetchUtil;
+    private final PageContentCache pageContentCache;
+    private final PageOutlineCache pageOutlineCache;
+    private final SearchResultCache searchResultCache;
+    private final LocalSearchIndex localSearchIndex;
+    private final SnippetExtractor snippetExtractor;
+    private final PagePrefetcher pagePrefetcher;
+
+    @Tool(description = "在Confluence中搜索内容，支持按关键字、空间和类型进行搜索，并返回页面摘要。当space未指定时，默认使用ZXJXTECH空间。" +
+            "searchMode可选lean(使用搜索摘要，速度快)或deep(逐页获取正文，摘要为与关键字最相关的几段原文)，未指定时使用服务端默认模式。" +
+            "已建立本地索引的空间由本地索引回答并注明最后同步时间，相同搜索的结果会被短时间缓存，" +
+            "需要Confluence实时结果时将bypassCache设为true")
+    public String searchConfluence(String searchKeyword, String space, String contentType, Integer limit,
+                                   String searchMode, Boolean bypassCache) {
+        log.info("Confluence搜索请求开始: 关键字={}, 空间={}(默认:ZXJXTECH), 内容类型={}, 限制数={}, 模式={}, 跳过缓存={}",
+            searchKeyword, space, contentType, limit, searchMode, bypassCache);
 
         try {
-            // 使用配置类中的默认值
-            String targetSpace = (space == null || space.isEmpty()) ? config.getDefaultSpace() : space;
-            String targetContentType = (contentType == null || contentType.isEmpty()) ? config.getDefaultContentType() : contentType;
+            // 使用配置类中的默认值，并规范化参数，使等价的搜索得到相同的CQL
+            String targetSpace = (space == null || space.isBlank()) ? config.getDefaultSpace() : space.trim();
+            String targetContentType = (contentType == null || contentType.isBlank()) ? config.getDefaultContentType() : contentType;
             int targetLimit = (limit == null) ? config.getDefaultSearchLimit() : limit;
+            SearchMode targetMode = SearchMode.parse(searchMode, config.getDefaultSearchMode());
+            String normalizedKeyword = normalizeKeyword(searchKeyword);
+            String normalizedContentType = normalizeContentType(targetContentType);
 
-            // 构建CQL查询
-            String cql = buildCqlQuery(searchKeyword, targetSpace, targetContentType);
-
-            // 构建请求URL
-            String url = buildSearchUrl(cql, targetLimit);
-
-            // 执行HTTP请求
-            String responseString = httpClientUtil.executeGetRequest(url);
+            // 已建立本地索引的空间直接由本地索引回答，未索引的空间回退到实时CQL搜索
+            if (!Boolean.TRUE.equals(bypassCache) && localSearchIndex.isIndexed(targetSpace)) {
+                return searchLocalIndex(normalizedKeyword, targetSpace, normalizedContentType, targetLimit, targetMode);
+            }
 
-            // 解析响应并获取页面详细内容
-            return parseSearchResultsWithContent(responseString);
+            // 构建CQL查询
+            String cql = buildCqlQuery(normalizedKeyword, targetSpace, normalizedContentType);
+
+            return searchResultCache.get(new SearchKey(cql, targetLimit, targetMode), Boolean.TRUE.equals(bypassCache),
+                    () -> executeSearch(cql, normalizedKeyword, targetLimit, targetMode));
+        } catch (ConfluenceHttpException | UpstreamUnavailableException e) {
+            // 原样抛出，调用方据此判断是否可以重试（限流时消息中含建议的等待时间）
+            log.error("Confluence搜索失败: {}", e.getMessage(), e);
+            throw e;
         } catch (Exception e) {
             String errorMessage = "Confluence搜索失败: " + e.getMessage();
             log.error(errorMessage, e);
@@ -58,163 +120,342 @@ public class ConfluenceTool {
     @Tool(description = "获取Confluence页面内容")
     public String getConfluencePage(String pageId) {
         log.info("获取Confluence页面请求: 页面ID={}", pageId);
+        pagePrefetcher.recordAccess(pageId);
 
         try {
-            // 构建页面URL
-            String url = buildPageUrl(pageId);
+            // 从页面缓存获取，未命中时请求Confluence
+            return formatPageContent(pageContentCache.get(pageId));
+        } catch (ConfluenceHttpException | UpstreamUnavailableException e) {
+            log.error("获取Confluence页面失败: {}", e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            String errorMessage = "获取Confluence页面失败: " + e.getMessage();
+            log.error(errorMessage, e);
+            throw new ConfluenceException(errorMessage, e);
+        }
+    }
 
-            // 执行HTTP请求
-            String responseString = httpClientUtil.executeGetRequest(url);
+    @Tool(description = "分段读取较长的Confluence页面。只指定pageId时返回页面大纲（章节序号、标题、锚点、位置和长度）；" +
+            "section可为章节序号、锚点或标题，返回该章节（含子章节）的内容；offset和length按字符分段读取，" +
+            "指定section时offset相对于章节开头，未指定section时相对于全文开头。length默认" + DEFAULT_CHUNK_LENGTH +
+            "，最大" + MAX_CHUNK_LENGTH + "，结果末尾给出继续读取所需的offset")
+    public String readConfluencePage(String pageId, String section, Integer offset, Integer length) {
+        log.info("分段读取Confluence页面请求: 页面ID={}, 章节={}, 偏移={}, 长度={}", pageId, section, offset, length);
+        pagePrefetcher.recordAccess(pageId);
 
-            // 检查响应类型并提取内容
-            if (responseString.contains("<html") || responseString.contains("<!DOCTYPE")) {
-                return extractContentFromHtml(responseString);
-            } else {
-                return extractPageContentFromJson(responseString);
+        try {
+            PageDocument document = pageOutlineCache.get(pageId);
+            if ((section == null || section.isBlank()) && offset == null) {
+                return formatOutline(document);
+            }
+
+            // 确定读取范围：指定章节时限定在章节内，否则为全文
+            int rangeStart = 0;
+            int rangeEnd = document.getText().length();
+            String sectionLabel = null;
+            if (section != null && !section.isBlank()) {
+                Section target = document.findSection(section)
+                        .orElseThrow(() -> new ConfluenceException("未找到章节: " + section.trim()
+                                + "，不指定section可获取页面大纲"));
+                rangeStart = target.getOffset();
+                rangeEnd = target.getOffset() + target.getLength();
+                sectionLabel = target.getIndex() + ". " + target.getTitle();
             }
+            return formatChunk(document, sectionLabel, rangeStart, rangeEnd, offset, length);
+        } catch (ConfluenceException e) {
+            log.error("分段读取Confluence页面失败: {}", e.getMessage(), e);
+            throw e;
         } catch (Exception e) {
-            String errorMessage = "获取Confluence页面失败: " + e.getMessage();
+            String errorMessage = "分段读取Confluence页面失败: " + e.getMessage();
             log.error(errorMessage, e);
             throw new ConfluenceException(errorMessage, e);
         }
     }
 
-    private String parseSearchResultsWithContent(String jsonResponse) {
-        try {
-            // 检查是否为空结果
-            if (jsonResponse.contains("\"size\":0") || jsonResponse.contains("\"results\":[]")) {
-                return "未找到相关内容";
+    @Tool(description = "批量获取多个Confluence页面内容，一次返回每个页面的内容或错误信息。" +
+            "重复的页面ID只获取一次，单个页面失败或超时不影响其他页面，单次最多" + MAX_BATCH_PAGES + "个页面")
+    public String getConfluencePages(List<String> pageIds) {
+        log.info("批量获取Confluence页面请求: 页面数={}", pageIds == null ? 0 : pageIds.size());
+
+        // 去除空白和重复的页面ID，保持原有顺序
+        List<String> ids = pageIds == null ? List.of() : pageIds.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .map(String::trim)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            return "未指定页面ID";
+        }
+        if (ids.size() > MAX_BATCH_PAGES) {
+            throw new ConfluenceException("单次最多获取" + MAX_BATCH_PAGES + "个页面，实际请求" + ids.size() + "个");
+        }
+        ids.forEach(pagePrefetcher::recordAccess);
+
+        List<FetchResult<PageContent>> contents = fetchPageContents(ids);
+
+        StringBuilder result = new StringBuilder();
+        int succeeded = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            FetchResult<PageContent> content = contents.get(i);
+            result.append("=== 页面ID: ").append(ids.get(i)).append(" ===\n");
+            if (content.isSuccess()) {
+                result.append(formatPageContent(content.getValue())).append("\n\n");
+                succeeded++;
+            } else if (content.isTimedOut()) {
+                result.append("获取失败: 未在截止时间内返回\n\n");
+            } else {
+                result.append("获取失败: ").append(content.getError().getMessage()).append("\n\n");
             }
+        }
+        log.info("批量获取Confluence页面完成: 成功{}个, 失败{}个", succeeded, ids.size() - succeeded);
+        return "批量获取完成: 成功" + succeeded + "个, 失败" + (ids.size() - succeeded) + "个\n\n" + result;
+    }
 
-            // 简单解析JSON获取结果列表
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\"results\":\\[(.*?)\\]");
-            java.util.regex.Matcher matcher = pattern.matcher(jsonResponse);
+    /**
+     * 执行搜索请求并渲染结果
+     */
+    private SearchResult executeSearch(String cql, String keyword, int limit, SearchMode mode) {
+        try {
+            // 构建请求URL
+            String url = buildSearchUrl(cql, limit, mode);
+
+            // 执行HTTP请求，从响应流直接解析搜索结果
+            List<ConfluencePage> pages = httpClientUtil.executeGetRequest(url, jsonParserUtil::parseSearchResults);
 
-            if (!matcher.find()) {
-                return "无法解析搜索结果，响应格式: " + (jsonResponse.length() > 200 ? jsonResponse.substring(0, 200) + "..." : jsonResponse);
+            // 渲染结果，深度模式下获取页面详细内容
+            SearchResult result = renderSearchResults(pages, keyword, mode);
+            if (mode == SearchMode.LEAN) {
+                pagePrefetcher.prefetchSearchHits(pages.stream().map(ConfluencePage::getId).toList());
             }
+            return result;
+        } catch (ConfluenceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfluenceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从本地索引搜索并渲染结果，结果末尾注明索引的最后同步时间
+     */
+    private String searchLocalIndex(String keyword, String space, String contentType, int limit, SearchMode mode)
+            throws Exception {
+        List<IndexHit> hits = localSearchIndex.search(keyword, List.of(space),
+                Arrays.asList(contentType.split(",")), limit);
+        List<ConfluencePage> pages = hits.stream().map(this::toConfluencePage).toList();
+        log.info("本地索引搜索完成: 空间={}, 命中{}个", space, pages.size());
+        if (mode == SearchMode.LEAN) {
+            pagePrefetcher.prefetchSearchHits(pages.stream().map(ConfluencePage::getId).toList());
+        }
 
-            StringBuilder result = new StringBuilder();
-            result.append("搜索完成，找到以下相关内容:\n\n");
+        String syncedAt = localSearchIndex.lastSyncedAt(space)
+                .map(time -> SYNC_TIME_FORMATTER.format(Instant.ofEpochMilli(time)))
+                .orElse("未知");
+        return renderSearchResults(pages, keyword, mode).getText()
+                + "\n数据来源: 本地索引（空间" + space + "最后同步于" + syncedAt + "）\n";
+    }
 
-            // 使用简单的字符串解析来提取页面信息
-            String resultsSection = matcher.group(1);
-            java.util.regex.Pattern pagePattern = java.util.regex.Pattern.compile(
-                "\"id\":\"(\\d+)\".*?\"title\":\"([^\"]+)\".*?\"_links\":\\{\"webui\":\"([^\"]+)\""
-            );
-            java.util.regex.Matcher pageMatcher = pagePattern.matcher(resultsSection);
+    private ConfluencePage toConfluencePage(IndexHit hit) {
+        ConfluencePage page = new ConfluencePage();
+        page.setId(hit.getId());
+        page.setTitle(hit.getTitle());
+        page.setSpaceKey(hit.getSpaceKey());
+        page.setVersion(hit.getVersion());
+        page.setLastModified(hit.getLastModified());
+        page.setWebUrl(hit.getWebUrl());
+        page.setExcerpt(hit.getSnippet());
+        return page;
+    }
 
-            int count = 0;
-            while (pageMatcher.find() && count < 10) {
-                String pageId = pageMatcher.group(1);
-                String title = pageMatcher.group(2).replace("\\\"", "\"");
-                String webuiUrl = pageMatcher.group(3).replace("\\\"", "\"");
+    private SearchResult renderSearchResults(List<ConfluencePage> pages, String keyword, SearchMode mode) {
+        if (pages.isEmpty()) {
+            return new SearchResult("未找到相关内容", true, Set.of());
+        }
 
-                // 获取页面详细内容
-                String pageContent = getPageContentForSearch(pageId);
+        // 深度模式下批量获取正文，最多10个结果
+        List<FetchResult<PageContent>> contents = null;
+        if (mode == SearchMode.DEEP) {
+            if (pages.size() > 10) {
+                pages = pages.subList(0, 10);
+            }
+            contents = fetchPageContents(pages.stream().map(ConfluencePage::getId).toList());
+        }
 
-                result.append("=== ").append(title).append(" ===\n");
-                result.append("页面ID: ").append(pageId).append("\n");
-                result.append("访问链接: ").append(config.getUrl()).append(webuiUrl).append("\n");
+        StringBuilder result = new StringBuilder();
+        result.append("搜索完成，找到以下相关内容:\n\n");
 
-                if (pageContent != null && !pageContent.trim().isEmpty()) {
-                    result.append("内容摘要:\n").append(pageContent).append("\n");
-                } else {
-                    result.append("(内容需要登录或无法访问)\n");
-                }
+        int timedOut = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            ConfluencePage page = pages.get(i);
 
-                result.append("\n");
-                count++;
+            result.append("=== ").append(page.getTitle()).append(" ===\n");
+            result.append("页面ID: ").append(page.getId()).append("\n");
+            if (page.getSpaceKey() != null) {
+                result.append("空间: ").append(page.getSpaceKey()).append("\n");
+            }
+            if (page.getVersion() != null) {
+                result.append("版本: ").append(page.getVersion()).append("\n");
+            }
+            if (page.getLastModified() != null) {
+                result.append("最后修改: ").append(page.getLastModified()).append("\n");
+            }
+            result.append("访问链接: ").append(config.getUrl()).append(page.getWebUrl()).append("\n");
+
+            String pageContent;
+            if (contents != null) {
+                FetchResult<PageContent> content = contents.get(i);
+                if (content.isTimedOut()) {
+                    result.append("(内容获取超时，未在截止时间内返回)\n\n");
+                    timedOut++;
+                    continue;
+                }
+                pageContent = content.isSuccess() ? snippet(content.getValue(), keyword) : null;
+            } else {
+                pageContent = cleanExcerpt(page.getExcerpt());
             }
 
-            if (count == 0) {
-                return "找到相关内容但无法解析页面信息，原始响应: " +
-                       (jsonResponse.length() > 300 ? jsonResponse.substring(0, 300) + "..." : jsonResponse);
+            if (pageContent != null && !pageContent.trim().isEmpty()) {
+                result.append("内容摘要:\n").append(pageContent).append("\n");
+            } else {
+                result.append("(内容需要登录或无法访问)\n");
             }
 
-            return result.toString();
-        } catch (Exception e) {
-            log.error("解析搜索结果失败", e);
-            return "解析搜索结果失败: " + e.getMessage() + "\n原始响应: " +
-                   (jsonResponse.length() > 200 ? jsonResponse.substring(0, 200) + "..." : jsonResponse);
+            result.append("\n");
+        }
+
+        if (timedOut > 0) {
+            result.append("注意: 有").append(timedOut).append("个页面的内容未在截止时间内返回，以上为部分结果\n");
         }
+
+        Set<String> pageIds = pages.stream().map(ConfluencePage::getId).collect(Collectors.toSet());
+        return new SearchResult(result.toString(), timedOut == 0, pageIds);
     }
 
-    private String getPageContentForSearch(String pageId) {
-        try {
-            String url = buildPageUrl(pageId);
-            String responseString = httpClientUtil.executeGetRequest(url);
+    /**
+     * 从已缓存的正文中选取与关键字最相关的片段作为摘要；分段读取缓存中有该页面全文时使用全文，
+     * 否则使用页面缓存中的正文，不会为生成摘要额外请求Confluence
+     */
+    private String snippet(PageContent page, String keyword) {
+        String text = pageOutlineCache.getIfPresent(page.getPageId())
+                .map(PageDocument::getText)
+                .orElse(page.getContent());
+        ConfluenceConfig.Snippet snippet = config.getSnippet();
+        return snippetExtractor.extract(text, keyword, snippet.getMaxPassages(), snippet.getMaxChars(),
+                snippet.getPassageLength());
+    }
 
-            if (responseString.contains("<html") || responseString.contains("<!DOCTYPE")) {
-                return extractContentSummaryFromHtml(responseString);
-            } else {
-                return extractContentSummaryFromJson(responseString);
-            }
-        } catch (Exception e) {
-            log.warn("获取页面内容失败: {}", e.getMessage());
+    /**
+     * 清理搜索高亮摘要：去除高亮标记并还原HTML实体
+     */
+    private String cleanExcerpt(String excerpt) {
+        if (excerpt == null) {
             return null;
         }
+        String text = excerpt.replace("@@@hl@@@", "").replace("@@@endhl@@@", "");
+        return Parser.unescapeEntities(text, false).replaceAll("\\s+", " ").trim();
     }
 
-    private String extractContentSummaryFromHtml(String htmlResponse) {
-        try {
-            Document doc = Jsoup.parse(htmlResponse);
-            StringBuilder summary = new StringBuilder();
-
-            // 提取主要内容
-            Elements contentElements = doc.select("div.wiki-content, div#main-content, div#content, .wiki-body");
-
-            if (contentElements.isEmpty()) {
-                // 尝试提取body内容并清理
-                Element body = doc.body();
-                if (body != null) {
-                    // 排除导航、页脚等
-                    body.select("nav, header, footer, .aui-header, .ia-splitter-left, #navigation").remove();
-                    contentElements = new Elements(body);
-                }
+    /**
+     * 按批量大小分批获取页面内容，各批次在单次调用的在途上限和截止时间内并发请求，
+     * 返回与pageIds顺序一致的结果；不存在或无权访问的页面以失败结果返回。
+     * 批量请求失败时在剩余时间内逐页获取该批次的页面，只有出错的页面以失败结果返回
+     */
+    private List<FetchResult<PageContent>> fetchPageContents(List<String> pageIds) {
+        ConfluenceConfig.Fetch fetch = config.getFetch();
+        long deadlineNanos = System.nanoTime() + Duration.ofMillis(fetch.getSearchDeadline()).toNanos();
+
+        // 非数字的页面ID会使所在批次的CQL查询整体失败，不参与请求
+        Map<String, FetchResult<PageContent>> results = new HashMap<>();
+        List<String> validIds = new ArrayList<>(pageIds.size());
+        for (String pageId : pageIds) {
+            if (isPageId(pageId)) {
+                validIds.add(pageId);
+            } else {
+                results.put(pageId, FetchResult.failed(new ConfluenceException("页面ID必须为数字: " + pageId)));
             }
+        }
+
+        int bulkSize = Math.max(1, fetch.getBulkSize());
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < validIds.size(); from += bulkSize) {
+            batches.add(validIds.subList(from, Math.min(from + bulkSize, validIds.size())));
+        }
 
-            for (Element element : contentElements) {
-                String text = element.text();
-                if (text != null && !text.trim().isEmpty()) {
-                    if (summary.length() > 0) {
-                        summary.append(" ");
-                    }
-                    summary.append(text.trim());
+        // 组合异步请求，等待响应期间不占用线程
+        List<FetchResult<Map<String, PageContent>>> batchResults = parallelFetchUtil.fetchAllAsync(
+                batches,
+                pageContentCache::getAllAsync,
+                fetch.getPerSearchMaxInFlight(),
+                Duration.ofMillis(fetch.getSearchDeadline()));
+
+        List<String> retryIds = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            FetchResult<Map<String, PageContent>> batchResult = batchResults.get(i);
+            List<String> batch = batches.get(i);
+            if (batchResult.getStatus() == FetchResult.Status.FAILED) {
+                log.warn("批量获取页面内容失败: {}", batchResult.getError().getMessage());
+                if (batch.size() > 1) {
+                    retryIds.addAll(batch);
                 }
             }
-
-            String fullContent = summary.toString().replaceAll("\\s+", " ").trim();
-            if (fullContent.length() > 500) {
-                return fullContent.substring(0, 500) + "...";
+            for (String pageId : batch) {
+                if (batchResult.isTimedOut()) {
+                    results.put(pageId, FetchResult.timedOut());
+                } else if (!batchResult.isSuccess()) {
+                    results.put(pageId, FetchResult.failed(batchResult.getError()));
+                } else if (batchResult.getValue().containsKey(pageId)) {
+                    results.put(pageId, FetchResult.success(batchResult.getValue().get(pageId)));
+                } else {
+                    results.put(pageId, FetchResult.failed(new ConfluenceException("页面不存在或无权访问")));
+                }
             }
-            return fullContent;
-        } catch (Exception e) {
-            return null;
         }
-    }
 
-    private String extractContentSummaryFromJson(String jsonResponse) {
-        try {
-            // 简单提取JSON中的内容
-            if (jsonResponse.contains("\"body\"") && jsonResponse.contains("\"value\"")) {
-                int valueIndex = jsonResponse.indexOf("\"value\"");
-                int quoteStart = jsonResponse.indexOf("\"", valueIndex + 8);
-                if (quoteStart != -1) {
-                    int quoteEnd = jsonResponse.indexOf("\"", quoteStart + 1);
-                    if (quoteEnd != -1) {
-                        String content = jsonResponse.substring(quoteStart + 1, quoteEnd);
-                        if (content.length() > 500) {
-                            return content.substring(0, 500) + "...";
-                        }
-                        return content;
-                    }
-                }
+        // 单个页面出错会使整批请求失败，在剩余时间内逐页获取，区分出错的页面；已无剩余时间时保留批量请求的错误
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (!retryIds.isEmpty() && remainingNanos > 0) {
+            log.info("批量请求失败，逐页获取: 页面数={}", retryIds.size());
+            List<FetchResult<PageContent>> pageResults = parallelFetchUtil.fetchAllAsync(
+                    retryIds,
+                    pageContentCache::getAsync,
+                    fetch.getPerSearchMaxInFlight(),
+                    Duration.ofNanos(remainingNanos));
+            for (int i = 0; i < retryIds.size(); i++) {
+                results.put(retryIds.get(i), pageResults.get(i));
             }
-            return null;
-        } catch (Exception e) {
-            return null;
         }
+
+        List<FetchResult<PageContent>> contents = new ArrayList<>(pageIds.size());
+        for (String pageId : pageIds) {
+            contents.add(results.get(pageId));
+        }
+        return contents;
+    }
+
+    /**
+     * Confluence页面ID为纯数字
+     */
+    private static boolean isPageId(String pageId) {
+        return !pageId.isEmpty() && pageId.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+
+    /**
+     * 规范化搜索关键字：去除首尾空白、合并连续空白并转为小写（siteSearch不区分大小写）
+     */
+    private String normalizeKeyword(String searchKeyword) {
+        return searchKeyword == null ? "" : searchKeyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 规范化内容类型：去除空白、转为小写、去重并排序
+     */
+    private String normalizeContentType(String contentType) {
+        return Arrays.stream(contentType.split(","))
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
     }
 
     /**
@@ -228,126 +469,107 @@ public class ConfluenceTool {
     /**
      * 构建搜索URL
      */
-    private String buildSearchUrl(String cql, int limit) throws Exception {
+    private String buildSearchUrl(String cql, int limit, SearchMode mode) throws Exception {
+        // 精简模式由服务端生成高亮摘要，并展开空间、版本信息，避免再逐页获取
+        String excerpt = mode == SearchMode.LEAN ? "highlight" : "none";
+        String expand = mode == SearchMode.LEAN ? "content.space,content.version" : "space.icon";
         String queryParams = String.format(
-                "cql=%s&start=0&limit=%d&excerpt=none&expand=space.icon&includeArchivedSpaces=false&src=next.ui.search",
+                "cql=%s&start=0&limit=%d&excerpt=%s&expand=%s&includeArchivedSpaces=false&src=next.ui.search",
                 URLEncoder.encode(cql, StandardCharsets.UTF_8),
-                limit
+                limit,
+                excerpt,
+                URLEncoder.encode(expand, StandardCharsets.UTF_8)
         );
         return config.getUrl() + "/rest/api/search?" + queryParams;
     }
 
     /**
-     * 构建页面URL
+     * 格式化页面大纲，章节按级别缩进
      */
-    private String buildPageUrl(String pageId) {
-        return config.getUrl() + "/pages/viewpage.action?pageId=" + pageId;
+    private String formatOutline(PageDocument document) {
+        StringBuilder result = new StringBuilder();
+        result.append("页面标题: ").append(document.getTitle()).append("\n");
+        if (document.getVersion() != null) {
+            result.append("版本: ").append(document.getVersion()).append("\n");
+        }
+        result.append("全文: ").append(document.getText().length()).append("个字符");
+        if (document.isTruncated()) {
+            result.append("（超过解析上限，仅包含开头部分）");
+        }
+        result.append("\n");
+
+        List<Section> sections = document.getSections();
+        if (sections.isEmpty()) {
+            result.append("\n(页面没有章节标题，可使用offset和length分段读取全文)\n");
+            return result.toString();
+        }
+        result.append("标题前正文: ").append(document.preambleLength()).append("个字符\n\n章节大纲:\n");
+        int topLevel = sections.stream().mapToInt(Section::getLevel).min().orElse(1);
+        for (Section section : sections) {
+            result.append("  ".repeat(section.getLevel() - topLevel))
+                    .append(section.getIndex()).append(". ").append(section.getTitle());
+            if (section.getAnchor() != null) {
+                result.append(" [#").append(section.getAnchor()).append("]");
+            }
+            result.append(" (offset=").append(section.getOffset())
+                    .append(", length=").append(section.getLength()).append(")\n");
+        }
+        result.append("\n使用section指定章节序号、锚点或标题读取章节内容\n");
+        return result.toString();
     }
 
     /**
-     * 从JSON响应中提取页面内容
+     * 在[rangeStart, rangeEnd)范围内按偏移和长度截取一段正文，并给出继续读取的偏移
      */
-    private String extractPageContentFromJson(String jsonResponse) {
-        try {
-            return jsonParserUtil.parsePageContent(jsonResponse)
-                    .orElse("无法提取页面内容，响应格式: " +
-                            (jsonResponse.length() > 200 ? jsonResponse.substring(0, 200) + "..." : jsonResponse));
-        } catch (Exception e) {
-            throw new ConfluenceException("页面内容提取失败: " + e.getMessage(), e);
+    private String formatChunk(PageDocument document, String sectionLabel, int rangeStart, int rangeEnd,
+                               Integer offset, Integer length) {
+        int rangeLength = rangeEnd - rangeStart;
+        int chunkLength = length == null ? DEFAULT_CHUNK_LENGTH : Math.max(1, Math.min(length, MAX_CHUNK_LENGTH));
+        int from = Math.max(0, Math.min(offset == null ? 0 : offset, rangeLength));
+        int to = Math.min(rangeLength, from + chunkLength);
+
+        StringBuilder result = new StringBuilder();
+        result.append("页面标题: ").append(document.getTitle()).append("\n");
+        if (sectionLabel != null) {
+            result.append("章节: ").append(sectionLabel).append("\n");
         }
-    }
-
-    private String extractContentFromHtml(String htmlResponse) {
-        try {
-            // 使用Jsoup解析HTML
-            Document doc = Jsoup.parse(htmlResponse);
-
-            // 提取标题
-            String title = extractTitleFromHtml(doc);
-
-            // 提取页面内容
-            String content = extractMainContentFromHtml(doc);
-
-            if (content != null && !content.trim().isEmpty()) {
-                return "页面标题: " + title + "\n\n页面内容:\n" + content;
-            }
-
-            return "页面标题: " + title + "\n\n(页面内容需要进一步解析)";
-        } catch (Exception e) {
-            log.error("HTML内容提取失败", e);
-            return "HTML内容提取失败: " + e.getMessage();
+        result.append("范围: 第").append(from).append("-").append(to).append("个字符，共")
+                .append(rangeLength).append("个字符\n\n");
+        result.append(document.getText(), rangeStart + from, rangeStart + to).append("\n");
+
+        if (to < rangeLength) {
+            result.append("\n(剩余").append(rangeLength - to).append("个字符，继续读取请使用offset=").append(to).append(")");
+        } else if (sectionLabel == null && document.isTruncated()) {
+            result.append("\n(已到达解析上限，页面其余内容未包含)");
+        } else {
+            result.append("\n(已读取到结尾)");
         }
+        return result.toString();
     }
 
-    private String extractTitleFromHtml(Document doc) {
-        try {
-            // 使用doc.title()获取标题
-            String title = doc.title();
-            if (title != null && !title.isEmpty()) {
-                return title;
-            }
-            // 备选方案：查找meta标签中的页面标题
-            Elements metaTags = doc.select("meta[name=ajs-page-title]");
-            if (!metaTags.isEmpty()) {
-                return metaTags.first().attr("content");
-            }
-            return "未知标题";
-        } catch (Exception e) {
-            return "标题提取失败";
+    /**
+     * 格式化页面内容
+     */
+    private String formatPageContent(PageContent page) {
+        String formatted = formatPageBody(page);
+        if (page.isStale()) {
+            formatted += "\n\n(Confluence暂不可用，以上为"
+                    + SYNC_TIME_FORMATTER.format(Instant.ofEpochMilli(page.getFetchedAt())) + "获取的缓存内容)";
         }
+        return formatted;
     }
 
-    private String extractMainContentFromHtml(Document doc) {
-        try {
-            // 尝试找到主要内容区域 - Confluence的页面内容通常在以下区域：
-            // 1. <div class="wiki-content"> - 主要内容区域
-            // 2. <div id="main-content"> - 主体内容区域
-            // 3. <div id="content"> - 内容区域
-
-            StringBuilder content = new StringBuilder();
-
-            // 尝试多种选择器来提取内容
-            Elements contentElements = doc.select("div.wiki-content, div#main-content, div#content");
-
-            if (contentElements.isEmpty()) {
-                // 如果找不到特定区域，尝试提取整个body
-                Element body = doc.body();
-                if (body != null) {
-                    // 排除导航、页脚等不需要的部分
-                    Elements excludeElements = body.select("nav, header, footer, .aui-header, .ia-splitter-left, #navigation");
-                    for (Element el : excludeElements) {
-                        el.remove();
-                    }
-                    // 将body包装成Elements
-                    contentElements = new Elements(body);
-                }
-            }
-
-            for (Element element : contentElements) {
-                // 提取纯文本内容
-                String text = element.text();
-                if (text != null && !text.trim().isEmpty()) {
-                    if (content.length() > 0) {
-                        content.append("\n\n");
-                    }
-                    content.append(text);
-                }
-            }
-
-            if (content.length() > 0) {
-                // 清理过多的空白字符
-                String result = content.toString().replaceAll("\\s+", " ").trim();
-                // 限制返回内容长度
-                if (result.length() > 5000) {
-                    result = result.substring(0, 5000) + "...(内容过长，已截断)";
-                }
-                return result;
-            }
-
-            return null;
-        } catch (Exception e) {
-            log.error("提取主要内容失败", e);
-            return null;
+    private String formatPageBody(PageContent page) {
+        String content = page.getContent();
+        if (content != null && page.isTruncated()) {
+            content = content + "...(内容过长，已截断，可使用readConfluencePage按章节分段读取完整内容)";
+        }
+        if (page.getTitle() == null) {
+            return content != null ? content : "无法提取页面内容";
+        }
+        if (content != null) {
+            return "页面标题: " + page.getTitle() + "\n\n页面内容:\n" + content;
         }
+        return "页面标题: " + page.getTitle() + "\n\n(页面内容需要进一步解析)";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.confluence.mcp.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.entity.BrotliInputStreamFactory;
+import org.apache.hc.client5.http.entity.DeflateInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 响应体内容编码解码工具
+ * <p>
+ * 按Content-Encoding对响应体做流式解压，解压后的数据直接交给解析器读取，不在内存中整体解压。
+ * brotli仅在类路径中存在org.brotli解码器时启用。
+ */
+@Slf4j
+final class ContentDecoder {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final boolean BROTLI_AVAILABLE = isClassPresent("org.brotli.dec.BrotliInputStream");
+
+    /**
+     * 请求时声明支持的压缩编码
+     */
+    static final String ACCEPT_ENCODING = BROTLI_AVAILABLE ? "gzip, deflate, br" : "gzip, deflate";
+
+    private ContentDecoder() {
+    }
+
+    /**
+     * 按内容编码包装解压流，未压缩或编码为identity时原样返回
+     *
+     * @throws IOException 编码不受支持或压缩数据头无效时抛出
+     */
+    static InputStream decode(InputStream wire, String contentEncoding) throws IOException {
+        if (contentEncoding == null || contentEncoding.isBlank()) {
+            return wire;
+        }
+        InputStream decoded = wire;
+        // 多重编码按声明顺序的逆序解码
+        String[] encodings = contentEncoding.split(",");
+        for (int i = encodings.length - 1; i >= 0; i--) {
+            String encoding = encodings[i].trim().toLowerCase(Locale.ROOT);
+            decoded = switch (encoding) {
+                case "", "identity" -> decoded;
+                case "gzip", "x-gzip" -> new GZIPInputStream(decoded, BUFFER_SIZE);
+                case "deflate" -> new DeflateInputStream(decoded);
+                case "br" -> {
+                    if (!BROTLI_AVAILABLE) {
+                        throw new IOException("不支持的内容编码: br（缺少brotli解码器）");
+                    }
+                    yield BrotliInputStreamFactory.getInstance().create(decoded);
+                }
+                default -> throw new IOException("不支持的内容编码: " + encoding);
+            };
+        }
+        return decoded;
+    }
+
+    private static boolean isClassPresent(String className) {
+        try {
+            Class.forName(className, false, ContentDecoder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.debug("未找到{}，不启用brotli解压", className);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.confluence.mcp.util;
+
+import lombok.Builder;
+import lombok.Value;
+import org.jsoup.nodes.Entities;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 流式HTML正文提取器
+ * <p>
+ * 直接从字符流中逐个读取REST接口返回的正文HTML（body.view/body.storage）的标签和文本，不构建DOM：
+ * 在读取时一次性合并空白字符并写入有长度上限的缓冲区，达到字符上限后立即停止读取。
+ * 内存和CPU开销与输出长度相关，与页面大小无关。
+ * 提取的同时记录正文中h1-h6标题的级别、文本、锚点和在正文中的起始位置，用于按章节读取长页面。
+ */
+@Component
+public class HtmlTextExtractor {
+
+    /**
+     * 不产生分隔的行内元素，其余元素的边界按空白处理
+     */
+    private static final Set<String> INLINE_TAGS = Set.of(
+            "a", "abbr", "b", "bdi", "bdo", "cite", "code", "data", "dfn", "em", "font", "i", "kbd", "mark",
+            "q", "s", "samp", "small", "span", "strike", "strong", "sub", "sup", "time", "tt", "u", "var", "wbr");
+
+    /**
+     * 内容不作为文本处理的元素，ac:parameter为存储格式中的宏参数
+     */
+    private static final Set<String> SKIPPED_RAW_TAGS = Set.of(
+            "script", "style", "noscript", "template", "textarea", "ac:parameter");
+
+    private static final int MAX_TAG_LENGTH = 8192;
+    private static final int MAX_ENTITY_LENGTH = 32;
+
+    /**
+     * 提取HTML片段（如REST接口返回的body.view）的全部文本
+     *
+     * @param reader   HTML字符流
+     * @param maxChars 正文最大字符数
+     */
+    public Result extractFragment(Reader reader, int maxChars) throws IOException {
+        return new Extraction(reader, maxChars).run();
+    }
+
+    /**
+     * 提取结果
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Result {
+
+        /**
+         * 合并空白后的正文，无文本时为null
+         */
+        String text;
+
+        /**
+         * 正文是否超过字符上限而被截断
+         */
+        boolean truncated;
+
+        /**
+         * 正文中的标题，按出现顺序排列
+         */
+        @Builder.Default
+        List<Heading> headings = List.of();
+    }
+
+    /**
+     * 正文中的标题
+     */
+    @Value
+    public static class Heading {
+
+        /**
+         * 标题级别，1-6
+         */
+        int level;
+
+        String title;
+
+        /**
+         * 标题元素的id（Confluence生成的锚点），没有时为null
+         */
+        String anchor;
+
+        /**
+         * 标题文本在正文中的起始位置
+         */
+        int offset;
+    }
+
+    /**
+     * 单次提取的状态
+     */
+    private static final class Extraction {
+
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private int pushback = -1;
+
+        private final BoundedText content;
+        private boolean done;
+
+        Extraction(Reader reader, int maxChars) {
+            this.reader = reader;
+            this.content = new BoundedText(maxChars);
+        }
+
+        Result run() throws IOException {
+            int c;
+            while (!done && (c = next()) >= 0) {
+                if (c == '<') {
+                    readMarkup();
+                } else if (c == '&') {
+                    appendText(readEntity());
+                } else {
+                    appendChar((char) c);
+                }
+            }
+
+            return Result.builder()
+                    .text(content.value())
+                    .truncated(content.isFull())
+                    .headings(List.copyOf(content.headings))
+                    .build();
+        }
+
+        // ---- 文本输出 ----
+
+        private void appendChar(char c) {
+            content.append(c);
+            if (content.isFull()) {
+                done = true;
+            }
+        }
+
+        private void appendText(String text) {
+            for (int i = 0; i < text.length() && !done; i++) {
+                appendChar(text.charAt(i));
+            }
+        }
+
+        private void appendBoundary() {
+            content.append(' ');
+        }
+
+        // ---- 标签处理 ----
+
+        private void readMarkup() throws IOException {
+            int c = next();
+            if (c == '!') {
+                skipDeclarationOrComment();
+            } else if (c == '?') {
+                skipUntil('>');
+            } else if (c == '/') {
+                String name = readTagName();
+                skipUntil('>');
+                if (!name.isEmpty()) {
+                    handleEndTag(name);
+                }
+            } else if (isTagNameStart(c)) {
+                unread(c);
+                readStartTag();
+            } else {
+                // 不是标签，'<'按普通文本处理
+                appendChar('<');
+                if (c >= 0) {
+                    unread(c);
+                }
+            }
+        }
+
+        private void readStartTag() throws IOException {
+            String name = readTagName();
+            StringBuilder attributes = new StringBuilder();
+            boolean selfClosing = false;
+            int quote = 0;
+            int c;
+            while ((c = next()) >= 0) {
+                if (quote != 0) {
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    break;
+                }
+                if (attributes.length() < MAX_TAG_LENGTH) {
+                    attributes.append((char) c);
+                }
+            }
+            if (attributes.length() > 0 && attributes.charAt(attributes.length() - 1) == '/') {
+                selfClosing = true;
+            }
+            handleStartTag(name, attributes, selfClosing);
+        }
+
+        private void handleStartTag(String name, CharSequence attributes, boolean selfClosing) throws IOException {
+            if (SKIPPED_RAW_TAGS.contains(name) && !selfClosing) {
+                skipRawText(name);
+                appendBoundary();
+                return;
+            }
+            if ("br".equals(name) || !INLINE_TAGS.contains(name)) {
+                appendBoundary();
+            }
+            int level = headingLevel(name);
+            if (level > 0 && !selfClosing) {
+                content.startHeading(level, attribute(attributes, "id"));
+            }
+        }
+
+        private void handleEndTag(String name) {
+            if (headingLevel(name) > 0) {
+                content.endHeading();
+            }
+            if (!INLINE_TAGS.contains(name)) {
+                appendBoundary();
+            }
+        }
+
+        /**
+         * 跳过原始文本直到对应的结束标签
+         */
+        private void skipRawText(String name) throws IOException {
+            int c;
+            while ((c = next()) >= 0) {
+                if (c != '<') {
+                    continue;
+                }
+                int slash = next();
+                if (slash != '/') {
+                    if (slash >= 0) {
+                        unread(slash);
+                    }
+                    continue;
+                }
+                if (readTagName().equals(name)) {
+                    skipUntil('>');
+                    return;
+                }
+            }
+        }
+
+        private void skipDeclarationOrComment() throws IOException {
+            int first = next();
+            int second = first == '-' ? next() : -1;
+            if (first == '-' && second == '-') {
+                // 注释：跳过直到 -->
+                int dashes = 0;
+                int c;
+                while ((c = next()) >= 0) {
+                    if (c == '>' && dashes >= 2) {
+                        return;
+                    }
+                    dashes = c == '-' ? dashes + 1 : 0;
+                }
+                return;
+            }
+            if (second >= 0) {
+                unread(second);
+            }
+            if (first != '>') {
+                skipUntil('>');
+            }
+        }
+
+        private String readTagName() throws IOException {
+            StringBuilder name = new StringBuilder();
+            int c;
+            while ((c = next()) >= 0) {
+                if (Character.isLetterOrDigit(c) || c == '-' || c == ':' || c == '_') {
+                    if (name.length() < 64) {
+                        name.append((char) Character.toLowerCase(c));
+                    }
+                } else {
+                    unread(c);
+                    break;
+                }
+            }
+            return name.toString();
+        }
+
+        private void skipUntil(char target) throws IOException {
+            int c;
+            while ((c = next()) >= 0 && c != target) {
+                // 跳过
+            }
+        }
+
+        // ---- 实体解码 ----
+
+        /**
+         * 读取'&'之后的实体并解码，无法识别时原样返回
+         */
+        private String readEntity() throws IOException {
+            StringBuilder entity = new StringBuilder();
+            while (entity.length() < MAX_ENTITY_LENGTH) {
+                int c = next();
+                if (c < 0) {
+                    break;
+                }
+                if (c == ';') {
+                    String decoded = decodeEntity(entity.toString());
+                    return decoded != null ? decoded : "&" + entity + ";";
+                }
+                if (!Character.isLetterOrDigit(c) && c != '#') {
+                    unread(c);
+                    break;
+                }
+                entity.append((char) c);
+            }
+            // 没有分号结尾：尝试按无分号的命名实体解码（如 &nbsp）
+            String decoded = entity.length() > 0 && entity.charAt(0) != '#' ? decodeEntity(entity.toString()) : null;
+            return decoded != null ? decoded : "&" + entity;
+        }
+
+        // ---- 字符读取 ----
+
+        private int next() throws IOException {
+            if (pushback >= 0) {
+                int c = pushback;
+                pushback = -1;
+                return c;
+            }
+            if (position >= limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private void unread(int c) {
+            pushback = c;
+        }
+    }
+
+    // ---- 静态辅助方法 ----
+
+    /**
+     * h1-h6的标题级别，其他元素返回0
+     */
+    private static int headingLevel(String name) {
+        if (name.length() == 2 && name.charAt(0) == 'h' && name.charAt(1) >= '1' && name.charAt(1) <= '6') {
+            return name.charAt(1) - '0';
+        }
+        return 0;
+    }
+
+    private static boolean isTagNameStart(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static String decodeEntity(String name) {
+        if (name.isEmpty()) {
+            return null;
+        }
+        if (name.charAt(0) == '#') {
+            try {
+                int codePoint = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X')
+                        ? Integer.parseInt(name.substring(2), 16)
+                        : Integer.parseInt(name.substring(1));
+                return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (Entities.isNamedEntity(name)) {
+            return Entities.getByName(name);
+        }
+        return null;
+    }
+
+    /**
+     * 读取属性值，属性名不区分大小写
+     */
+    private static String attribute(CharSequence attributes, String name) {
+        String text = attributes.toString();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int from = 0;
+        while (true) {
+            int index = lower.indexOf(name, from);
+            if (index < 0) {
+                return null;
+            }
+            from = index + name.length();
+            boolean startBoundary = index == 0 || Character.isWhitespace(lower.charAt(index - 1));
+            int i = from;
+            while (i < lower.length() && Character.isWhitespace(lower.charAt(i))) {
+                i++;
+            }
+            if (!startBoundary || i >= lower.length() || lower.charAt(i) != '=') {
+                continue;
+            }
+            i++;
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i >= text.length()) {
+                return "";
+            }
+            char quote = text.charAt(i);
+            if (quote == '"' || quote == '\'') {
+                int end = text.indexOf(quote, i + 1);
+                return text.substring(i + 1, end < 0 ? text.length() : end);
+            }
+            int end = i;
+            while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && text.charAt(end) != '/') {
+                end++;
+            }
+            return text.substring(i, end);
+        }
+    }
+
+    /**
+     * 有长度上限的文本缓冲区，写入时合并连续空白并去除首尾空白，并记录其中的标题
+     */
+    private static final class BoundedText {
+
+        private final int maxChars;
+        private final StringBuilder text;
+        private boolean pendingSpace;
+        private boolean full;
+
+        private final List<Heading> headings = new ArrayList<>();
+        private int headingLevel;
+        private String headingAnchor;
+        private int headingStart = -1;
+
+        BoundedText(int maxChars) {
+            this.maxChars = maxChars;
+            this.text = new StringBuilder(Math.min(maxChars, 1024));
+        }
+
+        void append(char c) {
+            if (full) {
+                return;
+            }
+            if (Character.isWhitespace(c) || c == ' ') {
+                pendingSpace = text.length() > 0;
+                return;
+            }
+            if (pendingSpace) {
+                pendingSpace = false;
+                if (text.length() >= maxChars) {
+                    full = true;
+                    return;
+                }
+                text.append(' ');
+            }
+            if (text.length() >= maxChars) {
+                full = true;
+                return;
+            }
+            text.append(c);
+        }
+
+        boolean isFull() {
+            return full;
+        }
+
+        void startHeading(int level, String anchor) {
+            headingLevel = level;
+            headingAnchor = anchor == null || anchor.isBlank() ? null : anchor;
+            // 标题前的边界已记为待写入的空格，标题文本从空格之后开始
+            headingStart = text.length() + (pendingSpace ? 1 : 0);
+        }
+
+        void endHeading() {
+            if (headingStart < 0) {
+                return;
+            }
+            if (headingStart < text.length()) {
+                String title = text.substring(headingStart).strip();
+                if (!title.isEmpty()) {
+                    headings.add(new Heading(headingLevel, title, headingAnchor, headingStart));
+                }
+            }
+            headingStart = -1;
+        }
+
+        String value() {
+            int length = text.length();
+            while (length > 0 && text.charAt(length - 1) == ' ') {
+                length--;
+            }
+            return length == 0 ? null : text.substring(0, length);
+        }
+    }
+}
@@ -1,34 +1,137 @@
 package com.confluence.mcp.util;
 
 import com.confluence.mcp.config.ConfluenceConfig;
-import lombok.RequiredArgsConstructor;
+import com.confluence.mcp.config.HttpClientMode;
+import com.confluence.mcp.exception.ConfluenceHttpException;
+import com.confluence.mcp.exception.ConfluenceThrottledException;
+import com.confluence.mcp.metrics.UpstreamMetrics;
+import com.confluence.mcp.resilience.RetryPolicy;
+import com.confluence.mcp.resilience.UpstreamGuard;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
 import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * HTTP客户端工具类
+ * <p>
+ * 所有请求共享一个令牌桶限流器；GET请求遇到限流、502/503/504或连接失败时按 {@link RetryPolicy} 重试，
+ * 服务端返回Retry-After时整个限流器暂停相应时间。错误状态码转换为 {@link ConfluenceHttpException} 的子类。
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class HttpClientUtil {
 
+    /**
+     * 读取方提前结束时，为复用连接最多继续读取的剩余字节数
+     */
+    private static final long MAX_DRAIN_BYTES = 64 * 1024;
+
+    /**
+     * 异步请求的响应体缓冲区大小，写满时暂停从连接读取，等待解析线程读取
+     */
+    private static final int ASYNC_BUFFER_SIZE = 64 * 1024;
+
     private final CloseableHttpClient httpClient;
+    private final CloseableHttpAsyncClient asyncHttpClient;
     private final ConfluenceConfig config;
+    private final ExecutorService executor;
+    private final UpstreamMetrics upstreamMetrics;
+    private final UpstreamGuard upstreamGuard;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder throttledCount = new LongAdder();
+    private final LongAdder responseCount = new LongAdder();
+    private final LongAdder compressedResponseCount = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+
+    public HttpClientUtil(CloseableHttpClient httpClient, CloseableHttpAsyncClient asyncHttpClient,
+                          ConfluenceConfig config, @Qualifier("pageFetchExecutor") ExecutorService executor,
+                          UpstreamMetrics upstreamMetrics, UpstreamGuard upstreamGuard) {
+        this.httpClient = httpClient;
+        this.asyncHttpClient = asyncHttpClient;
+        this.config = config;
+        this.executor = executor;
+        this.upstreamMetrics = upstreamMetrics;
+        this.upstreamGuard = upstreamGuard;
+        this.rateLimiter = new RateLimiter(config.getRateLimit().getRequestsPerSecond(), config.getRateLimit().getBurst());
+        this.retryPolicy = new RetryPolicy(config.getRetry());
+    }
 
     /**
      * 执行HTTP GET请求
      */
     public String executeGetRequest(String url) throws Exception {
+        String responseString = executeGetRequest(url, body -> new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        log.debug("HTTP响应内容预览: {}...",
+                 responseString.length() > 200 ? responseString.substring(0, 200) : responseString);
+        return responseString;
+    }
+
+    /**
+     * 执行HTTP GET请求，直接从响应体输入流读取结果而不先转换为字符串
+     */
+    public <T> T executeGetRequest(String url, ResponseBodyReader<T> reader) throws Exception {
+        return executeConditionalGetRequest(url, Validators.NONE, reader).getValue();
+    }
+
+    /**
+     * 执行条件GET请求：携带上次响应的ETag/Last-Modified，服务端返回304时不读取响应体，
+     * 结果中notModified为true；否则由读取函数读取响应体并返回新的校验信息。
+     * Confluence熔断或并发已满时抛出 {@link com.confluence.mcp.exception.UpstreamUnavailableException}
+     */
+    public <T> ConditionalResponse<T> executeConditionalGetRequest(String url, Validators validators,
+                                                                  ResponseBodyReader<T> reader) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                return executeConditionalGetOnce(url, validators, reader);
+            } catch (Exception e) {
+                long delay = retryPolicy.retryDelayMillis(e, attempt);
+                if (delay < 0) {
+                    throw e;
+                }
+                retryCount.increment();
+                log.warn("请求Confluence失败，{}ms后重试: 第{}次失败, URL={}, 原因={}", delay, attempt, url, e.getMessage());
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+        }
+    }
+
+    private <T> ConditionalResponse<T> executeConditionalGetOnce(String url, Validators validators,
+                                                                 ResponseBodyReader<T> reader) throws Exception {
         log.info("执行HTTP GET请求: URL={}", url);
         log.debug("请求详情 - URL: {}, 超时配置: 连接={}ms, 读取={}ms",
                  url, config.getConnectionTimeout(), config.getReadTimeout());
@@ -36,28 +139,405 @@ public class HttpClientUtil {
         HttpGet request = new HttpGet(url);
         request.setHeader("Content-Type", "application/json");
         request.setHeader("Authorization", getBasicAuthHeader());
-        request.setConfig(org.apache.hc.client5.http.config.RequestConfig.custom()
+        if (Boolean.TRUE.equals(config.getCompressionEnabled())) {
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, ContentDecoder.ACCEPT_ENCODING);
+        }
+        if (validators.getEtag() != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, validators.getEtag());
+        }
+        if (validators.getLastModified() != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, validators.getLastModified());
+        }
+        request.setConfig(RequestConfig.custom()
                 .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectionTimeout()))
                 .setResponseTimeout(Timeout.ofMilliseconds(config.getReadTimeout()))
                 .build());
 
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
+        UpstreamGuard.Permit permit = upstreamGuard.acquire();
+        UpstreamMetrics.Recording recording = upstreamMetrics.start(url);
+        CloseableHttpResponse response;
+        try {
+            response = httpClient.execute(request);
+            permit.responded();
+        } catch (Exception e) {
+            permit.failure();
+            recording.failed(e);
+            recording.stop();
+            throw e;
+        }
+        boolean aborted = false;
+        // 超时、连接中断和429/5xx说明Confluence过载或故障，其余错误（如404、解析失败）不计入
+        boolean upstreamFailure = false;
+        try {
             int statusCode = response.getCode();
+            recording.status(statusCode);
+            upstreamFailure = UpstreamGuard.isFailureStatus(statusCode);
             log.info("HTTP响应状态码: {}, URL={}", statusCode, url);
             log.debug("HTTP响应详情 - 状态码: {}, URL: {}", statusCode, url);
 
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+                return new ConditionalResponse<>(true, null, validators, 0);
+            }
             if (statusCode >= 400) {
                 log.error("HTTP请求失败，状态码: {}, URL={}", statusCode, url);
-                throw new RuntimeException("HTTP请求失败，状态码: " + statusCode);
+                throw statusException(statusCode, headerValue(response, HttpHeaders.RETRY_AFTER));
             }
 
+            Validators responseValidators = new Validators(
+                    headerValue(response, HttpHeaders.ETAG), headerValue(response, HttpHeaders.LAST_MODIFIED));
             HttpEntity entity = response.getEntity();
-            String responseString = EntityUtils.toString(entity, StandardCharsets.UTF_8);
-            log.info("HTTP响应成功: URL={}, 响应长度={}字符", url, responseString.length());
-            log.debug("HTTP响应内容预览: {}...",
-                     responseString.length() > 200 ? responseString.substring(0, 200) : responseString);
+            if (entity == null) {
+                return new ConditionalResponse<>(false, reader.read(InputStream.nullInputStream()), responseValidators, 0);
+            }
+            InputStream content = entity.getContent();
+            CountingInputStream wire = new CountingInputStream(content);
+            CountingInputStream body = new CountingInputStream(ContentDecoder.decode(wire, entity.getContentEncoding()));
+            T result = reader.read(body);
+            if (!drainRemaining(body)) {
+                // 读取方提前结束且剩余内容较多，直接中止连接而不是读完整个响应体
+                log.debug("响应体未读完，中止连接: URL={}", url);
+                aborted = true;
+                abortConnection(content, request);
+            }
+            recordTransfer(url, entity.getContentEncoding(), wire.getCount(), body.getCount());
+            recording.responseBytes(wire.getCount());
+            return new ConditionalResponse<>(false, result, responseValidators, wire.getCount());
+        } catch (Exception e) {
+            upstreamFailure |= e instanceof IOException;
+            recording.failed(e);
+            throw e;
+        } finally {
+            if (upstreamFailure) {
+                permit.failure();
+            } else {
+                permit.success();
+            }
+            closeResponse(response, aborted);
+            recording.stop();
+        }
+    }
+
+    private String headerValue(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * 按状态码创建异常；服务端要求等待时暂停限流器，让其他请求一起等待而不是继续触发限流
+     */
+    private ConfluenceHttpException statusException(int statusCode, String retryAfter) {
+        ConfluenceHttpException exception = ConfluenceHttpException.of(statusCode, retryPolicy.parseRetryAfter(retryAfter));
+        if (exception instanceof ConfluenceThrottledException throttled) {
+            throttledCount.increment();
+            if (throttled.getRetryAfterMillis() != null) {
+                rateLimiter.pause(Math.min(throttled.getRetryAfterMillis(), config.getRetry().getMaxRetryAfter()),
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+        return exception;
+    }
+
+    /**
+     * 异步执行HTTP GET请求，返回响应体字符串
+     */
+    public CompletableFuture<String> executeGetRequestAsync(String url) {
+        return executeGetRequestAsync(url, body -> new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 异步执行HTTP GET请求，响应体由读取函数在页面获取线程池中读取。
+     * 异步模式下等待响应不占用线程；阻塞模式下在页面获取线程池中执行阻塞请求
+     */
+    public <T> CompletableFuture<T> executeGetRequestAsync(String url, ResponseBodyReader<T> reader) {
+        if (config.getHttpClientMode() == HttpClientMode.BLOCKING) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executeGetRequest(url, reader);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+
+        return executeAsyncWithRetry(url, reader, 1);
+    }
+
+    /**
+     * 按限流器的等待时间延迟发起异步请求，失败时按重试策略延迟后再次请求，等待期间不占用线程
+     */
+    private <T> CompletableFuture<T> executeAsyncWithRetry(String url, ResponseBodyReader<T> reader, int attempt) {
+        long waitNanos = rateLimiter.reserve();
+        CompletableFuture<T> result = waitNanos > 0
+                ? delay(waitNanos, TimeUnit.NANOSECONDS).thenCompose(ignored -> executeAsyncOnce(url, reader))
+                : executeAsyncOnce(url, reader);
+        return result.exceptionallyCompose(error -> {
+            long delay = retryPolicy.retryDelayMillis(error, attempt);
+            if (delay < 0) {
+                return CompletableFuture.failedFuture(error);
+            }
+            retryCount.increment();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.warn("异步请求Confluence失败，{}ms后重试: 第{}次失败, URL={}, 原因={}",
+                    delay, attempt, url, cause.getMessage());
+            return delay(delay, TimeUnit.MILLISECONDS).thenCompose(ignored -> executeAsyncWithRetry(url, reader, attempt + 1));
+        });
+    }
+
+    /**
+     * 限流等待和重试退避使用 CompletableFuture 的延迟执行器计时，不占用也不排队于页面获取线程池，
+     * 之后发出请求的操作不阻塞
+     */
+    private CompletableFuture<Void> delay(long delay, TimeUnit unit) {
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, unit));
+    }
+
+    private <T> CompletableFuture<T> executeAsyncOnce(String url, ResponseBodyReader<T> reader) {
+        // 重试可能由I/O线程上的回调发起，许可以非阻塞方式获取，并发已满时不占用当前线程等待
+        return upstreamGuard.acquireAsync().thenCompose(permit -> sendAsync(url, reader, permit));
+    }
+
+    private <T> CompletableFuture<T> sendAsync(String url, ResponseBodyReader<T> reader, UpstreamGuard.Permit permit) {
+        log.info("执行异步HTTP GET请求: URL={}", url);
+        SimpleHttpRequest request = SimpleRequestBuilder.get(url)
+                .setHeader("Content-Type", "application/json")
+                .setHeader("Authorization", getBasicAuthHeader())
+                .build();
+        if (Boolean.TRUE.equals(config.getCompressionEnabled())) {
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, ContentDecoder.ACCEPT_ENCODING);
+        }
+        request.setConfig(RequestConfig.custom()
+                .setResponseTimeout(Timeout.ofMilliseconds(config.getReadTimeout()))
+                .build());
+
+        UpstreamMetrics.Recording recording = upstreamMetrics.start(url);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // 响应体在页面获取线程池中边接收边解析，不在I/O线程上执行，也不整体缓存在内存中；
+        // 并发上限按收到响应头的耗时调整，解析耗时不计入
+        StreamingResponseConsumer<T> consumer = new StreamingResponseConsumer<>(ASYNC_BUFFER_SIZE, MAX_DRAIN_BYTES,
+                executor, permit::responded,
+                (response, content) -> readAsyncResponse(url, response, content, reader, recording));
+        asyncHttpClient.execute(SimpleRequestProducer.create(request), consumer, new FutureCallback<>() {
+            @Override
+            public void completed(T value) {
+                permit.success();
+                result.complete(value);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                if (isUpstreamFailure(e)) {
+                    permit.failure();
+                } else {
+                    permit.success();
+                }
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                permit.ignore();
+                result.cancel(false);
+            }
+        });
+
+        return result.whenComplete((value, error) -> {
+            if (error != null) {
+                recording.failed(error);
+            }
+            recording.stop();
+        });
+    }
+
+    /**
+     * 在页面获取线程池中检查状态码并由读取函数读取响应体
+     */
+    private <T> T readAsyncResponse(String url, HttpResponse response, InputStream content,
+                                    ResponseBodyReader<T> reader, UpstreamMetrics.Recording recording) throws Exception {
+        int statusCode = response.getCode();
+        recording.status(statusCode);
+        log.info("HTTP响应状态码: {}, 协议={}, URL={}", statusCode, response.getVersion(), url);
+        if (statusCode >= 400) {
+            log.error("HTTP请求失败，状态码: {}, URL={}", statusCode, url);
+            throw statusException(statusCode, headerValue(response, HttpHeaders.RETRY_AFTER));
+        }
+        String contentEncoding = headerValue(response, HttpHeaders.CONTENT_ENCODING);
+        CountingInputStream wire = new CountingInputStream(content);
+        CountingInputStream body = new CountingInputStream(ContentDecoder.decode(wire, contentEncoding));
+        T result = reader.read(body);
+        recordTransfer(url, contentEncoding, wire.getCount(), body.getCount());
+        recording.responseBytes(wire.getCount());
+        return result;
+    }
+
+    /**
+     * 超时、连接中断和429/5xx说明Confluence过载或故障，其余错误（如404、解析失败）不计入
+     */
+    private static boolean isUpstreamFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ConfluenceHttpException httpException) {
+            return UpstreamGuard.isFailureStatus(httpException.getStatusCode());
+        }
+        return cause instanceof IOException;
+    }
+
+    /**
+     * 记录单次响应的传输字节数（压缩后）与解码后字节数
+     */
+    private void recordTransfer(String url, String contentEncoding, long wireBytes, long decodedBytes) {
+        responseCount.increment();
+        this.wireBytes.add(wireBytes);
+        this.decodedBytes.add(decodedBytes);
+        if (contentEncoding != null && !contentEncoding.isBlank()) {
+            compressedResponseCount.increment();
+        }
+        log.info("HTTP响应成功: URL={}, 编码={}, 传输字节={}, 解码后字节={}",
+                url, contentEncoding == null ? "identity" : contentEncoding, wireBytes, decodedBytes);
+    }
+
+    /**
+     * 传输统计：响应数、压缩响应数、传输字节数与解码后字节数，以及被限流次数和重试次数
+     */
+    public Map<String, Object> transferStats() {
+        long wire = wireBytes.sum();
+        long decoded = decodedBytes.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("acceptEncoding", Boolean.TRUE.equals(config.getCompressionEnabled())
+                ? ContentDecoder.ACCEPT_ENCODING : "identity");
+        result.put("responseCount", responseCount.sum());
+        result.put("compressedResponseCount", compressedResponseCount.sum());
+        result.put("wireBytes", wire);
+        result.put("decodedBytes", decoded);
+        result.put("compressionRatio", wire == 0 ? 0.0 : (double) decoded / wire);
+        result.put("throttledCount", throttledCount.sum());
+        result.put("retryCount", retryCount.sum());
+        return result;
+    }
+
+    /**
+     * 中止连接，连接不会归还连接池
+     */
+    private void abortConnection(InputStream content, HttpGet request) throws IOException {
+        if (content instanceof EofSensorInputStream sensorStream) {
+            sensorStream.abort();
+        } else {
+            request.cancel();
+        }
+    }
+
+    /**
+     * 关闭响应；连接已中止时关闭过程中的异常可以忽略
+     */
+    private void closeResponse(CloseableHttpResponse response, boolean aborted) throws IOException {
+        try {
+            response.close();
+        } catch (IOException e) {
+            if (!aborted) {
+                throw e;
+            }
+            log.debug("关闭已中止的响应时出现异常: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读完少量剩余响应体以便复用连接，剩余内容超过上限时返回false
+     */
+    private boolean drainRemaining(InputStream body) throws IOException {
+        byte[] buffer = new byte[8192];
+        long drained = 0;
+        int n;
+        while ((n = body.read(buffer)) >= 0) {
+            drained += n;
+            if (drained > MAX_DRAIN_BYTES) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 响应的校验信息（ETag、Last-Modified），用于条件请求
+     */
+    @Value
+    public static class Validators {
+
+        public static final Validators NONE = new Validators(null, null);
+
+        String etag;
+        String lastModified;
+
+        public boolean isEmpty() {
+            return etag == null && lastModified == null;
+        }
+    }
+
+    /**
+     * 条件请求的结果
+     */
+    @Value
+    public static class ConditionalResponse<T> {
+
+        /**
+         * 服务端返回304，内容未变化
+         */
+        boolean notModified;
+
+        /**
+         * 读取函数的结果，内容未变化时为null
+         */
+        T value;
+
+        /**
+         * 本次响应的校验信息，内容未变化时沿用请求中的校验信息
+         */
+        Validators validators;
+
+        /**
+         * 读取的响应体字节数
+         */
+        long bodyBytes;
+    }
+
+    /**
+     * 响应体读取函数
+     */
+    @FunctionalInterface
+    public interface ResponseBodyReader<T> {
+        T read(InputStream body) throws Exception;
+    }
+
+    /**
+     * 统计已读取字节数的输入流
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
 
-            return responseString;
+        long getCount() {
+            return count;
         }
     }
 
@@ -1,5 +1,7 @@
 package com.confluence.mcp.util;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
@@ -9,6 +11,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -21,27 +28,67 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class JsonParserUtil {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    /**
+     * 响应体输入流由调用方负责读完和关闭（HttpClientUtil解析后还要读完剩余内容以复用连接），
+     * 解析器关闭时不能关闭输入流
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
 
     /**
-     * 解析Confluence搜索结果的JSON响应
+     * 从响应体输入流流式解析Confluence搜索结果，不需要先将响应体转换为字符串；正文即使已展开也会被跳过
      */
-    public List<ConfluencePage> parseSearchResults(String jsonResponse) throws Exception {
-        log.debug("开始解析Confluence搜索结果JSON，响应长度: {}", jsonResponse.length());
-        JsonNode rootNode = objectMapper.readTree(jsonResponse);
-        JsonNode resultsNode = rootNode.path("results");
-        log.debug("解析到{}个结果", resultsNode.isArray() ? resultsNode.size() : 0);
+    public List<ConfluencePage> parseSearchResults(InputStream jsonStream) throws Exception {
+        return parseSearchResults(jsonStream, null);
+    }
 
+    /**
+     * 从响应体输入流流式解析Confluence搜索结果，expand展开的正文在解析过程中交给提取函数
+     *
+     * @param bodyExtractor 正文提取函数，为null时跳过正文
+     */
+    public List<ConfluencePage> parseSearchResults(InputStream jsonStream, BodyExtractor bodyExtractor) throws Exception {
+        log.debug("开始流式解析Confluence搜索结果JSON");
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonStream)) {
+            return readSearchResults(parser, bodyExtractor);
+        }
+    }
+
+    /**
+     * 从响应体输入流流式解析单个页面（/rest/api/content/{id}），expand展开的正文在解析过程中交给提取函数
+     */
+    public Optional<ConfluencePage> parseContent(InputStream jsonStream, BodyExtractor bodyExtractor) throws Exception {
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.empty();
+            }
+            ConfluencePage page = readSearchResult(parser, bodyExtractor);
+            return page.getId() == null || page.getId().isEmpty() ? Optional.empty() : Optional.of(page);
+        }
+    }
+
+    private List<ConfluencePage> readSearchResults(JsonParser parser, BodyExtractor bodyExtractor) throws IOException {
         List<ConfluencePage> pages = new ArrayList<>();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return pages;
+        }
 
-        if (resultsNode.isArray()) {
-            for (JsonNode resultNode : resultsNode) {
-                ConfluencePage page = new ConfluencePage();
-                page.setId(resultNode.path("id").asText());
-                page.setTitle(resultNode.path("title").asText());
-                page.setWebUrl(resultNode.path("_links").path("webui").asText());
-                page.setSpaceKey(resultNode.path("space").path("key").asText());
-                pages.add(page);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (!"results".equals(field) || token != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                ConfluencePage page = readSearchResult(parser, bodyExtractor);
+                if (page.getId() != null && !page.getId().isEmpty()) {
+                    pages.add(page);
+                }
             }
         }
 
@@ -50,31 +97,287 @@ public class JsonParserUtil {
     }
 
     /**
-     * 解析页面内容的JSON响应
+     * 读取单个搜索结果。/rest/api/search 的结果将页面信息包装在content字段中，
+     * /rest/api/content 的结果直接是页面，两种结构都按同样的字段读取后合并
+     */
+    private ConfluencePage readSearchResult(JsonParser parser, BodyExtractor bodyExtractor) throws IOException {
+        ConfluencePage result = new ConfluencePage();
+        ConfluencePage content = null;
+        String url = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "content" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        content = readSearchResult(parser, bodyExtractor);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "url" -> url = scalarText(parser, token);
+                default -> readPageField(parser, field, token, result, bodyExtractor);
+            }
+        }
+
+        if (content == null) {
+            if (result.getWebUrl() == null) {
+                result.setWebUrl(url);
+            }
+            return result;
+        }
+        content.setTitle(content.getTitle() != null ? content.getTitle() : result.getTitle());
+        content.setWebUrl(content.getWebUrl() != null ? content.getWebUrl() : url);
+        content.setSpaceKey(content.getSpaceKey() != null ? content.getSpaceKey() : result.getSpaceKey());
+        content.setLastModified(result.getLastModified() != null ? result.getLastModified() : content.getLastModified());
+        content.setExcerpt(result.getExcerpt());
+        return content;
+    }
+
+    private void readPageField(JsonParser parser, String field, JsonToken token, ConfluencePage page,
+                               BodyExtractor bodyExtractor) throws IOException {
+        switch (field) {
+            case "id" -> page.setId(scalarText(parser, token));
+            case "type" -> page.setType(scalarText(parser, token));
+            case "metadata" -> page.setLabels(readLabels(parser, token));
+            case "title" -> page.setTitle(scalarText(parser, token));
+            case "excerpt" -> page.setExcerpt(scalarText(parser, token));
+            case "lastModified" -> page.setLastModified(scalarText(parser, token));
+            case "_links" -> page.setWebUrl(readNestedText(parser, token, "webui"));
+            case "space" -> page.setSpaceKey(readNestedText(parser, token, "key"));
+            case "body" -> page.setBody(readBody(parser, token, bodyExtractor));
+            case "version" -> {
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    return;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String versionField = parser.currentName();
+                    JsonToken valueToken = parser.nextToken();
+                    if ("number".equals(versionField) && valueToken == JsonToken.VALUE_NUMBER_INT) {
+                        page.setVersion(parser.getIntValue());
+                    } else if ("when".equals(versionField) && page.getLastModified() == null) {
+                        page.setLastModified(scalarText(parser, valueToken));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            default -> parser.skipChildren();
+        }
+    }
+
+    /**
+     * 读取metadata.labels.results中的标签名
+     */
+    private List<String> readLabels(JsonParser parser, JsonToken token) throws IOException {
+        List<String> labels = new ArrayList<>();
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return labels;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if (!"labels".equals(field) || valueToken != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String labelsField = parser.currentName();
+                JsonToken resultsToken = parser.nextToken();
+                if (!"results".equals(labelsField) || resultsToken != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                JsonToken labelToken;
+                while ((labelToken = parser.nextToken()) != JsonToken.END_ARRAY && labelToken != null) {
+                    String name = readNestedText(parser, labelToken, "name");
+                    if (name != null) {
+                        labels.add(name);
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * 读取正文：body下按expand展开的格式（view、storage等）只会有一个带value的对象。
+     * 正文HTML不转换为字符串，提取函数直接读取解析器缓冲区中的字符，提取完成后缓冲区随下一个值复用，
+     * 批量响应中同一时刻只有一个页面的正文在内存中；不需要正文时字符串值被跳过而不解码
      */
-    public Optional<String> parsePageContent(String jsonResponse) {
-        log.debug("开始解析页面内容JSON，响应长度: {}", jsonResponse.length());
+    private HtmlTextExtractor.Result readBody(JsonParser parser, JsonToken token, BodyExtractor bodyExtractor)
+            throws IOException {
+        if (token != JsonToken.START_OBJECT || bodyExtractor == null) {
+            parser.skipChildren();
+            return null;
+        }
+        HtmlTextExtractor.Result body = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                if (body == null && "value".equals(field) && valueToken == JsonToken.VALUE_STRING) {
+                    TextSegments text = new TextSegments();
+                    parser.getText(text);
+                    body = bodyExtractor.extract(text.reader());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return body;
+    }
+
+    /**
+     * 读取对象中指定字段的文本值，跳过其余字段
+     */
+    private String readNestedText(JsonParser parser, JsonToken token, String name) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if (name.equals(field)) {
+                value = scalarText(parser, valueToken);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 读取标量文本值，对象和数组被跳过并返回null
+     */
+    private String scalarText(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            String text = parser.getValueAsString();
+            return text == null || text.isEmpty() ? null : text;
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * 解析页面版本号
+     */
+    public Optional<Integer> parsePageVersion(String jsonResponse) {
         try {
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-            JsonNode bodyNode = rootNode.path("body");
-            JsonNode viewNode = bodyNode.path("view");
-            JsonNode valueNode = viewNode.path("value");
-
-            if (valueNode.isTextual()) {
-                String content = valueNode.asText();
-                log.debug("解析页面内容成功，内容长度: {}字符", content.length());
-                return Optional.of(content);
+            JsonNode numberNode = objectMapper.readTree(jsonResponse).path("version").path("number");
+            if (numberNode.isNumber()) {
+                return Optional.of(numberNode.asInt());
             }
-            log.debug("页面内容字段不是文本类型或无内容");
-            return Optional.empty();
         } catch (Exception e) {
-            log.warn("解析页面内容失败: {}", e.getMessage());
-            log.debug("解析失败的JSON内容: {}",
-                     jsonResponse.length() > 200 ? jsonResponse.substring(0, 200) + "..." : jsonResponse);
+            log.debug("解析页面版本号失败: {}", e.getMessage());
         }
         return Optional.empty();
     }
 
+    /**
+     * 解析Confluence推送的webhook事件，页面事件的内容在page字段，博客事件在blog字段；
+     * 不是页面或博客事件时返回空
+     */
+    public Optional<WebhookEvent> parseWebhookEvent(byte[] body) throws IOException {
+        JsonNode root = objectMapper.readTree(body);
+        String event = root.path("event").asText(null);
+        JsonNode content = root.has("page") ? root.path("page") : root.path("blog");
+        JsonNode id = content.path("id");
+        if (event == null || !(id.isTextual() || id.isNumber())) {
+            return Optional.empty();
+        }
+        return Optional.of(new WebhookEvent(event, id.asText(), content.path("spaceKey").asText(null)));
+    }
+
+    /**
+     * 正文提取函数，读取正文HTML并返回提取结果
+     */
+    @FunctionalInterface
+    public interface BodyExtractor {
+        HtmlTextExtractor.Result extract(Reader html) throws IOException;
+    }
+
+    /**
+     * 收集解析器写出的字符串值：只保存解析器缓冲区分段的引用而不复制，
+     * 需要在解析器读取下一个值之前读完
+     */
+    private static final class TextSegments extends Writer {
+
+        private final List<CharBuffer> segments = new ArrayList<>();
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            segments.add(CharBuffer.wrap(chars, offset, length));
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            segments.add(CharBuffer.wrap(text, offset, offset + length));
+        }
+
+        @Override
+        public void write(int c) {
+            segments.add(CharBuffer.wrap(new char[]{(char) c}));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        Reader reader() {
+            return new Reader() {
+                private int index;
+
+                @Override
+                public int read(char[] buffer, int offset, int length) {
+                    while (index < segments.size() && !segments.get(index).hasRemaining()) {
+                        index++;
+                    }
+                    if (index >= segments.size()) {
+                        return -1;
+                    }
+                    CharBuffer segment = segments.get(index);
+                    int count = Math.min(length, segment.remaining());
+                    segment.get(buffer, offset, count);
+                    return count;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+
+    /**
+     * Confluence webhook事件
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WebhookEvent {
+
+        /**
+         * 事件名，如page_updated、page_removed、blogpost_created
+         */
+        private String event;
+        private String pageId;
+        private String spaceKey;
+    }
+
     /**
      * Confluence页面数据类
      */
@@ -83,8 +386,22 @@ public class JsonParserUtil {
     @NoArgsConstructor
     public static class ConfluencePage {
         private String id;
+        private String type;
         private String title;
         private String webUrl;
         private String spaceKey;
+        private Integer version;
+        private String lastModified;
+        private String excerpt;
+
+        /**
+         * 通过expand展开并在解析时提取的正文，未展开或未指定提取函数时为null
+         */
+        private HtmlTextExtractor.Result body;
+
+        /**
+         * 通过expand=metadata.labels展开的标签，未展开时为null
+         */
+        private List<String> labels;
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.confluence.mcp.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 并发获取工具类
+ * <p>
+ * 按调用方指定的在途上限组合异步获取任务的Future，前一个任务完成后再启动下一个；
+ * 结果顺序与输入一致，截止时间到达时未完成的任务以超时结果返回。
+ */
+@Slf4j
+@Component
+public class ParallelFetchUtil {
+
+    /**
+     * 组合异步获取任务，返回与keys顺序一致的结果列表。
+     * 获取函数返回的Future由非阻塞客户端完成时，等待响应不占用线程，只有调用方等待截止时间
+     *
+     * @param keys        待获取的键
+     * @param fetcher     异步获取函数
+     * @param maxInFlight 本次调用同时在途的任务数上限
+     * @param deadline    本次调用的截止时间
+     */
+    public <K, V> List<FetchResult<V>> fetchAllAsync(List<K> keys, Function<K, CompletableFuture<V>> fetcher,
+                                                     int maxInFlight, Duration deadline) {
+        int size = keys.size();
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+        List<CompletableFuture<V>> futures = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            futures.add(new CompletableFuture<>());
+        }
+
+        AtomicBoolean expired = new AtomicBoolean(false);
+        AtomicInteger nextIndex = new AtomicInteger();
+        int workers = Math.max(1, Math.min(maxInFlight, size));
+        for (int i = 0; i < workers; i++) {
+            startNext(keys, fetcher, futures, nextIndex, expired);
+        }
+
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("并发获取超过截止时间{}ms，返回部分结果", deadline.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 单个任务的失败在下面逐个处理
+        } finally {
+            expired.set(true);
+        }
+
+        List<FetchResult<V>> results = new ArrayList<>(size);
+        for (CompletableFuture<V> future : futures) {
+            if (!future.isDone()) {
+                results.add(FetchResult.timedOut());
+                continue;
+            }
+            try {
+                results.add(FetchResult.success(future.getNow(null)));
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(FetchResult.failed(cause));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 取出下一个待获取的键并启动获取，完成后继续领取，直到全部领取完或已超时
+     */
+    private <K, V> void startNext(List<K> keys, Function<K, CompletableFuture<V>> fetcher,
+                                  List<CompletableFuture<V>> futures, AtomicInteger nextIndex, AtomicBoolean expired) {
+        if (expired.get()) {
+            return;
+        }
+        int index = nextIndex.getAndIncrement();
+        if (index >= keys.size()) {
+            return;
+        }
+        CompletableFuture<V> future = futures.get(index);
+        CompletableFuture<V> started;
+        try {
+            started = fetcher.apply(keys.get(index));
+        } catch (Throwable t) {
+            started = CompletableFuture.failedFuture(t);
+        }
+        started.whenComplete((value, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+            startNext(keys, fetcher, futures, nextIndex, expired);
+        });
+    }
+
+    /**
+     * 单个获取任务的结果
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class FetchResult<V> {
+
+        public enum Status {
+            SUCCESS, FAILED, TIMED_OUT
+        }
+
+        private final Status status;
+        private final V value;
+        private final Throwable error;
+
+        public static <V> FetchResult<V> success(V value) {
+            return new FetchResult<>(Status.SUCCESS, value, null);
+        }
+
+        public static <V> FetchResult<V> failed(Throwable error) {
+            return new FetchResult<>(Status.FAILED, null, error);
+        }
+
+        public static <V> FetchResult<V> timedOut() {
+            return new FetchResult<>(Status.TIMED_OUT, null, null);
+        }
+
+        public boolean isSuccess() {
+            return status == Status.SUCCESS;
+        }
+
+        public boolean isTimedOut() {
+            return status == Status.TIMED_OUT;
+        }
+    }
+}
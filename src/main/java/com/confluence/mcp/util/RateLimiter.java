@@ -0,0 +1,85 @@
+package com.confluence.mcp.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 令牌桶限流器
+ * <p>
+ * 令牌按固定速率补充，最多积攒burst个；令牌不足时预约后续令牌并在锁外等待，
+ * 多个调用方共享同一个限流器时整体请求速率不超过设定值。速率不大于0时不限流。
+ * 服务端要求等待（如返回Retry-After）时可以暂停限流器，暂停期间所有调用方都需要等待。
+ * 每个请求都要经过限流器，使用ReentrantLock而不是synchronized，虚拟线程竞争锁时不会钉住载体线程。
+ */
+public class RateLimiter {
+
+    private final double permitsPerSecond;
+    private final double maxPermits;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double storedPermits;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    public RateLimiter(double permitsPerSecond, double burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, double burst, LongSupplier nanoClock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = Math.max(1.0, burst);
+        this.nanoClock = nanoClock;
+        this.storedPermits = maxPermits;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * 获取一个令牌，令牌不足时阻塞等待
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 预约一个令牌，返回需要等待的纳秒数
+     */
+    long reserve() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            long pauseNanos = Math.max(0, pausedUntilNanos - now);
+            if (permitsPerSecond <= 0) {
+                return pauseNanos;
+            }
+            storedPermits = Math.min(maxPermits,
+                    storedPermits + (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = now;
+            storedPermits -= 1;
+            return pauseNanos + (storedPermits >= 0 ? 0
+                    : (long) (-storedPermits / permitsPerSecond * TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 暂停发放令牌，从现在起duration内获取令牌的调用方都要等到暂停结束
+     */
+    public void pause(long duration, TimeUnit unit) {
+        lock.lock();
+        try {
+            long until = nanoClock.getAsLong() + unit.toNanos(duration);
+            if (until - pausedUntilNanos > 0) {
+                pausedUntilNanos = until;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
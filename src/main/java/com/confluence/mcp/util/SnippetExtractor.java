@@ -0,0 +1,296 @@
+package com.confluence.mcp.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按搜索关键字从正文中选取相关片段
+ * <p>
+ * 正文按句子切分，以命中关键字的句子开头、由相邻句子组成且不超过片段长度的窗口作为候选片段，
+ * 用BM25对每个候选片段打分（逆文档频率在同一页面的句子间计算）。按得分从高到低选取互不重叠的片段，
+ * 直到达到片段数或总字符数上限，再按在正文中的顺序输出。
+ * 关键字中的英文和数字按单词切分并转为小写，中日韩文字没有分词，按相邻两字切分，单字关键字按单字匹配；
+ * 正文不切分，直接查找各关键字的出现位置。
+ * 正文中没有任何关键字时退化为截取正文开头。
+ */
+@Component
+public class SnippetExtractor {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * 片段之间的分隔符
+     */
+    private static final String SEPARATOR = " ... ";
+
+    /**
+     * 选取与关键字最相关的片段
+     *
+     * @param text          页面正文
+     * @param keyword       搜索关键字
+     * @param maxPassages   最多选取的片段数
+     * @param maxChars      所有片段的总字符数上限
+     * @param passageLength 单个片段的最大字符数
+     * @return 以省略号连接的片段，正文为null时返回null
+     */
+    public String extract(String text, String keyword, int maxPassages, int maxChars, int passageLength) {
+        if (text == null) {
+            return null;
+        }
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(keyword));
+        if (queryTerms.isEmpty()) {
+            return prefix(text, maxChars);
+        }
+
+        // 每个句子只统计一次词频，逆文档频率按句子计算
+        List<int[]> sentences = sentences(text, passageLength);
+        List<Map<String, Integer>> sentenceFrequencies = termFrequencies(text, sentences, queryTerms);
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (Map<String, Integer> frequency : sentenceFrequencies) {
+            frequency.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+        }
+        if (documentFrequency.isEmpty()) {
+            return prefix(text, maxChars);
+        }
+        Map<String, Double> idf = new HashMap<>();
+        int n = sentences.size();
+        documentFrequency.forEach((term, df) -> idf.put(term, Math.log(1 + (n - df + 0.5) / (df + 0.5))));
+
+        List<Passage> candidates = candidates(sentences, sentenceFrequencies, passageLength);
+        double averageLength = candidates.stream().mapToInt(passage -> passage.end - passage.start).average()
+                .orElse(1);
+        for (Passage passage : candidates) {
+            double score = 0;
+            int length = passage.end - passage.start;
+            for (Map.Entry<String, Integer> entry : passage.termFrequency.entrySet()) {
+                double tf = entry.getValue();
+                score += idf.get(entry.getKey()) * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+            }
+            // 覆盖的不同关键字越多越好，避免同一个词反复出现的片段排在最前
+            passage.score = score * passage.termFrequency.size();
+        }
+
+        List<Passage> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator.comparingDouble((Passage passage) -> passage.score).reversed()
+                .thenComparingInt(passage -> passage.start));
+        List<Passage> selected = new ArrayList<>();
+        int used = 0;
+        for (Passage passage : ranked) {
+            if (passage.score <= 0 || selected.size() >= maxPassages) {
+                break;
+            }
+            int length = passage.end - passage.start;
+            if (used + length > maxChars || selected.stream().anyMatch(passage::overlaps)) {
+                continue;
+            }
+            selected.add(passage);
+            used += length + SEPARATOR.length();
+        }
+        if (selected.isEmpty()) {
+            return prefix(text, maxChars);
+        }
+
+        selected.sort(Comparator.comparingInt(passage -> passage.start));
+        StringBuilder result = new StringBuilder(used);
+        if (selected.get(0).start > 0) {
+            result.append("...");
+        }
+        for (int i = 0; i < selected.size(); i++) {
+            if (i > 0) {
+                result.append(SEPARATOR);
+            }
+            result.append(text, selected.get(i).start, selected.get(i).end);
+        }
+        if (selected.get(selected.size() - 1).end < text.length()) {
+            result.append("...");
+        }
+        return result.toString();
+    }
+
+    /**
+     * 由相邻句子组成的全部候选片段：以每个命中关键字的句子开头、总长度不超过片段长度的所有窗口。
+     * 同一位置上只多出不相关句子的较长窗口会因长度归一化得分更低，因此选出的片段尽量紧凑
+     */
+    private List<Passage> candidates(List<int[]> sentences, List<Map<String, Integer>> frequencies,
+                                     int passageLength) {
+        List<Passage> passages = new ArrayList<>();
+        for (int i = 0; i < sentences.size(); i++) {
+            if (frequencies.get(i).isEmpty()) {
+                continue;
+            }
+            int start = sentences.get(i)[0];
+            Map<String, Integer> termFrequency = new HashMap<>();
+            for (int j = i; j < sentences.size() && sentences.get(j)[1] - start <= passageLength; j++) {
+                frequencies.get(j).forEach((term, count) -> termFrequency.merge(term, count, Integer::sum));
+                if (!frequencies.get(j).isEmpty()) {
+                    passages.add(new Passage(start, sentences.get(j)[1], new HashMap<>(termFrequency)));
+                }
+            }
+        }
+        return passages;
+    }
+
+    /**
+     * 按句末标点切分句子，返回去除首尾空白后的[起始, 结束)位置
+     */
+    private List<int[]> sentences(String text, int passageLength) {
+        List<int[]> sentences = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean boundary = c == '。' || c == '！' || c == '？' || c == '；' || c == '\n'
+                    || ((c == '.' || c == '!' || c == '?' || c == ';')
+                    && (i + 1 == text.length() || Character.isWhitespace(text.charAt(i + 1))));
+            if (boundary || i - start + 1 >= passageLength) {
+                addSentence(text, start, i + 1, sentences);
+                start = i + 1;
+            }
+        }
+        addSentence(text, start, text.length(), sentences);
+        return sentences;
+    }
+
+    private void addSentence(String text, int start, int end, List<int[]> sentences) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end > start) {
+            sentences.add(new int[]{start, end});
+        }
+    }
+
+    /**
+     * 统计每个句子中各关键字的出现次数：在转为小写的正文中直接查找每个关键字，不切分正文，
+     * 英文和数字关键字要求前后不是字母或数字，与 {@link #tokenize} 的切分结果一致
+     */
+    private List<Map<String, Integer>> termFrequencies(String text, List<int[]> sentences, Set<String> queryTerms) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(text.charAt(i));
+        }
+        String lower = new String(chars);
+        int[] sentenceStarts = new int[sentences.size()];
+        List<Map<String, Integer>> frequencies = new ArrayList<>(sentences.size());
+        for (int i = 0; i < sentences.size(); i++) {
+            sentenceStarts[i] = sentences.get(i)[0];
+            frequencies.add(new HashMap<>());
+        }
+        for (String term : queryTerms) {
+            boolean word = !isCjk(term.charAt(0));
+            for (int at = lower.indexOf(term); at >= 0; at = lower.indexOf(term, at + 1)) {
+                if (word && (isWordChar(lower, at - 1) || isWordChar(lower, at + term.length()))) {
+                    continue;
+                }
+                int sentence = Arrays.binarySearch(sentenceStarts, at);
+                sentence = sentence >= 0 ? sentence : -sentence - 2;
+                if (sentence >= 0) {
+                    frequencies.get(sentence).merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        return frequencies;
+    }
+
+    private static boolean isWordChar(String text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return false;
+        }
+        char c = text.charAt(index);
+        return Character.isLetterOrDigit(c) && !isCjk(c);
+    }
+
+    /**
+     * 切分词项：英文和数字按单词切分并转为小写，连续的中日韩文字按相邻两字切分，单独的一个字保留为单字
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        StringBuilder word = new StringBuilder();
+        int cjkStart = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (isCjk(c)) {
+                flushWord(word, terms);
+                if (cjkStart < 0) {
+                    cjkStart = i;
+                }
+                continue;
+            }
+            if (cjkStart >= 0) {
+                addCjkTerms(text, cjkStart, i, terms);
+                cjkStart = -1;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else {
+                flushWord(word, terms);
+            }
+        }
+        return terms;
+    }
+
+    private static void addCjkTerms(String text, int start, int end, List<String> terms) {
+        if (end - start == 1) {
+            terms.add(text.substring(start, end));
+            return;
+        }
+        for (int i = start; i + 1 < end; i++) {
+            terms.add(text.substring(i, i + 2));
+        }
+    }
+
+    private static void flushWord(StringBuilder word, List<String> terms) {
+        if (!word.isEmpty()) {
+            terms.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static String prefix(String text, int maxChars) {
+        return text.length() > maxChars ? text.substring(0, maxChars) + "..." : text;
+    }
+
+    /**
+     * 候选片段
+     */
+    private static final class Passage {
+
+        final int start;
+        final int end;
+        final Map<String, Integer> termFrequency;
+        double score;
+
+        Passage(int start, int end, Map<String, Integer> termFrequency) {
+            this.start = start;
+            this.end = end;
+            this.termFrequency = termFrequency;
+        }
+
+        boolean overlaps(Passage other) {
+            return start < other.end && other.start < end;
+        }
+    }
+}
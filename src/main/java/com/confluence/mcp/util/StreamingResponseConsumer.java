@@ -0,0 +1,221 @@
+package com.confluence.mcp.util;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ConnectionClosedException;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 异步请求的流式响应消费者
+ * <p>
+ * I/O线程收到的响应体写入固定大小的共享缓冲区，由处理函数在执行器线程上以输入流读取；
+ * 缓冲区写满时暂停从连接读取，单个响应占用的内存不超过缓冲区大小，不会像SimpleHttpResponse那样缓存整个响应体。
+ * 处理函数结束后最多继续读取少量剩余内容以便复用连接，剩余内容较多时在交付结果之后中止连接。
+ */
+final class StreamingResponseConsumer<T> implements AsyncResponseConsumer<T> {
+
+    private final int bufferSize;
+    private final long maxDrainBytes;
+    private final Executor executor;
+    private final Runnable responseListener;
+    private final ResponseHandler<T> handler;
+
+    private volatile BodyConsumer body;
+    private volatile CapacityChannel capacityChannel;
+    private volatile boolean abandoned;
+
+    /**
+     * @param bufferSize    响应体缓冲区大小（字节）
+     * @param maxDrainBytes 处理函数提前结束时，为复用连接最多继续读取的剩余字节数
+     * @param executor         执行处理函数的线程池
+     * @param responseListener 收到响应头时在I/O线程上调用，须立即返回
+     * @param handler          响应处理函数
+     */
+    StreamingResponseConsumer(int bufferSize, long maxDrainBytes, Executor executor, Runnable responseListener,
+                              ResponseHandler<T> handler) {
+        this.bufferSize = bufferSize;
+        this.maxDrainBytes = maxDrainBytes;
+        this.executor = executor;
+        this.responseListener = responseListener;
+        this.handler = handler;
+    }
+
+    @Override
+    public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context,
+                                FutureCallback<T> resultCallback) throws HttpException, IOException {
+        responseListener.run();
+        if (entityDetails == null) {
+            executor.execute(() -> {
+                try {
+                    resultCallback.completed(handle(response, InputStream.nullInputStream()));
+                } catch (Exception e) {
+                    resultCallback.failed(e);
+                }
+            });
+            return;
+        }
+        BodyConsumer consumer = new BodyConsumer(response);
+        body = consumer;
+        consumer.streamStart(entityDetails, new FutureCallback<>() {
+            @Override
+            public void completed(T result) {
+                resultCallback.completed(result);
+                abortIfAbandoned();
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                resultCallback.failed(ex);
+                abortIfAbandoned();
+            }
+
+            @Override
+            public void cancelled() {
+                resultCallback.cancelled();
+                abortIfAbandoned();
+            }
+        });
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        this.capacityChannel = capacityChannel;
+        BodyConsumer consumer = body;
+        if (consumer != null) {
+            consumer.updateCapacity(capacityChannel);
+        }
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+        if (abandoned) {
+            // 抛出异常使客户端关闭连接，剩余的响应体不再读取；客户端不会自动重试连接关闭异常
+            throw new ConnectionClosedException("响应体未读完，中止连接");
+        }
+        body.consume(src);
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+        body.streamEnd(trailers);
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        BodyConsumer consumer = body;
+        if (consumer != null) {
+            consumer.failed(cause);
+        }
+    }
+
+    @Override
+    public void releaseResources() {
+        BodyConsumer consumer = body;
+        if (consumer != null) {
+            consumer.releaseResources();
+        }
+    }
+
+    private T handle(HttpResponse response, InputStream content) throws IOException {
+        try {
+            return handler.handle(response, content);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 读完少量剩余响应体以便复用连接；剩余内容超过上限时放弃读取，由 {@link #abortIfAbandoned} 在交付结果后中止连接
+     */
+    private void drainOrAbandon(InputStream content) throws IOException {
+        byte[] buffer = new byte[8192];
+        long drained = 0;
+        int n;
+        while ((n = content.read(buffer)) >= 0) {
+            drained += n;
+            if (drained > maxDrainBytes) {
+                abandoned = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 放弃读取时恢复连接的读取，使下一段数据触发中止。必须在交付结果之后执行，
+     * 否则连接中止的异常可能先于结果到达，被当作请求失败而重试
+     */
+    private void abortIfAbandoned() {
+        CapacityChannel channel = capacityChannel;
+        if (abandoned && channel != null) {
+            try {
+                channel.update(Integer.MAX_VALUE);
+            } catch (IOException e) {
+                // 连接已关闭
+            }
+        }
+    }
+
+    /**
+     * 在执行器线程上把缓冲区中的响应体交给处理函数读取
+     */
+    private final class BodyConsumer extends AbstractClassicEntityConsumer<T> {
+
+        private final HttpResponse response;
+
+        BodyConsumer(HttpResponse response) {
+            super(bufferSize, executor);
+            this.response = response;
+        }
+
+        @Override
+        protected T consumeData(ContentType contentType, InputStream content) throws IOException {
+            T result;
+            try {
+                result = handle(response, content);
+            } catch (IOException | RuntimeException e) {
+                // 错误响应（如404）的响应体同样读完，连接可以复用
+                try {
+                    drainOrAbandon(content);
+                } catch (IOException drainError) {
+                    e.addSuppressed(drainError);
+                }
+                throw e;
+            }
+            drainOrAbandon(content);
+            return result;
+        }
+    }
+
+    /**
+     * 响应处理函数，在执行器线程上执行
+     */
+    @FunctionalInterface
+    interface ResponseHandler<T> {
+
+        /**
+         * @param response 响应状态和头
+         * @param content  未解码的响应体，没有响应体时为空流
+         */
+        T handle(HttpResponse response, InputStream content) throws Exception;
+    }
+}
@@ -0,0 +1,285 @@
+package com.confluence.mcp.webhook;
+
+import com.confluence.mcp.cache.PageContentCache;
+import com.confluence.mcp.cache.PageOutlineCache;
+import com.confluence.mcp.cache.SearchResultCache;
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.util.JsonParserUtil.WebhookEvent;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 根据Confluence推送的页面变更事件使缓存失效
+ * <p>
+ * 事件先按页面ID合并：页面在 debounce 时间内没有新事件、或距第一个事件已超过 max-delay 时才处理，
+ * 批量编辑产生的大量事件因此合并为少数几次处理。处理时使页面缓存、持久化存储、分段读取缓存
+ * 以及结果中包含这些页面的搜索失效；新建页面可能出现在任何搜索中，因此使全部搜索结果失效。
+ * 开启 refresh 时，更新和新建的页面随后合并为批量请求重新获取，删除的页面只失效不获取。
+ */
+@Slf4j
+@Service
+public class WebhookInvalidationService implements AutoCloseable {
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+
+    private final ConfluenceConfig.Webhook webhookConfig;
+    private final PageContentCache pageContentCache;
+    private final PageOutlineCache pageOutlineCache;
+    private final SearchResultCache searchResultCache;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, PendingChange> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final LongAdder receivedCount = new LongAdder();
+    private final LongAdder ignoredCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder invalidatedCount = new LongAdder();
+    private final LongAdder refreshedCount = new LongAdder();
+
+    @Autowired
+    public WebhookInvalidationService(ConfluenceConfig config, PageContentCache pageContentCache,
+                                      PageOutlineCache pageOutlineCache, SearchResultCache searchResultCache) {
+        this(config, pageContentCache, pageOutlineCache, searchResultCache, System::currentTimeMillis);
+    }
+
+    WebhookInvalidationService(ConfluenceConfig config, PageContentCache pageContentCache,
+                               PageOutlineCache pageOutlineCache, SearchResultCache searchResultCache,
+                               LongSupplier clock) {
+        this.webhookConfig = config.getWebhook();
+        this.pageContentCache = pageContentCache;
+        this.pageOutlineCache = pageOutlineCache;
+        this.searchResultCache = searchResultCache;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(webhookConfig.getEnabled());
+    }
+
+    /**
+     * 校验请求来自Confluence：优先校验X-Hub-Signature（请求体的HMAC-SHA256签名），
+     * 没有签名时比对X-Webhook-Token请求头；未配置密钥时拒绝所有请求
+     *
+     * @param signature X-Hub-Signature请求头，形如 sha256=十六进制签名
+     * @param token     X-Webhook-Token请求头
+     */
+    public boolean isAuthorized(byte[] body, String signature, String token) {
+        String secret = webhookConfig.getSecret();
+        boolean authorized;
+        if (secret == null || secret.isEmpty()) {
+            authorized = false;
+        } else if (signature != null) {
+            String expected = SIGNATURE_PREFIX + HexFormat.of().formatHex(hmac(secret, body));
+            authorized = MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                    signature.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        } else {
+            authorized = token != null && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                    token.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!authorized) {
+            rejectedCount.increment();
+        }
+        return authorized;
+    }
+
+    /**
+     * 接收事件，合并到待处理的页面中
+     *
+     * @return 是否为需要处理的页面事件，其他事件被忽略
+     */
+    public boolean submit(WebhookEvent event) {
+        receivedCount.increment();
+        ChangeType type = ChangeType.of(event.getEvent());
+        if (type == null) {
+            ignoredCount.increment();
+            log.debug("忽略webhook事件: {}", event.getEvent());
+            return false;
+        }
+        long now = clock.getAsLong();
+        PendingChange previous = pending.get(event.getPageId());
+        pending.merge(event.getPageId(), new PendingChange(type, now, now), PendingChange::merge);
+        if (previous != null) {
+            coalescedCount.increment();
+        }
+        log.debug("收到页面变更事件: 事件={}, 页面ID={}, 空间={}", event.getEvent(), event.getPageId(), event.getSpaceKey());
+        scheduleFlush();
+        return true;
+    }
+
+    /**
+     * 处理已到期的页面，未到期的页面留待下次处理
+     */
+    void flush() {
+        flushScheduled.set(false);
+        long now = clock.getAsLong();
+        List<String> removed = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        boolean created = false;
+        for (Map.Entry<String, PendingChange> entry : pending.entrySet()) {
+            PendingChange change = entry.getValue();
+            boolean due = now - change.getLastSeen() >= webhookConfig.getDebounce()
+                    || now - change.getFirstSeen() >= webhookConfig.getMaxDelay();
+            // 处理期间又收到新事件的页面保留在待处理中
+            if (!due || !pending.remove(entry.getKey(), change)) {
+                continue;
+            }
+            if (change.getType() == ChangeType.REMOVED) {
+                removed.add(entry.getKey());
+            } else {
+                changed.add(entry.getKey());
+                created |= change.getType() == ChangeType.CREATED;
+            }
+        }
+        if (!pending.isEmpty()) {
+            scheduleFlush();
+        }
+        if (removed.isEmpty() && changed.isEmpty()) {
+            return;
+        }
+
+        List<String> pageIds = new ArrayList<>(removed);
+        pageIds.addAll(changed);
+        pageContentCache.invalidateAll(pageIds);
+        pageOutlineCache.invalidateAll(pageIds);
+        if (created) {
+            searchResultCache.invalidateAll();
+        } else {
+            searchResultCache.invalidatePages(pageIds);
+        }
+        invalidatedCount.add(pageIds.size());
+        log.info("webhook页面缓存失效: 更新{}个, 删除{}个, 包含新建页面={}", changed.size(), removed.size(), created);
+
+        if (Boolean.TRUE.equals(webhookConfig.getRefresh()) && !changed.isEmpty()) {
+            pageContentCache.getAllAsync(changed).whenComplete((pages, error) -> {
+                if (error != null) {
+                    log.warn("webhook页面重新获取失败: 页面数={}, 错误={}", changed.size(), error.getMessage());
+                } else {
+                    refreshedCount.add(pages.size());
+                    log.debug("webhook页面重新获取完成: 请求{}个, 返回{}个", changed.size(), pages.size());
+                }
+            });
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flushSafely, webhookConfig.getDebounce(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("处理webhook页面变更失败", e);
+        }
+    }
+
+    /**
+     * 待处理页面数
+     */
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * webhook事件统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("receivedCount", receivedCount.sum());
+        result.put("ignoredCount", ignoredCount.sum());
+        result.put("rejectedCount", rejectedCount.sum());
+        result.put("coalescedCount", coalescedCount.sum());
+        result.put("pendingPages", pending.size());
+        result.put("invalidatedPages", invalidatedCount.sum());
+        result.put("refreshedPages", refreshedCount.sum());
+        return result;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private static byte[] hmac(String secret, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法计算webhook签名", e);
+        }
+    }
+
+    /**
+     * 页面变更类型
+     */
+    enum ChangeType {
+        CREATED, UPDATED, REMOVED;
+
+        /**
+         * 由事件名得到变更类型，不是页面或博客的变更事件时返回null
+         */
+        static ChangeType of(String event) {
+            if (event == null || !(event.startsWith("page_") || event.startsWith("blogpost_"))) {
+                return null;
+            }
+            String action = event.substring(event.indexOf('_') + 1);
+            return switch (action) {
+                case "created", "restored" -> CREATED;
+                case "updated", "moved", "children_reordered" -> UPDATED;
+                case "removed", "trashed" -> REMOVED;
+                default -> null;
+            };
+        }
+    }
+
+    /**
+     * 待处理的页面变更
+     */
+    @Value
+    static class PendingChange {
+        ChangeType type;
+        long firstSeen;
+        long lastSeen;
+
+        /**
+         * 合并同一页面的事件：以较新的事件为准，但新建后的更新仍按新建处理
+         */
+        PendingChange merge(PendingChange newer) {
+            ChangeType merged = type == ChangeType.CREATED && newer.type == ChangeType.UPDATED ? type : newer.type;
+            return new PendingChange(merged, firstSeen, newer.lastSeen);
+        }
+    }
+}
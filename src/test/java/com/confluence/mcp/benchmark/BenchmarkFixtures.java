@@ -0,0 +1,137 @@
+package com.confluence.mcp.benchmark;
+
+import com.confluence.mcp.util.JsonParserUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试夹具，基于 src/test/resources/benchmark 下脱敏后的Confluence真实响应组装
+ * <p>
+ * page-section.html 为一段录制的 body.view 正文（信息宏、Jira宏、表格、代码宏、展开宏、附件图片），
+ * 按页面规模重复拼接：small为1段（约6KB），medium为10段（约60KB），huge为200段（约1.2MB）。
+ * page-view.html 为带完整界面的 viewpage.action 页面，content.json 和 content-search.json
+ * 分别为 /rest/api/content/{id} 和 /rest/api/content/search 的响应。
+ * 压测用的Confluence桩服务也使用这些夹具生成响应。
+ */
+public final class BenchmarkFixtures {
+
+    private static final String RESOURCE_DIR = "/benchmark/";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String PAGE_SECTION = resource("page-section.html");
+    private static final String PAGE_VIEW = resource("page-view.html");
+    private static final String CONTENT = resource("content.json");
+    private static final String CONTENT_SEARCH = resource("content-search.json");
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 页面正文（body.view）
+     *
+     * @param size small、medium或huge
+     */
+    static String pageBody(String size) {
+        return pageBody(switch (size) {
+            case "small" -> 1;
+            case "medium" -> 10;
+            case "huge" -> 200;
+            default -> throw new IllegalArgumentException("未知的页面规模: " + size);
+        });
+    }
+
+    /**
+     * 由指定段数组成的页面正文（body.view）
+     */
+    public static String pageBody(int sections) {
+        StringBuilder body = new StringBuilder(PAGE_SECTION.length() * sections);
+        for (int i = 1; i <= sections; i++) {
+            body.append(PAGE_SECTION.replace("{{N}}", String.valueOf(i)));
+        }
+        return body.toString();
+    }
+
+    /**
+     * 以指定正文为主内容、带完整界面（页头、侧边栏、评论、页脚、脚本）的 viewpage.action 页面
+     */
+    public static String viewPage(String body) {
+        return PAGE_VIEW.replace("{{MAIN_CONTENT}}", body);
+    }
+
+    /**
+     * /rest/api/content/{id}?expand=body.view,version,space 的响应
+     */
+    static String contentResponse(String size) {
+        return content(contentTemplate(pageBody(size)), 10000001, 1);
+    }
+
+    /**
+     * /rest/api/content/search?cql=id in (...) 的响应，每个结果带一段正文
+     */
+    static String contentSearchResponse(int resultCount) {
+        StringBuilder results = new StringBuilder(resultCount * (CONTENT.length() + PAGE_SECTION.length() * 11 / 10));
+        for (int i = 0; i < resultCount; i++) {
+            if (i > 0) {
+                results.append(',');
+            }
+            String section = PAGE_SECTION.replace("{{N}}", String.valueOf(i + 1));
+            results.append(content(contentTemplate(section), 10000001 + i, i + 1));
+        }
+        return contentSearch(results, resultCount);
+    }
+
+    /**
+     * 带指定正文的页面响应模板，页面ID和序号仍为占位符，由 {@link #content} 填充；
+     * 正文只需转义一次，适合为同样规模的多个页面重复生成响应
+     */
+    public static String contentTemplate(String body) {
+        try {
+            return CONTENT.replace("{{BODY}}", OBJECT_MAPPER.writeValueAsString(body)).strip();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 用页面ID和序号填充页面响应模板
+     */
+    public static String content(String template, long id, int index) {
+        return template
+                .replace("{{ID}}", String.valueOf(id))
+                .replace("{{N}}", String.valueOf(index));
+    }
+
+    /**
+     * 将逗号分隔的页面响应包装为 /rest/api/content/search 的响应
+     */
+    public static String contentSearch(CharSequence results, int size) {
+        return CONTENT_SEARCH
+                .replace("{{SIZE}}", String.valueOf(size))
+                .replace("{{RESULTS}}", results);
+    }
+
+    /**
+     * 基准测试只关注解析本身，关闭解析器每次调用的日志输出
+     */
+    static void quietParserLogs() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(JsonParserUtil.class))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+    }
+
+    private static String resource(String name) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream(RESOURCE_DIR + name)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少基准测试夹具: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
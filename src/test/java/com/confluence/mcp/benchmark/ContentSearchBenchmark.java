@@ -0,0 +1,72 @@
+package com.confluence.mcp.benchmark;
+
+import com.confluence.mcp.service.ConfluencePageService;
+import com.confluence.mcp.util.HtmlTextExtractor;
+import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.JsonParserUtil.ConfluencePage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带正文的批量搜索响应解析基准测试：批量获取页面和索引同步使用的
+ * /rest/api/content/search 响应，每个结果都带 body.view 正文
+ * <p>
+ * 运行方式见 {@code pom.xml} 中的 benchmark profile：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.include=ContentSearchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentSearchBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int resultCount;
+
+    private final JsonParserUtil jsonParserUtil = new JsonParserUtil();
+    private final HtmlTextExtractor extractor = new HtmlTextExtractor();
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.quietParserLogs();
+        payload = BenchmarkFixtures.contentSearchResponse(resultCount).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 只解析搜索结果，不提取正文
+     */
+    @Benchmark
+    public List<ConfluencePage> parseSearchResults() throws Exception {
+        return jsonParserUtil.parseSearchResults(new ByteArrayInputStream(payload));
+    }
+
+    /**
+     * 批量获取页面的完整路径：流式解析搜索结果的同时逐个提取正文
+     */
+    @Benchmark
+    public List<ConfluencePage> parseSearchResultsWithContent() throws Exception {
+        return jsonParserUtil.parseSearchResults(new ByteArrayInputStream(payload),
+                html -> extractor.extractFragment(html, ConfluencePageService.MAX_CONTENT_LENGTH));
+    }
+}
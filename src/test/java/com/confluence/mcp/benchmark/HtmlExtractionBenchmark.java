@@ -0,0 +1,83 @@
+package com.confluence.mcp.benchmark;
+
+import com.confluence.mcp.service.ConfluencePageService;
+import com.confluence.mcp.util.HtmlTextExtractor;
+import com.confluence.mcp.util.SnippetExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTML正文提取基准测试：读取页面时的正文提取、索引同步时的全文提取，
+ * 以及深度搜索时从已提取正文中选取相关片段
+ * <p>
+ * 运行方式见 {@code pom.xml} 中的 benchmark profile：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.include=HtmlExtractionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlExtractionBenchmark {
+
+    /**
+     * 与索引同步默认的 confluence.index.max-content-length 一致
+     */
+    private static final int INDEX_MAX_CONTENT_LENGTH = 100_000;
+
+    @Param({"small", "medium", "huge"})
+    public String page;
+
+    private final HtmlTextExtractor extractor = new HtmlTextExtractor();
+    private final SnippetExtractor snippetExtractor = new SnippetExtractor();
+
+    private String body;
+    private String contentText;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        body = BenchmarkFixtures.pageBody(page);
+        contentText = extractContentSummary().getText();
+    }
+
+    /**
+     * 读取页面时从 body.view 提取有长度上限的正文
+     */
+    @Benchmark
+    public HtmlTextExtractor.Result extractContentSummary() throws IOException {
+        return extractor.extractFragment(new StringReader(body), ConfluencePageService.MAX_CONTENT_LENGTH);
+    }
+
+    /**
+     * 索引同步时从 body.view 提取写入索引的全文
+     */
+    @Benchmark
+    public HtmlTextExtractor.Result extractIndexText() throws IOException {
+        return extractor.extractFragment(new StringReader(body), INDEX_MAX_CONTENT_LENGTH);
+    }
+
+    /**
+     * 深度搜索时从页面缓存的正文中选取与关键字相关的片段，参数与默认的 confluence.snippet 一致
+     */
+    @Benchmark
+    public String selectSnippet() {
+        return snippetExtractor.extract(contentText, "灰度 回滚", 3, 500, 200);
+    }
+}
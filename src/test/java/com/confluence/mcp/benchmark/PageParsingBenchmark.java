@@ -0,0 +1,71 @@
+package com.confluence.mcp.benchmark;
+
+import com.confluence.mcp.service.ConfluencePageService;
+import com.confluence.mcp.util.HtmlTextExtractor;
+import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.JsonParserUtil.ConfluencePage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单页面响应解析基准测试：/rest/api/content/{id} 响应的JSON解析以及解析后的正文提取
+ * <p>
+ * 运行方式见 {@code pom.xml} 中的 benchmark profile：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.include=PageParsingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageParsingBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public String page;
+
+    private final JsonParserUtil jsonParserUtil = new JsonParserUtil();
+    private final HtmlTextExtractor extractor = new HtmlTextExtractor();
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.quietParserLogs();
+        payload = BenchmarkFixtures.contentResponse(page).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从响应体输入流流式解析页面，跳过正文
+     */
+    @Benchmark
+    public Optional<ConfluencePage> parseContent() throws Exception {
+        return jsonParserUtil.parseContent(new ByteArrayInputStream(payload), null);
+    }
+
+    /**
+     * 读取页面的完整路径：流式解析的同时提取正文
+     */
+    @Benchmark
+    public Optional<ConfluencePage> parseContentAndExtract() throws Exception {
+        return jsonParserUtil.parseContent(new ByteArrayInputStream(payload),
+                html -> extractor.extractFragment(html, ConfluencePageService.MAX_CONTENT_LENGTH));
+    }
+}
@@ -0,0 +1,111 @@
+package com.confluence.mcp.benchmark;
+
+import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.JsonParserUtil.ConfluencePage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 搜索结果解析基准测试：对比旧的正则解析、Jackson树模型与流式解析的CPU耗时和内存分配
+ * <p>
+ * 运行方式见 {@code pom.xml} 中的 benchmark profile：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.include=SearchParsingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchParsingBenchmark {
+
+    private static final Pattern RESULTS_PATTERN = Pattern.compile("\"results\":\\[(.*?)\\]");
+    private static final Pattern PAGE_PATTERN = Pattern.compile(
+            "\"id\":\"(\\d+)\".*?\"title\":\"([^\"]+)\".*?\"_links\":\\{\"webui\":\"([^\"]+)\"");
+
+    @Param({"50", "200", "1000"})
+    public int resultCount;
+
+    private final JsonParserUtil jsonParserUtil = new JsonParserUtil();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.quietParserLogs();
+        payload = SearchPayloads.searchResponse(resultCount).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 旧实现：先将响应体转为字符串，再用正则提取结果
+     */
+    @Benchmark
+    public List<String> regexFromString() {
+        String body = new String(payload, StandardCharsets.UTF_8);
+        List<String> ids = new ArrayList<>();
+        Matcher matcher = RESULTS_PATTERN.matcher(body);
+        if (matcher.find()) {
+            Matcher pageMatcher = PAGE_PATTERN.matcher(matcher.group(1));
+            while (pageMatcher.find()) {
+                ids.add(pageMatcher.group(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 先将响应体转为字符串，再构建完整的Jackson树
+     */
+    @Benchmark
+    public List<String> jacksonTreeFromString() throws Exception {
+        JsonNode root = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8));
+        List<String> ids = new ArrayList<>();
+        for (JsonNode result : root.path("results")) {
+            ids.add(result.path("content").path("id").asText());
+        }
+        return ids;
+    }
+
+    /**
+     * 新实现：直接从输入流流式解析为页面对象
+     */
+    @Benchmark
+    public List<ConfluencePage> streamingFromInputStream() throws Exception {
+        return jsonParserUtil.parseSearchResults(new ByteArrayInputStream(payload));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(SearchParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
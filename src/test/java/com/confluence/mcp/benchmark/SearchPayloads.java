@@ -0,0 +1,50 @@
+package com.confluence.mcp.benchmark;
+
+/**
+ * 基准测试用的搜索响应数据，结构与 /rest/api/search 的真实响应一致
+ */
+final class SearchPayloads {
+
+    private SearchPayloads() {
+    }
+
+    /**
+     * 生成包含指定数量结果的搜索响应
+     */
+    static String searchResponse(int resultCount) {
+        StringBuilder json = new StringBuilder(resultCount * 1200);
+        json.append("{\"results\":[");
+        for (int i = 0; i < resultCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String id = String.valueOf(100000 + i);
+            json.append("{\"content\":{\"id\":\"").append(id).append("\",\"type\":\"page\",\"status\":\"current\",")
+                    .append("\"title\":\"Runbook ").append(i).append(" - service deployment\",")
+                    .append("\"space\":{\"id\":98305,\"key\":\"OPS\",\"name\":\"Operations\",\"type\":\"global\",")
+                    .append("\"_links\":{\"webui\":\"/display/OPS\"}},")
+                    .append("\"version\":{\"by\":{\"type\":\"known\",\"username\":\"user").append(i % 17)
+                    .append("\",\"displayName\":\"User ").append(i % 17).append("\"},")
+                    .append("\"when\":\"2024-03-0").append(i % 9 + 1).append("T10:15:30.000Z\",")
+                    .append("\"number\":").append(i % 40 + 1).append(",\"minorEdit\":false},")
+                    .append("\"ancestors\":[{\"id\":\"90001\"},{\"id\":\"90002\"}],")
+                    .append("\"restrictions\":{},\"_expandable\":{\"children\":\"\",\"history\":\"/rest/api/content/")
+                    .append(id).append("/history\"},")
+                    .append("\"_links\":{\"webui\":\"/display/OPS/Runbook+").append(i)
+                    .append("\",\"tinyui\":\"/x/AbC").append(i).append("\",\"self\":\"https://wiki.example.com/rest/api/content/")
+                    .append(id).append("\"}},")
+                    .append("\"title\":\"@@@hl@@@Runbook@@@endhl@@@ ").append(i).append(" - service deployment\",")
+                    .append("\"excerpt\":\"Steps to roll out the @@@hl@@@runbook@@@endhl@@@ service [step ")
+                    .append(i).append("] including rollback &amp; verification...\",")
+                    .append("\"url\":\"/display/OPS/Runbook+").append(i).append("\",")
+                    .append("\"resultGlobalContainer\":{\"title\":\"Operations\",\"displayUrl\":\"/display/OPS\"},")
+                    .append("\"breadcrumbs\":[],\"entityType\":\"content\",\"iconCssClass\":\"aui-icon content-type-page\",")
+                    .append("\"lastModified\":\"2024-03-0").append(i % 9 + 1).append("T10:15:30.000Z\",")
+                    .append("\"friendlyLastModified\":\"Mar 0").append(i % 9 + 1).append(", 2024\",\"score\":0.0}");
+        }
+        json.append("],\"start\":0,\"limit\":").append(resultCount).append(",\"size\":").append(resultCount)
+                .append(",\"totalSize\":").append(resultCount).append(",\"cqlQuery\":\"siteSearch ~ \\\"runbook\\\"\",")
+                .append("\"searchDuration\":42,\"_links\":{\"base\":\"https://wiki.example.com\",\"context\":\"\"}}");
+        return json.toString();
+    }
+}
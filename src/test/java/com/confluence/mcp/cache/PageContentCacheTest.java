@@ -0,0 +1,322 @@
+package com.confluence.mcp.cache;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.UpstreamUnavailableException;
+import com.confluence.mcp.service.ConfluencePageService;
+import com.confluence.mcp.service.PageContent;
+import com.confluence.mcp.store.PageStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * PageContentCache单元测试
+ */
+class PageContentCacheTest {
+
+    @Mock
+    private ConfluencePageService pageService;
+
+    @Mock
+    private PageStore pageStore;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private ConfluenceConfig config;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new ConfluenceConfig();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testGet_CoalescesConcurrentMisses() throws Exception {
+        when(pageService.fetchPage("1")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return page("1", "content", 1);
+        });
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        // 并发请求同一页面
+        List<CompletableFuture<PageContent>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> cache.get("1"), executor));
+        }
+        for (CompletableFuture<PageContent> future : futures) {
+            assertEquals("content", future.get(5, TimeUnit.SECONDS).getContent());
+        }
+
+        // 验证只发起一次上游请求
+        verify(pageService, times(1)).fetchPage("1");
+        assertEquals(7L, cache.stats().get("hitCount"));
+        assertEquals(1L, cache.stats().get("missCount"));
+    }
+
+    @Test
+    void testGet_LoadsOnCallerThreadAndDoesNotCacheFailures() throws Exception {
+        List<String> loadingThreads = new ArrayList<>();
+        when(pageService.fetchPage("1")).thenAnswer(invocation -> {
+            loadingThreads.add(Thread.currentThread().getName());
+            if (loadingThreads.size() == 1) {
+                throw new IllegalStateException("连接被重置");
+            }
+            return page("1", "content", 1);
+        });
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        // 加载在调用方线程上、缓存锁外执行，失败时原样抛出且不保留在缓存中
+        assertThrows(IllegalStateException.class, () -> cache.get("1"));
+        assertFalse(cache.isCached("1"));
+        assertEquals("content", cache.get("1").getContent());
+        assertEquals(List.of(Thread.currentThread().getName(), Thread.currentThread().getName()), loadingThreads);
+        assertTrue(cache.isCached("1"));
+    }
+
+    @Test
+    void testInvalidateChanged_OnlyEvictsPagesWithNewVersions() throws Exception {
+        when(pageService.fetchPage("1")).thenReturn(page("1", "one", 3));
+        when(pageService.fetchPage("2")).thenReturn(page("2", "two", 3));
+        when(pageStore.get("3")).thenReturn(Optional.of(page("3", "three", 1)));
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+        cache.get("1");
+        cache.get("2");
+
+        // 页面1版本未变，页面2在内存缓存中、页面3在持久化存储中为旧版本，页面4未缓存
+        int invalidated = cache.invalidateChanged(Map.of("1", 3, "2", 4, "3", 2, "4", 1));
+
+        assertEquals(2, invalidated);
+        assertTrue(cache.isCached("1"));
+        assertFalse(cache.isCached("2"));
+        verify(pageStore).delete(argThat(ids -> Set.copyOf(ids).equals(Set.of("2", "3"))));
+    }
+
+    @Test
+    void testGetAll_LoadsOnlyMissesInOneBatch() throws Exception {
+        when(pageService.fetchPage("1")).thenReturn(page("1", "one", 1));
+        when(pageService.fetchPagesAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of(
+                "2", page("2", "two", 1),
+                "3", page("3", "three", 1))));
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+        cache.get("1");
+
+        // 已缓存的页面不再请求，其余页面合并为一次批量请求；不存在的页面不返回
+        Map<String, PageContent> pages = cache.getAllAsync(List.of("1", "2", "3", "4")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Set.of("1", "2", "3"), pages.keySet());
+        verify(pageService, times(1)).fetchPagesAsync(argThat(ids -> Set.copyOf(ids).equals(Set.of("2", "3", "4"))));
+        assertEquals("two", cache.get("2").getContent());
+        verify(pageService, never()).fetchPage("2");
+    }
+
+    @Test
+    void testGetAll_ConcurrentCallersJoinInFlightBatch() throws Exception {
+        CompletableFuture<Map<String, PageContent>> pending = new CompletableFuture<>();
+        when(pageService.fetchPagesAsync(anyCollection())).thenReturn(pending);
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        // 批量请求未返回时，同一页面的批量获取和单页获取都等待这次加载
+        CompletableFuture<Map<String, PageContent>> first = cache.getAllAsync(List.of("1", "2"));
+        CompletableFuture<Map<String, PageContent>> second = cache.getAllAsync(List.of("2"));
+        CompletableFuture<PageContent> single = CompletableFuture.supplyAsync(() -> cache.get("1"), executor);
+        assertTrue(cache.isCached("1"));
+        pending.complete(Map.of("1", page("1", "one", 1), "2", page("2", "two", 1)));
+
+        assertEquals(Set.of("1", "2"), first.get(5, TimeUnit.SECONDS).keySet());
+        assertEquals("two", second.get(5, TimeUnit.SECONDS).get("2").getContent());
+        assertEquals("one", single.get(5, TimeUnit.SECONDS).getContent());
+        verify(pageService, times(1)).fetchPagesAsync(anyCollection());
+        verify(pageService, never()).fetchPage(anyString());
+    }
+
+    @Test
+    void testInvalidateDuringLoad_DoesNotWriteBackOldContent() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        when(pageService.fetchPage("1")).thenAnswer(invocation -> {
+            loading.countDown();
+            invalidated.await(5, TimeUnit.SECONDS);
+            return page("1", "old", 1);
+        });
+        CompletableFuture<Map<String, PageContent>> pending = new CompletableFuture<>();
+        when(pageService.fetchPagesAsync(anyCollection())).thenReturn(pending);
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        // 单页加载和批量加载进行中时页面被失效
+        CompletableFuture<PageContent> single = CompletableFuture.supplyAsync(() -> cache.get("1"), executor);
+        CompletableFuture<Map<String, PageContent>> bulk = cache.getAllAsync(List.of("2"));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.invalidateAll(List.of("1", "2"));
+        invalidated.countDown();
+        pending.complete(Map.of("2", page("2", "old", 1)));
+
+        // 加载结果仍返回给等待的调用方，但不写回内存缓存和持久化存储
+        assertEquals("old", single.get(5, TimeUnit.SECONDS).getContent());
+        assertEquals("old", bulk.get(5, TimeUnit.SECONDS).get("2").getContent());
+        assertFalse(cache.isCached("1"));
+        assertFalse(cache.isCached("2"));
+        verify(pageStore, never()).put(any());
+    }
+
+    @Test
+    void testGet_UsesPersistentStoreBeforeUpstream() throws Exception {
+        config.getCache().setPageRevalidateAfter(60000);
+        PageContent stale = page("2", "stored content", 1).toBuilder()
+                .etag("\"v1\"")
+                .fetchedAt(System.currentTimeMillis() - 120000)
+                .build();
+        when(pageStore.get("1")).thenReturn(Optional.of(page("1", "stored content", 1)));
+        when(pageStore.get("2")).thenReturn(Optional.of(stale));
+        when(pageService.fetchPageIfModified(any())).thenReturn(Optional.empty());
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        // 未过期的存储内容直接使用，不请求Confluence
+        assertEquals("stored content", cache.get("1").getContent());
+        verify(pageService, never()).fetchPage("1");
+
+        // 过期的存储内容发起条件请求，304时沿用并写回存储
+        assertEquals("stored content", cache.get("2").getContent());
+        verify(pageService, never()).fetchPage("2");
+        verify(pageService).fetchPageIfModified(stale);
+        verify(pageStore).put(argThat(page -> "2".equals(page.getPageId()) && page.getFetchedAt() > stale.getFetchedAt()));
+    }
+
+    @Test
+    void testGet_ServesStaleStoredContentWhenUpstreamUnavailable() throws Exception {
+        config.getCache().setPageRevalidateAfter(60000);
+        PageContent stored = page("1", "stored content", 1).toBuilder()
+                .fetchedAt(System.currentTimeMillis() - 120000)
+                .build();
+        when(pageStore.get("1")).thenReturn(Optional.of(stored));
+        when(pageService.fetchVersion("1")).thenThrow(new UpstreamUnavailableException("熔断中"));
+        when(pageService.fetchPage("2")).thenThrow(new UpstreamUnavailableException("熔断中"));
+        when(pageService.fetchPagesAsync(anyCollection()))
+                .thenReturn(CompletableFuture.failedFuture(new UpstreamUnavailableException("熔断中")));
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        // 熔断期间返回已过期的存储内容并标记为过期
+        PageContent page = cache.get("1");
+        assertEquals("stored content", page.getContent());
+        assertTrue(page.isStale());
+        Map<String, PageContent> pages = cache.getAllAsync(List.of("1", "2")).get(5, TimeUnit.SECONDS);
+        assertEquals(Set.of("1"), pages.keySet());
+        assertTrue(pages.get("1").isStale());
+
+        // 存储中没有的页面仍然快速失败
+        assertThrows(UpstreamUnavailableException.class, () -> cache.get("2"));
+        assertEquals(2L, cache.stats().get("staleServedCount"));
+
+        // 过期内容不进入内存缓存，恢复后重新校验
+        reset(pageService);
+        when(pageService.fetchVersion("1")).thenReturn(Optional.of(1));
+        assertFalse(cache.get("1").isStale());
+    }
+
+    @Test
+    void testGet_RevalidatesByVersion() throws Exception {
+        config.getCache().setPageRevalidateAfter(300);
+        when(pageService.fetchPage("1"))
+                .thenReturn(page("1", "v1 content", 1))
+                .thenReturn(page("1", "v2 content", 2));
+        when(pageService.fetchVersion("1"))
+                .thenReturn(Optional.of(1))
+                .thenReturn(Optional.of(2));
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        assertEquals("v1 content", cache.get("1").getContent());
+
+        // 版本未变化：沿用缓存，不重新获取页面
+        Thread.sleep(350);
+        cache.get("1");
+        verify(pageService, timeout(2000).times(1)).fetchVersion("1");
+        Thread.sleep(20);
+        assertEquals("v1 content", cache.get("1").getContent());
+        verify(pageService, times(1)).fetchPage("1");
+
+        // 版本变化：异步重新获取页面
+        Thread.sleep(350);
+        cache.get("1");
+        verify(pageService, timeout(2000).times(2)).fetchPage("1");
+        Thread.sleep(20);
+        assertEquals("v2 content", cache.get("1").getContent());
+        assertEquals(1L, cache.stats().get("revalidatedCount"));
+        assertEquals(1L, cache.stats().get("versionChangedCount"));
+    }
+
+    @Test
+    void testGet_RevalidatesWithConditionalRequest() throws Exception {
+        config.getCache().setPageRevalidateAfter(300);
+        PageContent cached = page("1", "v1 content", 1).toBuilder()
+                .etag("\"v1\"")
+                .responseBytes(2048)
+                .build();
+        when(pageService.fetchPage("1")).thenReturn(cached);
+        when(pageService.fetchPageIfModified(any())).thenReturn(Optional.empty());
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        assertEquals("v1 content", cache.get("1").getContent());
+
+        // 304：沿用缓存，不再比对版本号，也不重新获取页面
+        Thread.sleep(350);
+        cache.get("1");
+        verify(pageService, timeout(2000).times(1)).fetchPageIfModified(argThat(page -> "\"v1\"".equals(page.getEtag())));
+        Thread.sleep(20);
+        assertEquals("v1 content", cache.get("1").getContent());
+        verify(pageService, times(1)).fetchPage("1");
+        verify(pageService, never()).fetchVersion(anyString());
+        assertEquals(1L, cache.stats().get("conditionalRequestCount"));
+        assertEquals(1L, cache.stats().get("notModifiedCount"));
+        assertEquals(2048L, cache.stats().get("bytesSaved"));
+    }
+
+    @Test
+    void testGet_EvictsWhenOverByteLimit() throws Exception {
+        config.getCache().setPageMaxBytes(4096L);
+        when(pageService.fetchPage(anyString())).thenAnswer(invocation ->
+                page(invocation.getArgument(0), "x".repeat(1000), 1));
+        PageContentCache cache = new PageContentCache(config, pageService, pageStore, executor);
+
+        for (int i = 0; i < 20; i++) {
+            cache.get(String.valueOf(i));
+        }
+
+        // 每个条目约2KB，总容量4KB，必然发生淘汰
+        verify(pageService, times(20)).fetchPage(anyString());
+        Thread.sleep(100);
+        assertEquals(true, (Long) cache.stats().get("evictionCount") > 0);
+    }
+
+    private PageContent page(String pageId, String content, int version) {
+        return PageContent.builder()
+                .pageId(pageId)
+                .title("Title " + pageId)
+                .content(content)
+                .version(version)
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+    }
+}
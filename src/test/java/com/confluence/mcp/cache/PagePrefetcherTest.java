@@ -0,0 +1,128 @@
+package com.confluence.mcp.cache;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.resilience.UpstreamGuard;
+import com.confluence.mcp.service.PageContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PagePrefetcher与FrequencySketch单元测试
+ */
+class PagePrefetcherTest {
+
+    private final PageContentCache pageContentCache = mock(PageContentCache.class);
+    private final UpstreamGuard upstreamGuard = mock(UpstreamGuard.class);
+    private final ConfluenceConfig config = new ConfluenceConfig();
+
+    private PagePrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        config.getPrefetch().setTrackedPages(3);
+        config.getPrefetch().setMaxInFlight(1);
+        config.getPrefetch().setSearchHits(2);
+        config.getPrefetch().setStateFile("");
+        config.getFetch().setBulkSize(2);
+        when(upstreamGuard.hasSpareCapacity(anyDouble())).thenReturn(true);
+        prefetcher = new PagePrefetcher(config, pageContentCache, upstreamGuard);
+    }
+
+    @Test
+    void testTopPages_RanksByFrequencyAndReplacesColdCandidates() {
+        access("runbook", 5);
+        access("arch", 3);
+        access("faq", 1);
+        // 候选已满，更热的页面替换最冷的候选
+        access("oncall", 2);
+        assertEquals(3, prefetcher.stats().get("trackedPages"));
+
+        assertEquals(List.of("runbook", "arch", "oncall"), prefetcher.topPages(3));
+        assertEquals(List.of("runbook"), prefetcher.topPages(1));
+        assertEquals(3, prefetcher.stats().get("trackedPages"));
+
+        // 不比最冷的候选更热的新页面不被接纳
+        access("rare", 1);
+        assertEquals(3, prefetcher.stats().get("trackedPages"));
+        assertEquals(List.of("runbook", "arch", "oncall"), prefetcher.topPages(3));
+    }
+
+    @Test
+    void testPrefetch_StaysWithinBudget() {
+        CompletableFuture<Map<String, PageContent>> pending = new CompletableFuture<>();
+        when(pageContentCache.getAllAsync(any())).thenReturn(pending);
+
+        // 只预取排名靠前的两个结果
+        prefetcher.prefetchSearchHits(List.of("1", "2", "3"));
+        verify(pageContentCache).getAllAsync(List.of("1", "2"));
+
+        // 在途预取达到上限时放弃
+        assertNull(prefetcher.prefetch(List.of("4")));
+        assertEquals(1L, prefetcher.stats().get("skippedForBudget"));
+
+        // 预取完成后释放余量
+        pending.complete(Map.of());
+        when(pageContentCache.getAllAsync(List.of("4"))).thenReturn(CompletableFuture.completedFuture(Map.of()));
+        assertNotNull(prefetcher.prefetch(List.of("4")));
+    }
+
+    @Test
+    void testPrefetch_SkipsWhenUpstreamIsBusyOrPagesCached() {
+        when(pageContentCache.isCached("1")).thenReturn(true);
+        assertTrue(prefetcher.prefetch(List.of("1")).isDone());
+
+        when(upstreamGuard.hasSpareCapacity(anyDouble())).thenReturn(false);
+        assertNull(prefetcher.prefetch(List.of("2")));
+        verify(pageContentCache, never()).getAllAsync(any());
+    }
+
+    @Test
+    void testWarm_FetchesUncachedPagesBatchByBatch() {
+        when(pageContentCache.isCached("b")).thenReturn(true);
+        when(pageContentCache.getAllAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        prefetcher.warm(List.of("a", "b", "c", "d", "e"));
+
+        // 跳过已缓存的页面，按批量大小逐批请求
+        verify(pageContentCache).getAllAsync(List.of("a", "c"));
+        verify(pageContentCache).getAllAsync(List.of("d", "e"));
+        assertEquals(2L, prefetcher.stats().get("prefetchRequests"));
+    }
+
+    @Test
+    void testFrequencySketch_DecaysOldCounts() {
+        FrequencySketch sketch = new FrequencySketch(4);
+        for (int i = 0; i < 300; i++) {
+            sketch.increment("hot");
+        }
+        assertTrue(sketch.estimate("hot") >= 300);
+
+        // 累计记录达到采样数后所有计数减半
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("other");
+        }
+        assertTrue(sketch.estimate("hot") <= 160);
+        assertTrue(sketch.estimate("hot") >= 150);
+    }
+
+    private void access(String pageId, int times) {
+        for (int i = 0; i < times; i++) {
+            prefetcher.recordAccess(pageId);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.confluence.mcp.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BoundedExecutorService单元测试
+ */
+class BoundedExecutorServiceTest {
+
+    private final ExecutorService delegate = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        delegate.shutdownNow();
+    }
+
+    @Test
+    void testExecute_LimitsConcurrentTasks() throws Exception {
+        ExecutorService executor = new BoundedExecutorService(delegate, 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // 每个任务各占一个线程，但同时执行的任务数不超过上限
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, maxRunning.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(delegate.isShutdown());
+    }
+}
@@ -0,0 +1,137 @@
+package com.confluence.mcp.config;
+
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.File;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CountingTlsStrategy单元测试：对本地TLS 1.3服务发起真实请求，统计完整握手与会话恢复
+ */
+class CountingTlsStrategyTest {
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    private final HttpClientConfig httpClientConfig = new HttpClientConfig();
+
+    @TempDir
+    Path tempDir;
+
+    private HttpsServer server;
+    private SSLContext clientContext;
+    private ConfluenceConfig config;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyStore keyStore = generateKeyStore(tempDir.resolve("server.p12"));
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+        SSLContext serverContext = SSLContext.getInstance("TLSv1.3");
+        serverContext.init(keyManagers.getKeyManagers(), null, null);
+
+        server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(serverContext) {
+            @Override
+            public void configure(HttpsParameters params) {
+                params.setProtocols(new String[]{"TLSv1.3"});
+            }
+        });
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+        clientContext = SSLContext.getInstance("TLSv1.3");
+        clientContext.init(null, trustManagers.getTrustManagers(), null);
+
+        config = new ConfluenceConfig();
+        config.setUrl("https://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testCountsTls13ResumptionAcrossPools() throws Exception {
+        CountingTlsStrategy tlsStrategy = new CountingTlsStrategy(clientContext);
+
+        try (PoolingHttpClientConnectionManager connectionManager = httpClientConfig.connectionManager(config, tlsStrategy);
+             CloseableHttpClient httpClient = httpClientConfig.httpClient(connectionManager, config)) {
+            assertEquals("ok", httpClient.execute(new HttpGet(config.getUrl() + "/"),
+                    response -> EntityUtils.toString(response.getEntity())));
+        }
+        assertEquals(1, tlsStrategy.getFullHandshakes());
+        assertEquals(0, tlsStrategy.getResumedHandshakes());
+
+        // 异步连接池的新连接按PSK恢复同步连接池建立的会话，会话对象不同但不是完整握手
+        try (CloseableHttpAsyncClient asyncClient = httpClientConfig.asyncHttpClient(
+                httpClientConfig.asyncConnectionManager(config, tlsStrategy), config)) {
+            SimpleHttpResponse response = asyncClient.execute(SimpleRequestBuilder.get(config.getUrl() + "/").build(), null)
+                    .get(5, TimeUnit.SECONDS);
+            assertEquals("ok", response.getBodyText());
+        }
+        assertEquals(1, tlsStrategy.getFullHandshakes());
+        assertEquals(1, tlsStrategy.getResumedHandshakes());
+    }
+
+    @Test
+    void testTlsStrategy_ConfiguresDefaultSslContext() throws Exception {
+        // 沿用JVM默认的SSLContext，javax.net.ssl.keyStore配置的客户端证书仍然生效
+        config.getPool().setTlsSessionCacheSize(77);
+        httpClientConfig.tlsStrategy(config);
+
+        assertEquals(77, SSLContext.getDefault().getClientSessionContext().getSessionCacheSize());
+    }
+
+    /**
+     * 用keytool生成包含127.0.0.1证书的密钥库
+     */
+    private static KeyStore generateKeyStore(Path path) throws Exception {
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "server", "-keyalg", "EC",
+                "-dname", "CN=127.0.0.1", "-ext", "san=ip:127.0.0.1", "-validity", "1",
+                "-storetype", "PKCS12", "-keystore", path.toString(),
+                "-storepass", new String(PASSWORD), "-keypass", new String(PASSWORD))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), output);
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(path)) {
+            keyStore.load(in, PASSWORD);
+        }
+        return keyStore;
+    }
+}
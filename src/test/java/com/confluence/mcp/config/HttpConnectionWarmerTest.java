@@ -0,0 +1,84 @@
+package com.confluence.mcp.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.pool.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HttpConnectionWarmer单元测试
+ */
+class HttpConnectionWarmerTest {
+
+    private final HttpClientConfig httpClientConfig = new HttpClientConfig();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpServer server;
+    private ConfluenceConfig config;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, "HEAD".equals(exchange.getRequestMethod()) ? -1 : body.length);
+            if (!"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        config = new ConfluenceConfig();
+        config.setUrl("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testWarmUp_PreconnectsReusableConnections() throws Exception {
+        config.getPool().setWarmupConnections(3);
+        config.setHttpClientMode(HttpClientMode.BLOCKING);
+        CountingTlsStrategy tlsStrategy = httpClientConfig.tlsStrategy(config);
+        try (PoolingHttpClientConnectionManager connectionManager = httpClientConfig.connectionManager(config, tlsStrategy);
+             CloseableHttpClient httpClient = httpClientConfig.httpClient(connectionManager, config);
+             CloseableHttpAsyncClient asyncClient = httpClientConfig.asyncHttpClient(
+                     httpClientConfig.asyncConnectionManager(config, tlsStrategy), config)) {
+            new HttpConnectionWarmer(config, connectionManager, asyncClient).warmUp();
+
+            // 只建立连接，不发送请求
+            assertEquals(3, connectionManager.getTotalStats().getAvailable());
+            assertEquals(0, requests.get());
+
+            // 后续请求复用预热的连接，不再新建
+            httpClient.execute(new HttpGet(config.getUrl() + "/rest/api/space"), response -> EntityUtils.toString(response.getEntity()));
+            PoolStats stats = connectionManager.getTotalStats();
+            assertEquals(3, stats.getAvailable() + stats.getLeased());
+            assertEquals(1, requests.get());
+        }
+    }
+
+    @Test
+    void testRoute_NormalizesDefaultPort() {
+        HttpRoute route = HttpConnectionWarmer.route("https://confluence.example.com/wiki");
+        assertEquals(443, route.getTargetHost().getPort());
+        assertTrue(route.isSecure());
+    }
+}
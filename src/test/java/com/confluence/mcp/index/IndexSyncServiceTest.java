@@ -0,0 +1,124 @@
+package com.confluence.mcp.index;
+
+import com.confluence.mcp.cache.PageContentCache;
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.util.HtmlTextExtractor;
+import com.confluence.mcp.util.HttpClientUtil;
+import com.confluence.mcp.util.JsonParserUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * IndexSyncService单元测试
+ */
+class IndexSyncServiceTest {
+
+    @TempDir
+    Path indexDirectory;
+
+    private final HttpClientUtil httpClientUtil = mock(HttpClientUtil.class);
+    private final PageContentCache pageContentCache = mock(PageContentCache.class);
+
+    private LocalSearchIndex index;
+    private IndexSyncService syncService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ConfluenceConfig config = new ConfluenceConfig();
+        config.setUrl("https://confluence.example.com");
+        config.getIndex().setEnabled(true);
+        config.getIndex().setDirectory(indexDirectory.toString());
+        config.getIndex().setSyncRequestsPerSecond(0.0);
+        config.getFetch().setBulkSize(1);
+        index = new LocalSearchIndex(config);
+        syncService = new IndexSyncService(config, httpClientUtil, new JsonParserUtil(), new HtmlTextExtractor(),
+                index, pageContentCache);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void testSyncSpace_FullThenIncrementalWithDeletion() throws Exception {
+        // 首次同步：空间中有页面1、2
+        mockList("/rest/api/search", "1", "2");
+        mockPage("1", "部署手册", 1);
+        mockPage("2", "备份说明", 1);
+
+        SyncStatus full = syncService.syncSpace("RP");
+
+        assertTrue(full.isFullSync());
+        assertEquals(SyncStatus.State.SUCCEEDED, full.getState());
+        assertEquals(2, full.getIndexedPages());
+        assertEquals(Set.of("1", "2"), index.pageIds("RP"));
+
+        // 增量同步：页面2被修改，页面1被删除
+        mockList("/rest/api/search", "2");
+        mockList("/rest/api/content/search", "2");
+        mockPage("2", "备份说明新版", 2);
+
+        SyncStatus incremental = syncService.syncSpace("RP");
+
+        assertFalse(incremental.isFullSync());
+        assertEquals(1, incremental.getChangedPages());
+        assertEquals(1, incremental.getDeletedPages());
+        assertEquals(Set.of("2"), index.pageIds("RP"));
+        assertEquals("备份说明新版", index.search("新版", List.of("RP"), List.of(), 10).get(0).getTitle());
+        // 增量请求带有水位线条件；同步到的页面按版本号比对缓存，删除的页面直接失效
+        verify(httpClientUtil, atLeastOnce()).executeGetRequest(contains("lastmodified+%3E%3D"), any());
+        verify(pageContentCache).invalidateChanged(Map.of("1", 1));
+        verify(pageContentCache).invalidateChanged(Map.of("2", 1));
+        verify(pageContentCache).invalidateChanged(Map.of("2", 2));
+        verify(pageContentCache).invalidateAll(Set.of());
+        verify(pageContentCache).invalidateAll(Set.of("1"));
+    }
+
+    /**
+     * 模拟分页列表接口：第一页返回指定页面，之后返回空页
+     */
+    private void mockList(String path, String... pageIds) throws Exception {
+        StringBuilder results = new StringBuilder();
+        for (String pageId : pageIds) {
+            results.append(results.length() == 0 ? "" : ",").append("{\"id\":\"").append(pageId).append("\"}");
+        }
+        String firstPage = "{\"results\":[" + results + "]}";
+        when(httpClientUtil.executeGetRequest(contains(path + "?cql="), any())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            return read(invocation.getArgument(1), url.contains("start=0&") ? firstPage : "{\"results\":[]}");
+        });
+    }
+
+    private void mockPage(String pageId, String title, int version) throws Exception {
+        String body = "{\"results\":[{\"id\":\"" + pageId + "\",\"type\":\"page\",\"title\":\"" + title + "\","
+                + "\"space\":{\"key\":\"RP\"},\"version\":{\"number\":" + version + "},\"body\":{\"view\":{\"value\":\"<p>" + title + "</p>\"}}}]}";
+        when(httpClientUtil.executeGetRequestAsync(contains("id+in+%28%22" + pageId + "%22%29"), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(read(invocation.getArgument(1), body)));
+    }
+
+    private Object read(HttpClientUtil.ResponseBodyReader<?> reader, String body) throws Exception {
+        return reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
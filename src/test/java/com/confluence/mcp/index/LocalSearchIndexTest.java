@@ -0,0 +1,86 @@
+package com.confluence.mcp.index;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LocalSearchIndex单元测试
+ */
+class LocalSearchIndexTest {
+
+    @TempDir
+    Path indexDirectory;
+
+    @Test
+    void testSearch_RanksTitleMatchesAndReturnsSnippet() throws Exception {
+        try (LocalSearchIndex index = new LocalSearchIndex(config())) {
+            index.upsert(page("1", "部署手册", "介绍生产环境的部署步骤。与数据库备份无关。"));
+            index.upsert(page("2", "数据库备份", "每天凌晨执行数据库备份，保留七天。"));
+            index.upsert(page("3", "其他空间", "数据库备份", "OTHER"));
+            index.commitSpaceSync("RP", 1000L);
+
+            List<IndexHit> hits = index.search("数据库备份", List.of("RP"), List.of("page"), 10);
+
+            // 标题命中的页面排在前面，其他空间的页面被过滤
+            assertEquals(2, hits.size());
+            assertEquals("2", hits.get(0).getId());
+            assertTrue(hits.get(0).getSnippet().contains("数据库备份"));
+            assertTrue(index.isIndexed("RP"));
+            assertFalse(index.isIndexed("OTHER"));
+        }
+    }
+
+    @Test
+    void testCommitSpaceSync_DeletesPagesAndPersistsWatermark() throws Exception {
+        try (LocalSearchIndex index = new LocalSearchIndex(config())) {
+            index.upsert(page("1", "旧页面", "内容"));
+            index.upsert(page("2", "保留页面", "内容"));
+            index.commitSpaceSync("RP", 1000L);
+            assertEquals(Set.of("1", "2"), index.pageIds("RP"));
+
+            // 第二次同步时页面1已被删除
+            index.delete(Set.of("1"));
+            index.commitSpaceSync("RP", 2000L);
+
+            assertEquals(List.of("2"), index.search("", List.of("RP"), List.of(), 10).stream()
+                    .map(IndexHit::getId).toList());
+        }
+
+        // 重新打开索引后仍能读到同步时间
+        try (LocalSearchIndex reopened = new LocalSearchIndex(config())) {
+            assertEquals(2000L, reopened.lastSyncedAt("RP").orElseThrow());
+        }
+    }
+
+    private ConfluenceConfig config() {
+        ConfluenceConfig config = new ConfluenceConfig();
+        config.getIndex().setEnabled(true);
+        config.getIndex().setDirectory(indexDirectory.toString());
+        return config;
+    }
+
+    private IndexedPage page(String id, String title, String content) {
+        return page(id, title, content, "RP");
+    }
+
+    private IndexedPage page(String id, String title, String content, String spaceKey) {
+        return IndexedPage.builder()
+                .id(id)
+                .type("page")
+                .title(title)
+                .spaceKey(spaceKey)
+                .content(content)
+                .version(1)
+                .webUrl("/pages/viewpage.action?pageId=" + id)
+                .build();
+    }
+}
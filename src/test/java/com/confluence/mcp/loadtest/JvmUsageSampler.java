@@ -0,0 +1,103 @@
+package com.confluence.mcp.loadtest;
+
+import lombok.Value;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 统计期间的JVM资源占用：被测服务的请求处理与页面获取平台线程数峰值、进程平台线程数峰值、
+ * 堆内存峰值以及GC次数和耗时，用于对比平台线程与虚拟线程两种运行模式。
+ * 虚拟线程不计入平台线程数，虚拟线程模式下请求处理线程数接近0。
+ */
+final class JvmUsageSampler implements AutoCloseable {
+
+    /**
+     * 被测服务的请求处理线程（Tomcat）和页面获取线程的名称前缀
+     */
+    private static final String[] WORKER_PREFIXES = {"http-nio-", "page-fetch-"};
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jvm-usage-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger peakWorkerThreads = new AtomicInteger();
+    private long startGcCount;
+    private long startGcMillis;
+
+    /**
+     * 清零峰值并开始采样
+     */
+    void start() {
+        threads.resetPeakThreadCount();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+        sampler.scheduleAtFixedRate(this::sample, 0, 200, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止采样并返回统计期间的资源占用
+     */
+    Usage stop() {
+        sampler.shutdownNow();
+        sample();
+        long peakHeap = heapPools().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new Usage(peakWorkerThreads.get(), threads.getPeakThreadCount(), peakHeap,
+                gcCount() - startGcCount, gcMillis() - startGcMillis);
+    }
+
+    private void sample() {
+        long[] ids = threads.getAllThreadIds();
+        int workers = 0;
+        for (ThreadInfo info : threads.getThreadInfo(ids)) {
+            if (info != null && Arrays.stream(WORKER_PREFIXES).anyMatch(info.getThreadName()::startsWith)) {
+                workers++;
+            }
+        }
+        peakWorkerThreads.accumulateAndGet(workers, Math::max);
+    }
+
+    private static Stream<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+    }
+
+    /**
+     * 统计期间的资源占用
+     */
+    @Value
+    static class Usage {
+        int peakWorkerThreads;
+        int peakPlatformThreads;
+        long peakHeapBytes;
+        long gcCount;
+        long gcMillis;
+    }
+}
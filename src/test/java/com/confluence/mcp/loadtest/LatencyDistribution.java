@@ -0,0 +1,63 @@
+package com.confluence.mcp.loadtest;
+
+import java.util.Random;
+
+/**
+ * 桩服务的响应延迟分布（毫秒），由命令行参数解析：
+ * <ul>
+ *     <li>{@code fixed:50}：固定50ms</li>
+ *     <li>{@code uniform:20:200}：20ms到200ms之间均匀分布</li>
+ *     <li>{@code lognormal:80:400}：中位数80ms、P99为400ms的对数正态分布，接近真实服务的长尾延迟</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * 标准正态分布的99分位点
+     */
+    double Z_99 = 2.326;
+
+    LatencyDistribution NONE = random -> 0;
+
+    /**
+     * 采样一次延迟
+     */
+    long sampleMillis(Random random);
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            switch (parts[0]) {
+                case "fixed" -> {
+                    long millis = Long.parseLong(parts[1]);
+                    return random -> millis;
+                }
+                case "uniform" -> {
+                    long min = Long.parseLong(parts[1]);
+                    long max = Long.parseLong(parts[2]);
+                    if (max < min) {
+                        throw new IllegalArgumentException("最大延迟小于最小延迟: " + spec);
+                    }
+                    return random -> min + (long) (random.nextDouble() * (max - min + 1));
+                }
+                case "lognormal" -> {
+                    double median = Double.parseDouble(parts[1]);
+                    double p99 = Double.parseDouble(parts[2]);
+                    if (median <= 0 || p99 < median) {
+                        throw new IllegalArgumentException("对数正态分布需要 0 < 中位数 <= P99: " + spec);
+                    }
+                    double mu = Math.log(median);
+                    double sigma = Math.log(p99 / median) / Z_99;
+                    return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+                }
+                case "none" -> {
+                    return NONE;
+                }
+                default -> throw new IllegalArgumentException("未知的延迟分布: " + spec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("延迟分布格式错误: " + spec, e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.confluence.mcp.loadtest;
+
+import com.confluence.mcp.ConfluenceMcpServerApplication;
+import com.confluence.mcp.loadtest.McpLoadDriver.LoadResult;
+import com.confluence.mcp.loadtest.JvmUsageSampler.Usage;
+import com.confluence.mcp.loadtest.McpLoadDriver.ToolStats;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 端到端压测入口：启动Confluence桩服务，在同一进程内启动被测服务并指向桩服务，
+ * 由 {@link McpLoadDriver} 建立并发MCP会话调用工具，最后输出吞吐量、耗时分位数和上游请求放大倍数。
+ * <p>
+ * 参数均为 {@code --名称=值} 形式，以 {@code --confluence.} 开头的参数原样传给被测服务：
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--sessions=50 --duration=120 --error-rate=0.01"
+ * </pre>
+ * {@code --virtual-threads=true} 时内嵌服务在虚拟线程上处理请求和并发获取页面（需要Java 21及以上版本），
+ * 报告中的线程数与堆内存峰值用于对比两种运行模式。
+ * 指定 {@code --target} 时不启动内嵌服务，而是压测已运行的服务，此时该服务的 confluence.url
+ * 需要指向桩服务（用 {@code --stub-port} 固定桩服务端口）。
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --名称=值: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            (name.startsWith("confluence.") ? appProperties : options).put(name, value);
+        }
+
+        int pages = intOption(options, "pages", 2000);
+        StubConfluenceServer.Options stubOptions = StubConfluenceServer.Options.builder()
+                .port(intOption(options, "stub-port", 0))
+                .pages(pages)
+                .pageSections(Arrays.stream(options.getOrDefault("page-sections", "1,3,10,50").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList())
+                .searchLatency(LatencyDistribution.parse(options.getOrDefault("search-latency", "lognormal:80:400")))
+                .pageLatency(LatencyDistribution.parse(options.getOrDefault("page-latency", "lognormal:40:250")))
+                .errorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")))
+                .errorStatus(intOption(options, "error-status", 503))
+                .build();
+
+        try (StubConfluenceServer stub = new StubConfluenceServer(stubOptions)) {
+            System.out.println("Confluence桩服务已启动: " + stub.url());
+            ConfigurableApplicationContext app = null;
+            String target = options.get("target");
+            if (target == null) {
+                appProperties.putIfAbsent("spring.threads.virtual.enabled", options.getOrDefault("virtual-threads", "false"));
+                app = startApplication(stub.url(), appProperties);
+                target = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+                System.out.println("被测服务已启动: " + target);
+            }
+
+            try (JvmUsageSampler sampler = new JvmUsageSampler()) {
+                McpLoadDriver driver = new McpLoadDriver(McpLoadDriver.Options.builder()
+                        .baseUrl(target)
+                        .sessions(intOption(options, "sessions", 20))
+                        .warmupSeconds(intOption(options, "warmup", 10))
+                        .durationSeconds(intOption(options, "duration", 60))
+                        .requestTimeout(Duration.ofSeconds(intOption(options, "request-timeout", 60)))
+                        .searchRatio(Double.parseDouble(options.getOrDefault("search-ratio", "0.5")))
+                        .deepRatio(Double.parseDouble(options.getOrDefault("deep-ratio", "0.2")))
+                        .searchLimit(intOption(options, "search-limit", 10))
+                        .keywords(intOption(options, "keywords", 200))
+                        .pages(pages)
+                        .build());
+                LoadResult result = driver.run(() -> {
+                    stub.reset();
+                    sampler.start();
+                });
+                Usage usage = sampler.stop();
+                // 压测外部服务时本进程的资源占用没有参考意义
+                printReport(result, stub, app == null ? null : usage, app != null
+                        && Threading.VIRTUAL.isActive(app.getEnvironment()));
+            } finally {
+                if (app != null) {
+                    app.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * 启动被测服务：随机端口、指向桩服务，关闭持久化存储和本地索引，只保留警告日志
+     */
+    private static ConfigurableApplicationContext startApplication(String stubUrl, Map<String, String> appProperties) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("confluence.url", stubUrl);
+        properties.put("confluence.username", "loadtest");
+        properties.put("confluence.password", "loadtest");
+        properties.put("confluence.default-space", "OPS");
+        properties.put("confluence.store.enabled", "false");
+        properties.put("confluence.index.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.confluence.mcp", "WARN");
+        // 停止服务时关闭未结束的SSE连接会产生大量警告
+        properties.put("logging.level.io.modelcontextprotocol", "ERROR");
+        properties.put("logging.level.org.springframework.ai.mcp", "WARN");
+        // 命令行传入的 --confluence.* 可以覆盖以上默认值
+        properties.putAll(appProperties);
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(ConfluenceMcpServerApplication.class).run(args);
+    }
+
+    private static void printReport(LoadResult result, StubConfluenceServer stub, Usage usage, boolean virtualThreads) {
+        long calls = result.totalCalls();
+        double seconds = result.getMeasuredSeconds();
+        StringBuilder report = new StringBuilder("\n==== 压测结果 ====\n");
+        report.append(String.format("会话数: %d（建立失败%d）, 统计时长: %.1f秒%n",
+                result.getSessions(), result.getFailedSessions(), seconds));
+        report.append(String.format("工具调用: %d次, 失败%d次, 吞吐量: %.1f次/秒%n%n",
+                calls, result.totalFailures(), calls / seconds));
+
+        report.append(String.format("%-24s %8s %6s %9s %9s %9s %9s %9s%n",
+                "工具", "调用数", "失败", "吞吐/秒", "P50(ms)", "P90(ms)", "P99(ms)", "最大(ms)"));
+        for (ToolStats stats : result.getTools().values()) {
+            report.append(String.format("%-24s %8d %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    stats.getLabel(), stats.getCount(), stats.getFailures(), stats.getCount() / seconds,
+                    stats.percentileMillis(50), stats.percentileMillis(90),
+                    stats.percentileMillis(99), stats.percentileMillis(100)));
+        }
+        for (ToolStats stats : result.getTools().values()) {
+            if (stats.getLastError() != null) {
+                String error = stats.getLastError();
+                report.append(String.format("%s 最近一次失败: %s%n", stats.getLabel(),
+                        error.length() > 300 ? error.substring(0, 300) + "..." : error));
+            }
+        }
+
+        long upstream = stub.totalRequests();
+        report.append(String.format("%n上游请求: %d次（注入错误%d次）, 放大倍数: %.2f次/工具调用%n",
+                upstream, stub.injectedErrors(), calls == 0 ? 0 : (double) upstream / calls));
+        stub.requestCounts().forEach((endpoint, count) ->
+                report.append(String.format("  %-16s %8d%n", endpoint, count)));
+
+        // 压测客户端与被测服务在同一进程中，进程平台线程数包含每个会话一个的客户端线程
+        if (usage != null) {
+            report.append(String.format("%n运行模式: %s%n", virtualThreads ? "虚拟线程" : "平台线程"));
+            report.append(String.format("请求处理与页面获取平台线程峰值: %d, 进程平台线程峰值: %d%n",
+                    usage.getPeakWorkerThreads(), usage.getPeakPlatformThreads()));
+            report.append(String.format("堆内存峰值: %.1fMB, GC: %d次/%dms%n",
+                    usage.getPeakHeapBytes() / 1024.0 / 1024.0, usage.getGcCount(), usage.getGcMillis()));
+        }
+        System.out.println(report);
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
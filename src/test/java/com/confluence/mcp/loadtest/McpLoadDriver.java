@@ -0,0 +1,280 @@
+package com.confluence.mcp.loadtest;
+
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.spec.McpSchema.CallToolRequest;
+import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MCP压测驱动：建立多个并发的SSE会话（/mcp/sse），每个会话在独立线程中按配置的比例
+ * 循环调用 searchConfluence 和 getConfluencePage，预热结束后开始统计每个工具的耗时和失败数
+ */
+public class McpLoadDriver {
+
+    private static final String[] KEYWORDS = {"发布流程", "回滚", "灰度", "扩容", "值班", "告警", "故障复盘", "配置中心"};
+
+    private final Options options;
+
+    public McpLoadDriver(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * 执行压测
+     *
+     * @param onMeasurementStart 预热结束、开始统计时的回调，用于清零桩服务的请求计数
+     */
+    public LoadResult run(Runnable onMeasurementStart) throws InterruptedException {
+        Map<String, ToolStats> stats = new ConcurrentHashMap<>();
+        AtomicInteger failedSessions = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(options.getSessions());
+        Phase phase = new Phase();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < options.getSessions(); i++) {
+            Thread thread = new Thread(() -> runSession(phase, connected, failedSessions, stats), "mcp-load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        connected.await();
+        TimeUnit.SECONDS.sleep(options.getWarmupSeconds());
+        onMeasurementStart.run();
+        long start = System.nanoTime();
+        phase.measuring = true;
+        TimeUnit.SECONDS.sleep(options.getDurationSeconds());
+        phase.measuring = false;
+        long elapsed = System.nanoTime() - start;
+        phase.stopped = true;
+
+        for (Thread thread : threads) {
+            thread.join(options.getRequestTimeout().toMillis() + 5000);
+        }
+        return new LoadResult(options.getSessions(), failedSessions.get(), elapsed / 1e9, new TreeMap<>(stats));
+    }
+
+    private void runSession(Phase phase, CountDownLatch connected, AtomicInteger failedSessions,
+                            Map<String, ToolStats> stats) {
+        McpSyncClient client;
+        try {
+            client = McpClient.sync(HttpClientSseClientTransport.builder(options.getBaseUrl())
+                            .sseEndpoint(options.getSseEndpoint())
+                            .build())
+                    .requestTimeout(options.getRequestTimeout())
+                    .initializationTimeout(options.getRequestTimeout())
+                    .build();
+            client.initialize();
+        } catch (Exception e) {
+            failedSessions.incrementAndGet();
+            connected.countDown();
+            return;
+        }
+        connected.countDown();
+
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (!phase.stopped) {
+                Call call = nextCall(random);
+                long start = System.nanoTime();
+                String error = null;
+                try {
+                    CallToolResult result = client.callTool(new CallToolRequest(call.getTool(), call.getArguments()));
+                    if (Boolean.TRUE.equals(result.isError())) {
+                        error = String.valueOf(result.content());
+                    }
+                } catch (Exception e) {
+                    error = e.toString();
+                }
+                long elapsed = System.nanoTime() - start;
+                if (phase.measuring) {
+                    stats.computeIfAbsent(call.getLabel(), ToolStats::new).record(elapsed, error);
+                }
+            }
+        } finally {
+            client.closeGracefully();
+        }
+    }
+
+    /**
+     * 按比例选择下一次调用：关键字和页面ID都集中在少数热门值上，接近真实的缓存命中情况
+     */
+    private Call nextCall(ThreadLocalRandom random) {
+        if (random.nextDouble() < options.getSearchRatio()) {
+            int keyword = (int) (options.getKeywords() * Math.pow(random.nextDouble(), 2));
+            boolean deep = random.nextDouble() < options.getDeepRatio();
+            Map<String, Object> arguments = Map.of(
+                    "searchKeyword", KEYWORDS[keyword % KEYWORDS.length] + " " + keyword / KEYWORDS.length,
+                    "searchMode", deep ? "deep" : "lean",
+                    "limit", options.getSearchLimit());
+            return new Call("searchConfluence", deep ? "searchConfluence(deep)" : "searchConfluence(lean)", arguments);
+        }
+        long pageId = StubConfluenceServer.FIRST_PAGE_ID + (long) (options.getPages() * Math.pow(random.nextDouble(), 3));
+        return new Call("getConfluencePage", "getConfluencePage", Map.of("pageId", String.valueOf(pageId)));
+    }
+
+    @Value
+    private static class Call {
+        String tool;
+        String label;
+        Map<String, Object> arguments;
+    }
+
+    private static class Phase {
+        volatile boolean measuring;
+        volatile boolean stopped;
+    }
+
+    /**
+     * 单个工具的调用耗时和失败数
+     */
+    public static class ToolStats {
+
+        private final String label;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int failures;
+        private String lastError;
+
+        ToolStats(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @param error 失败原因，成功时为null
+         */
+        synchronized void record(long latencyNanos, String error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (error != null) {
+                failures++;
+                lastError = error;
+            }
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        public synchronized int getFailures() {
+            return failures;
+        }
+
+        /**
+         * 最近一次失败的原因，便于区分注入的上游错误和服务自身的问题
+         */
+        public synchronized String getLastError() {
+            return lastError;
+        }
+
+        /**
+         * 耗时分位数（毫秒）
+         *
+         * @param percentile 0到100之间的分位
+         */
+        public synchronized double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+        }
+    }
+
+    /**
+     * 压测结果
+     */
+    @Value
+    public static class LoadResult {
+        int sessions;
+        int failedSessions;
+        double measuredSeconds;
+        Map<String, ToolStats> tools;
+
+        public long totalCalls() {
+            return tools.values().stream().mapToLong(ToolStats::getCount).sum();
+        }
+
+        public long totalFailures() {
+            return tools.values().stream().mapToLong(ToolStats::getFailures).sum();
+        }
+    }
+
+    /**
+     * 压测配置
+     */
+    @Value
+    @Builder
+    public static class Options {
+
+        /**
+         * 被测服务地址，如 http://127.0.0.1:9090
+         */
+        String baseUrl;
+
+        @Builder.Default
+        String sseEndpoint = "/mcp/sse";
+
+        @Builder.Default
+        int sessions = 20;
+
+        @Builder.Default
+        int warmupSeconds = 10;
+
+        @Builder.Default
+        int durationSeconds = 60;
+
+        @Builder.Default
+        Duration requestTimeout = Duration.ofSeconds(60);
+
+        /**
+         * searchConfluence 调用占全部调用的比例，其余为 getConfluencePage
+         */
+        @Builder.Default
+        double searchRatio = 0.5;
+
+        /**
+         * 搜索中使用deep模式（获取页面正文）的比例
+         */
+        @Builder.Default
+        double deepRatio = 0.2;
+
+        @Builder.Default
+        int searchLimit = 10;
+
+        /**
+         * 不同搜索关键字的数量
+         */
+        @Builder.Default
+        int keywords = 200;
+
+        /**
+         * 桩服务的页面总数，getConfluencePage 在其中选择页面ID
+         */
+        @Builder.Default
+        int pages = 2000;
+    }
+}
@@ -0,0 +1,335 @@
+package com.confluence.mcp.loadtest;
+
+import com.confluence.mcp.benchmark.BenchmarkFixtures;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 压测用的Confluence桩服务，基于JDK自带的HttpServer，模拟以下接口：
+ * <ul>
+ *     <li>{@code /rest/api/search}：按CQL确定性地返回limit个页面</li>
+ *     <li>{@code /rest/api/content/search}：按 {@code id in (...)} 批量返回带正文的页面</li>
+ *     <li>{@code /rest/api/content/{id}}：单个页面，支持ETag条件请求；expand不含body时只返回版本信息</li>
+ *     <li>{@code /pages/viewpage.action}：带完整界面的页面，当前服务已不再请求，保留用于对比</li>
+ * </ul>
+ * 每个接口的响应延迟按配置的分布采样，并按错误率返回错误状态码；
+ * 正文由 {@link BenchmarkFixtures} 中脱敏的Confluence页面段落拼接，页面规模按页面ID轮流取配置的段数。
+ */
+public class StubConfluenceServer implements AutoCloseable {
+
+    public static final long FIRST_PAGE_ID = 10000001L;
+
+    private static final Pattern QUOTED_ID_PATTERN = Pattern.compile("\"(\\d+)\"");
+    private static final String LAST_MODIFIED = "2024-03-05T09:41:27.000+08:00";
+
+    private final Options options;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<Integer, String> contentTemplates = new HashMap<>();
+    private final Map<Integer, String> viewPages = new HashMap<>();
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    public StubConfluenceServer(Options options) throws IOException {
+        this.options = options;
+        for (int sections : options.getPageSections()) {
+            String body = BenchmarkFixtures.pageBody(sections);
+            contentTemplates.computeIfAbsent(sections, ignored -> BenchmarkFixtures.contentTemplate(body));
+            viewPages.computeIfAbsent(sections, ignored -> BenchmarkFixtures.viewPage(body));
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-confluence-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.getPort()), 1024);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    /**
+     * 桩服务地址，作为被测服务的 confluence.url
+     */
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 各接口收到的请求数
+     */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        return counts;
+    }
+
+    public long totalRequests() {
+        return requests.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * 按错误率注入的错误响应数
+     */
+    public long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    /**
+     * 清零计数，预热结束后调用
+     */
+    public void reset() {
+        requests.clear();
+        injectedErrors.reset();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream ignored = exchange.getRequestBody()) {
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String endpoint = endpointOf(path, query);
+            requests.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LatencyDistribution latency = "search".equals(endpoint) ? options.getSearchLatency() : options.getPageLatency();
+            sleep(latency.sampleMillis(random));
+            if (options.getErrorRate() > 0 && random.nextDouble() < options.getErrorRate()) {
+                injectedErrors.increment();
+                send(exchange, options.getErrorStatus(), "application/json",
+                        "{\"statusCode\":" + options.getErrorStatus() + ",\"message\":\"Injected by load test stub\"}");
+                return;
+            }
+
+            switch (endpoint) {
+                case "search" -> handleSearch(exchange, query);
+                case "content_search" -> handleContentSearch(exchange, query);
+                case "page", "page_version" -> handlePage(exchange, path.substring("/rest/api/content/".length()), query);
+                case "viewpage" -> handleViewPage(exchange, query);
+                default -> send(exchange, 404, "application/json", "{\"statusCode\":404}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String endpointOf(String path, Map<String, String> query) {
+        if (path.equals("/rest/api/search")) {
+            return "search";
+        }
+        if (path.equals("/rest/api/content/search")) {
+            return "content_search";
+        }
+        if (path.startsWith("/rest/api/content/")) {
+            return query.getOrDefault("expand", "").contains("body") ? "page" : "page_version";
+        }
+        if (path.equals("/pages/viewpage.action")) {
+            return "viewpage";
+        }
+        return "other";
+    }
+
+    /**
+     * 同样的CQL总是返回同样的页面，使搜索结果缓存和页面缓存的命中率接近真实情况
+     */
+    private void handleSearch(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int limit = Math.min(parseInt(query.get("limit"), 10), options.getPages());
+        Random random = new Random(query.getOrDefault("cql", "").hashCode());
+        StringBuilder json = new StringBuilder(limit * 600).append("{\"results\":[");
+        for (int i = 0; i < limit; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            long id = FIRST_PAGE_ID + random.nextInt(options.getPages());
+            json.append("{\"content\":{\"id\":\"").append(id).append("\",\"type\":\"page\",\"status\":\"current\",")
+                    .append("\"title\":\"部署手册 - 示例服务 ").append(id).append("\",")
+                    .append("\"space\":{\"key\":\"OPS\",\"name\":\"运维空间\",\"type\":\"global\"},")
+                    .append("\"version\":{\"when\":\"").append(LAST_MODIFIED).append("\",\"number\":42,\"minorEdit\":false},")
+                    .append("\"_links\":{\"webui\":\"/display/OPS/Deployment+Runbook+").append(id).append("\"}},")
+                    .append("\"title\":\"@@@hl@@@部署@@@endhl@@@手册 - 示例服务 ").append(id).append("\",")
+                    .append("\"excerpt\":\"本节描述示例服务的@@@hl@@@发布@@@endhl@@@步骤，所有命令均在跳板机上执行...\",")
+                    .append("\"url\":\"/display/OPS/Deployment+Runbook+").append(id).append("\",")
+                    .append("\"entityType\":\"content\",\"lastModified\":\"").append(LAST_MODIFIED).append("\",\"score\":0.0}");
+        }
+        json.append("],\"start\":0,\"limit\":").append(limit).append(",\"size\":").append(limit)
+                .append(",\"totalSize\":").append(limit).append(",\"searchDuration\":12}");
+        send(exchange, 200, "application/json", json.toString());
+    }
+
+    private void handleContentSearch(HttpExchange exchange, Map<String, String> query) throws IOException {
+        Matcher matcher = QUOTED_ID_PATTERN.matcher(query.getOrDefault("cql", ""));
+        StringBuilder results = new StringBuilder();
+        int size = 0;
+        while (matcher.find()) {
+            long id = Long.parseLong(matcher.group(1));
+            if (!exists(id)) {
+                continue;
+            }
+            if (size++ > 0) {
+                results.append(',');
+            }
+            results.append(BenchmarkFixtures.content(contentTemplates.get(sectionsOf(id)), id, size));
+        }
+        send(exchange, 200, "application/json", BenchmarkFixtures.contentSearch(results, size));
+    }
+
+    private void handlePage(HttpExchange exchange, String rawId, Map<String, String> query) throws IOException {
+        long id = parseLong(rawId);
+        if (!exists(id)) {
+            send(exchange, 404, "application/json", "{\"statusCode\":404,\"message\":\"No content found with id: " + rawId + "\"}");
+            return;
+        }
+        if (!query.getOrDefault("expand", "").contains("body")) {
+            send(exchange, 200, "application/json",
+                    "{\"id\":\"" + id + "\",\"type\":\"page\",\"status\":\"current\",\"version\":{\"number\":42}}");
+            return;
+        }
+        // 页面内容不变，ETag只与页面ID相关，缓存重新校验时返回304
+        String etag = "\"" + id + "-42\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        send(exchange, 200, "application/json", BenchmarkFixtures.content(contentTemplates.get(sectionsOf(id)), id, 1));
+    }
+
+    private void handleViewPage(HttpExchange exchange, Map<String, String> query) throws IOException {
+        long id = parseLong(query.get("pageId"));
+        if (!exists(id)) {
+            send(exchange, 404, "text/html", "<html><body>Page not found</body></html>");
+            return;
+        }
+        send(exchange, 200, "text/html", viewPages.get(sectionsOf(id)));
+    }
+
+    private boolean exists(long id) {
+        return id >= FIRST_PAGE_ID && id < FIRST_PAGE_ID + options.getPages();
+    }
+
+    private int sectionsOf(long id) {
+        List<Integer> sections = options.getPageSections();
+        return sections.get((int) ((id - FIRST_PAGE_ID) % sections.size()));
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + ";charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value == null ? -1 : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 桩服务配置
+     */
+    @Value
+    @Builder
+    public static class Options {
+
+        /**
+         * 监听端口，0为随机端口
+         */
+        @Builder.Default
+        int port = 0;
+
+        /**
+         * 页面总数，页面ID从 {@link StubConfluenceServer#FIRST_PAGE_ID} 开始连续编号
+         */
+        @Builder.Default
+        int pages = 2000;
+
+        /**
+         * 页面正文的段数，按页面ID轮流取值，每段约6KB
+         */
+        @Builder.Default
+        List<Integer> pageSections = List.of(1, 3, 10, 50);
+
+        @Builder.Default
+        LatencyDistribution searchLatency = LatencyDistribution.NONE;
+
+        @Builder.Default
+        LatencyDistribution pageLatency = LatencyDistribution.NONE;
+
+        /**
+         * 返回错误状态码的请求比例
+         */
+        @Builder.Default
+        double errorRate = 0;
+
+        @Builder.Default
+        int errorStatus = 503;
+    }
+}
@@ -0,0 +1,52 @@
+package com.confluence.mcp.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * UpstreamMetrics单元测试
+ */
+class UpstreamMetricsTest {
+
+    @Test
+    void testEndpointOf_ClassifiesByPath() {
+        assertEquals("search", UpstreamMetrics.endpointOf("https://c.example.com/rest/api/search?cql=x"));
+        assertEquals("content_search", UpstreamMetrics.endpointOf("https://c.example.com/rest/api/content/search?cql=x"));
+        assertEquals("page", UpstreamMetrics.endpointOf("https://c.example.com/wiki/rest/api/content/123?expand=body"));
+        assertEquals("other", UpstreamMetrics.endpointOf("https://c.example.com/pages/viewpage.action?pageId=1"));
+    }
+
+    @Test
+    void testRecording_TagsStatusOutcomeAndSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamMetrics metrics = new UpstreamMetrics(registry);
+
+        UpstreamMetrics.Recording success = metrics.start("https://c.example.com/rest/api/content/1");
+        success.status(200);
+        success.responseBytes(1024);
+        success.stop();
+
+        UpstreamMetrics.Recording failure = metrics.start("https://c.example.com/rest/api/search?cql=x");
+        failure.failed(new IOException("连接被拒绝"));
+        failure.stop();
+
+        Timer page = registry.get(UpstreamMetrics.REQUESTS)
+                .tags("endpoint", "page", "status", "200", "outcome", "SUCCESS", "exception", "none").timer();
+        assertEquals(1, page.count());
+        DistributionSummary size = registry.get(UpstreamMetrics.RESPONSE_SIZE).tags("endpoint", "page").summary();
+        assertEquals(1024.0, size.totalAmount());
+
+        Timer search = registry.get(UpstreamMetrics.REQUESTS)
+                .tags("endpoint", "search", "status", "NONE", "outcome", "UNKNOWN", "exception", "IOException").timer();
+        assertEquals(1, search.count());
+        // 失败的请求不记录响应大小
+        assertNull(registry.find(UpstreamMetrics.RESPONSE_SIZE).tags("endpoint", "search").summary());
+    }
+}
@@ -0,0 +1,65 @@
+package com.confluence.mcp.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AdaptiveConcurrencyLimiter单元测试
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void testRejectsWhenLimitReached() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 100, 0.5);
+
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+
+        // 释放名额后可以再次获取
+        limiter.onIgnored();
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void testDecreasesOnSlowCallsAndDrops() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 10, 100, 0.5);
+
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        limiter.onSuccess(SLOW);
+        assertEquals(4, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        limiter.onDropped();
+        assertEquals(2, limiter.getLimit());
+
+        // 不低于下限
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        limiter.onDropped();
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testIncreasesWhenFastAndBusy() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 3, 100, 0.5);
+
+        // 并发已用满且响应快时逐步上调，不超过上限
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+            assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+            limiter.onSuccess(FAST);
+            limiter.onSuccess(FAST);
+        }
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,80 @@
+package com.confluence.mcp.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CircuitBreaker单元测试
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testOpensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, 1000, 2, clock::get);
+
+        // 请求数未达到最小值时不打开
+        record(breaker, false);
+        record(breaker, false);
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1000, breaker.remainingOpenMillis());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterSuccessfulProbes() {
+        CircuitBreaker breaker = openBreaker();
+
+        // 打开时长到期后只放行有限个试探请求
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate());
+    }
+
+    @Test
+    void testHalfOpenReopensOnFailedProbe() {
+        CircuitBreaker breaker = openBreaker();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    private CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 0.5, 1000, 2, clock::get);
+        record(breaker, true);
+        record(breaker, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private void record(CircuitBreaker breaker, boolean failure) {
+        assertTrue(breaker.tryAcquirePermission());
+        if (failure) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+}
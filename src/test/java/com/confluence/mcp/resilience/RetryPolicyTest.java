@@ -0,0 +1,76 @@
+package com.confluence.mcp.resilience;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.ConfluenceHttpException;
+import com.confluence.mcp.exception.ConfluenceNotFoundException;
+import com.confluence.mcp.exception.ConfluenceThrottledException;
+import com.confluence.mcp.exception.UpstreamUnavailableException;
+import org.apache.hc.core5.http.NoHttpResponseException;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RetryPolicy单元测试
+ */
+class RetryPolicyTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final ConfluenceConfig.Retry config = new ConfluenceConfig.Retry();
+    private final RetryPolicy policy = new RetryPolicy(config, () -> NOW);
+
+    @Test
+    void testRetryDelay_HonorsRetryAfter() {
+        ConfluenceHttpException throttled = ConfluenceHttpException.of(429, 2000L);
+        assertInstanceOf(ConfluenceThrottledException.class, throttled);
+
+        // 等待Retry-After再加不超过首次退避上限的抖动，包装在CompletionException中也能识别
+        long delay = policy.retryDelayMillis(new CompletionException(throttled), 1);
+        assertTrue(delay >= 2000 && delay < 2000 + config.getInitialBackoff(), "delay=" + delay);
+
+        // 超过愿意等待的上限时不重试
+        assertEquals(-1, policy.retryDelayMillis(ConfluenceHttpException.of(429, 60000L), 1));
+    }
+
+    @Test
+    void testRetryDelay_JitteredBackoffWithinCeiling() {
+        for (int attempt = 1; attempt < config.getMaxAttempts(); attempt++) {
+            long ceiling = Math.min(config.getMaxBackoff(), config.getInitialBackoff() << (attempt - 1));
+            for (int i = 0; i < 100; i++) {
+                long delay = policy.retryDelayMillis(ConfluenceHttpException.of(503, null), attempt);
+                assertTrue(delay >= 0 && delay <= ceiling, "delay=" + delay);
+            }
+        }
+        assertTrue(policy.retryDelayMillis(new NoHttpResponseException("closed"), 1) >= 0);
+    }
+
+    @Test
+    void testRetryDelay_DoesNotRetryPermanentErrors() {
+        assertEquals(-1, policy.retryDelayMillis(ConfluenceHttpException.of(404, null), 1));
+        assertInstanceOf(ConfluenceNotFoundException.class, ConfluenceHttpException.of(404, null));
+        assertEquals(-1, policy.retryDelayMillis(ConfluenceHttpException.of(500, null), 1));
+        assertEquals(-1, policy.retryDelayMillis(new SocketTimeoutException("Read timed out"), 1));
+        assertEquals(-1, policy.retryDelayMillis(new UpstreamUnavailableException("熔断中"), 1));
+        // 达到最多尝试次数
+        assertEquals(-1, policy.retryDelayMillis(ConfluenceHttpException.of(429, null), config.getMaxAttempts()));
+    }
+
+    @Test
+    void testParseRetryAfter() {
+        assertEquals(120000L, policy.parseRetryAfter("120"));
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(NOW + 30000).atZone(ZoneOffset.UTC));
+        assertEquals(30000L, policy.parseRetryAfter(date));
+        assertNull(policy.parseRetryAfter("soon"));
+        assertNull(policy.parseRetryAfter(null));
+    }
+}
@@ -0,0 +1,81 @@
+package com.confluence.mcp.resilience;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.exception.UpstreamUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UpstreamGuard单元测试
+ */
+class UpstreamGuardTest {
+
+    @Test
+    void testAcquireAsync_DoesNotBlockWhenLimitReached() throws Exception {
+        UpstreamGuard guard = new UpstreamGuard(config(1, 5000L));
+        UpstreamGuard.Permit first = guard.acquire();
+
+        long start = System.nanoTime();
+        CompletableFuture<UpstreamGuard.Permit> second = guard.acquireAsync();
+
+        // 并发已满时立即返回未完成的许可，释放名额后再完成
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertFalse(second.isDone());
+        first.success();
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, guard.stats().get("inFlight"));
+    }
+
+    @Test
+    void testAcquireAsync_FailsAfterAcquireTimeout() {
+        UpstreamGuard guard = new UpstreamGuard(config(1, 50L));
+        guard.acquire();
+
+        CompletableFuture<UpstreamGuard.Permit> second = guard.acquireAsync();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(UpstreamUnavailableException.class, e.getCause());
+        assertEquals(1L, guard.stats().get("rejectedByLimit"));
+    }
+
+    @Test
+    void testPermit_LatencyEndsWhenResponseArrives() throws Exception {
+        ConfluenceConfig config = config(4, 1000L);
+        config.getResilience().setMinLimit(1);
+        config.getResilience().setMaxLimit(10);
+        config.getResilience().setSlowCallThreshold(50L);
+        UpstreamGuard guard = new UpstreamGuard(config);
+
+        // 收到响应后本地解析耗时较长，不算作慢请求
+        UpstreamGuard.Permit parsed = guard.acquire();
+        parsed.responded();
+        Thread.sleep(100);
+        parsed.success();
+        assertEquals(4, guard.stats().get("concurrencyLimit"));
+
+        // 未收到响应头就结束的请求按全程耗时计算
+        UpstreamGuard.Permit slow = guard.acquire();
+        Thread.sleep(100);
+        slow.success();
+        assertTrue((int) guard.stats().get("concurrencyLimit") < 4);
+    }
+
+    private static ConfluenceConfig config(int limit, long acquireTimeout) {
+        ConfluenceConfig config = new ConfluenceConfig();
+        config.getResilience().setInitialLimit(limit);
+        config.getResilience().setMinLimit(limit);
+        config.getResilience().setMaxLimit(limit);
+        config.getResilience().setAcquireTimeout(acquireTimeout);
+        return config;
+    }
+}
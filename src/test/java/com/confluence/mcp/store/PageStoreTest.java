@@ -0,0 +1,118 @@
+package com.confluence.mcp.store;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.service.PageContent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PageStore单元测试
+ */
+class PageStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPutGetDelete_SurvivesReopen() throws Exception {
+        try (PageStore store = open(1024 * 1024)) {
+            store.put(page("1", "旧内容", 1));
+            store.put(page("1", "新内容", 2));
+            store.put(page("2", "第二页", 1));
+            store.delete(List.of("2"));
+
+            PageContent page = store.get("1").orElseThrow();
+            assertEquals("新内容", page.getContent());
+            assertEquals(2, page.getVersion());
+            assertEquals("RP", page.getSpaceKey());
+            assertNull(page.getEtag());
+            assertFalse(store.get("2").isPresent());
+        }
+
+        // 重新打开后由日志重建索引
+        try (PageStore reopened = open(1024 * 1024)) {
+            assertEquals("新内容", reopened.get("1").orElseThrow().getContent());
+            assertFalse(reopened.get("2").isPresent());
+        }
+    }
+
+    @Test
+    void testLoad_TruncatesCorruptTail() throws Exception {
+        try (PageStore store = open(1024 * 1024)) {
+            store.put(page("1", "内容", 1));
+            store.put(page("2", "内容", 1));
+        }
+        // 模拟写入中途崩溃：截掉最后一条记录的末尾
+        Path log = directory.resolve("pages.log");
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (PageStore reopened = open(1024 * 1024)) {
+            assertTrue(reopened.get("1").isPresent());
+            assertFalse(reopened.get("2").isPresent());
+            // 截断后可以继续追加
+            reopened.put(page("3", "内容", 1));
+            assertTrue(reopened.get("3").isPresent());
+        }
+    }
+
+    @Test
+    void testCompact_DropsGarbageAndEvictsOldestOverLimit() throws Exception {
+        try (PageStore store = open(1024 * 1024)) {
+            for (int version = 1; version <= 5; version++) {
+                store.put(page("1", "内容" + version, version));
+            }
+            long before = (long) store.stats().get("fileBytes");
+            store.compact();
+
+            assertTrue((long) store.stats().get("fileBytes") < before);
+            assertEquals("内容5", store.get("1").orElseThrow().getContent());
+        }
+
+        // 容量上限很小时淘汰最早写入的页面，保留最新页面
+        try (PageStore store = open(400)) {
+            for (int i = 0; i < 10; i++) {
+                store.put(page(String.valueOf(i), "不可压缩的内容" + Math.random(), 1));
+            }
+            store.compact();
+
+            assertTrue((long) store.stats().get("fileBytes") <= 400);
+            assertTrue(store.get("9").isPresent());
+            assertFalse(store.get("0").isPresent());
+        }
+    }
+
+    private PageStore open(long maxBytes) throws Exception {
+        ConfluenceConfig config = new ConfluenceConfig();
+        config.getStore().setDirectory(directory.toString());
+        config.getStore().setMaxBytes(maxBytes);
+        PageStore store = new PageStore(config);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!store.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return store;
+    }
+
+    private PageContent page(String pageId, String content, int version) {
+        return PageContent.builder()
+                .pageId(pageId)
+                .title("Title " + pageId)
+                .spaceKey("RP")
+                .content(content)
+                .version(version)
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+    }
+}
@@ -1,14 +1,46 @@
 package com.confluence.mcp.tool;
 
+import com.confluence.mcp.cache.PageContentCache;
+import com.confluence.mcp.cache.PageOutlineCache;
+import com.confluence.mcp.cache.PagePrefetcher;
+import com.confluence.mcp.cache.SearchResultCache;
 import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.config.PageBodyFormat;
+import com.confluence.mcp.config.SearchMode;
+import com.confluence.mcp.exception.ConfluenceHttpException;
+import com.confluence.mcp.exception.ConfluenceThrottledException;
+import com.confluence.mcp.index.IndexHit;
+import com.confluence.mcp.index.LocalSearchIndex;
+import com.confluence.mcp.resilience.UpstreamGuard;
+import com.confluence.mcp.service.ConfluencePageService;
+import com.confluence.mcp.store.PageStore;
+import com.confluence.mcp.util.HtmlTextExtractor;
 import com.confluence.mcp.util.HttpClientUtil;
 import com.confluence.mcp.util.JsonParserUtil;
+import com.confluence.mcp.util.ParallelFetchUtil;
+import com.confluence.mcp.util.SnippetExtractor;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.*;
@@ -25,9 +57,16 @@ class ConfluenceToolMockTest {
     private HttpClientUtil httpClientUtil;
 
     @Mock
-    private JsonParserUtil jsonParserUtil;
+    private LocalSearchIndex localSearchIndex;
+
+    @Mock
+    private PageStore pageStore;
+
+    @Spy
+    private JsonParserUtil jsonParserUtil = new JsonParserUtil();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
 
-    @InjectMocks
     private ConfluenceTool confluenceTool;
 
     @BeforeEach
@@ -39,6 +78,23 @@ class ConfluenceToolMockTest {
         when(config.getDefaultSpace()).thenReturn("RP");
         when(config.getDefaultContentType()).thenReturn("page,blogpost");
         when(config.getDefaultSearchLimit()).thenReturn(10);
+        when(config.getFetch()).thenReturn(new ConfluenceConfig.Fetch());
+        when(config.getCache()).thenReturn(new ConfluenceConfig.Cache());
+        when(config.getSnippet()).thenReturn(new ConfluenceConfig.Snippet());
+        when(config.getPrefetch()).thenReturn(new ConfluenceConfig.Prefetch());
+
+        ConfluencePageService pageService = new ConfluencePageService(config, httpClientUtil, jsonParserUtil,
+                new HtmlTextExtractor());
+        PageContentCache pageContentCache = new PageContentCache(config, pageService, pageStore, executor);
+        confluenceTool = new ConfluenceTool(config, httpClientUtil, jsonParserUtil,
+                new ParallelFetchUtil(), pageContentCache, new PageOutlineCache(pageService, config),
+                new SearchResultCache(config), localSearchIndex, new SnippetExtractor(),
+                new PagePrefetcher(config, pageContentCache, mock(UpstreamGuard.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
     }
 
     @Test
@@ -46,47 +102,299 @@ class ConfluenceToolMockTest {
         // 准备Mock数据 - 搜索响应
         String mockSearchResponse = "{\"results\":[{\"id\":\"123\",\"title\":\"Test Page\",\"_links\":{\"webui\":\"/pages/viewpage.action?pageId=123\"}}]}";
 
-        // 准备Mock数据 - 页面内容响应（空响应，避免重复调用）
-        String mockPageResponse = "<html><body>Test content</body></html>";
+        // 准备Mock数据 - 批量页面内容响应
+        String mockPageResponse = "{\"results\":[{\"id\":\"123\",\"title\":\"Test Page\"," +
+                "\"body\":{\"view\":{\"value\":\"<p>Test content</p>\"}}}]}";
 
         // 设置Mock行为
-        when(httpClientUtil.executeGetRequest(contains("/rest/api/search"))).thenReturn(mockSearchResponse);
-        when(httpClientUtil.executeGetRequest(contains("/pages/viewpage.action"))).thenReturn(mockPageResponse);
+        mockSearchResponse(mockSearchResponse);
+        mockGetResponse("/rest/api/content/search", mockPageResponse);
+
+        // 执行测试（深度模式）
+        String result = confluenceTool.searchConfluence("test", "RP", "page", 5, "deep", null);
+
+        // 验证HTTP调用 - 搜索请求1次，异步批量页面内容请求1次
+        verify(httpClientUtil, times(1)).executeGetRequest(anyString(), any());
+        verify(httpClientUtil).executeGetRequest(contains("/rest/api/search"), any());
+        verify(httpClientUtil, times(1)).executeGetRequestAsync(anyString(), any());
+        verify(httpClientUtil).executeGetRequestAsync(contains("cql=id+in+%28%22123%22%29"), any());
+        assertTrue(result.contains("Test content"));
+    }
+
+    @Test
+    void testSearchConfluence_LeanModeUsesExcerpt() throws Exception {
+        // 准备Mock数据 - 带高亮摘要的搜索响应
+        String mockSearchResponse = "{\"results\":[{\"content\":{\"id\":\"123\",\"title\":\"Test Page\"," +
+                "\"space\":{\"key\":\"RP\"},\"version\":{\"number\":7}," +
+                "\"_links\":{\"webui\":\"/display/RP/Test+Page\"}}," +
+                "\"excerpt\":\"a @@@hl@@@test@@@endhl@@@ &amp; more\",\"lastModified\":\"2024-01-02T03:04:05.000Z\"}]}";
+        when(config.getDefaultSearchMode()).thenReturn(SearchMode.LEAN);
+        mockSearchResponse(mockSearchResponse);
+
+        // 执行测试（使用默认模式）
+        String result = confluenceTool.searchConfluence("test", "RP", "page", 5, null, null);
+
+        // 验证只发起一次搜索请求，摘要来自搜索响应
+        verify(httpClientUtil, times(1)).executeGetRequest(anyString(), any());
+        verify(httpClientUtil, never()).executeGetRequest(anyString());
+        verify(httpClientUtil).executeGetRequest(contains("excerpt=highlight"), any());
+        assertTrue(result.contains("a test & more"));
+        assertTrue(result.contains("版本: 7"));
+        assertTrue(result.contains("/display/RP/Test+Page"));
+    }
+
+    @Test
+    void testSearchConfluence_NormalizedSearchesShareCache() throws Exception {
+        String mockSearchResponse = "{\"results\":[{\"content\":{\"id\":\"123\",\"title\":\"Test Page\"," +
+                "\"_links\":{\"webui\":\"/display/RP/Test+Page\"}},\"excerpt\":\"summary\"}]}";
+        mockSearchResponse(mockSearchResponse);
+
+        // 执行测试 - 大小写、空白、默认值不同但等价的搜索
+        String first = confluenceTool.searchConfluence("Deploy  Guide", null, null, null, "lean", null);
+        String second = confluenceTool.searchConfluence(" deploy guide ", "RP", "blogpost, PAGE", 10, "LEAN", false);
+
+        // 验证只发起一次搜索请求
+        assertEquals(first, second);
+        verify(httpClientUtil, times(1)).executeGetRequest(anyString(), any());
+
+        // 跳过缓存时重新请求
+        confluenceTool.searchConfluence("deploy guide", null, null, null, "lean", true);
+        verify(httpClientUtil, times(2)).executeGetRequest(anyString(), any());
+    }
+
+    @Test
+    void testSearchConfluence_PartialResultsOnDeadline() throws Exception {
+        // 准备Mock数据 - 两个搜索结果，其中一个页面响应超过截止时间
+        String mockSearchResponse = "{\"results\":[" +
+                "{\"id\":\"1\",\"title\":\"Fast Page\",\"_links\":{\"webui\":\"/pages/viewpage.action?pageId=1\"}}," +
+                "{\"id\":\"2\",\"title\":\"Slow Page\",\"_links\":{\"webui\":\"/pages/viewpage.action?pageId=2\"}}]}";
+        ConfluenceConfig.Fetch fetch = new ConfluenceConfig.Fetch();
+        fetch.setSearchDeadline(300);
+        fetch.setBulkSize(1);
+        when(config.getFetch()).thenReturn(fetch);
+
+        // 每批一个页面，两个批次并发请求
+        mockSearchResponse(mockSearchResponse);
+        mockGetResponse("id+in+%28%221%22%29", "{\"results\":[{\"id\":\"1\",\"title\":\"Fast Page\"," +
+                "\"body\":{\"view\":{\"value\":\"Fast content\"}}}]}");
+        when(httpClientUtil.executeGetRequestAsync(contains("id+in+%28%222%22%29"), any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(() -> {
+                    try {
+                        Thread.sleep(2000);
+                        return readBody(invocation.getArgument(1), "{\"results\":[{\"id\":\"2\"," +
+                                "\"title\":\"Slow Page\",\"body\":{\"view\":{\"value\":\"Slow content\"}}}]}");
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
 
         // 执行测试
-        confluenceTool.searchConfluence("test", "RP", "page", 5);
+        String result = confluenceTool.searchConfluence("test", "RP", "page", 5, "deep", null);
 
-        // 验证HTTP调用 - 搜索请求1次，页面内容请求1次（总共2次）
-        verify(httpClientUtil, times(2)).executeGetRequest(anyString());
-        verify(httpClientUtil).executeGetRequest(contains("/rest/api/search"));
-        verify(httpClientUtil).executeGetRequest(contains("/pages/viewpage.action"));
+        // 验证结果顺序保持不变，超时页面带有标记
+        assertTrue(result.indexOf("Fast Page") < result.indexOf("Slow Page"));
+        assertTrue(result.contains("Fast content"));
+        assertTrue(result.contains("内容获取超时"));
+        assertTrue(result.contains("部分结果"));
     }
 
     @Test
     void testGetConfluencePage_JsonResponse() throws Exception {
         // 准备Mock数据
-        String mockResponse = "{\"body\":{\"view\":{\"value\":\"Test content\"}}}";
-        when(httpClientUtil.executeGetRequest(anyString())).thenReturn(mockResponse);
-        when(jsonParserUtil.parsePageContent(anyString())).thenReturn(java.util.Optional.of("Test content"));
+        String mockResponse = "{\"id\":\"123\",\"title\":\"Test Page\",\"version\":{\"number\":3}," +
+                "\"body\":{\"view\":{\"value\":\"<p>Test content</p>\"}}}";
+        mockGetResponse("/rest/api/content/123", mockResponse);
 
         // 执行测试
-        confluenceTool.getConfluencePage("123");
+        String result = confluenceTool.getConfluencePage("123");
 
-        // 验证调用
-        verify(httpClientUtil).executeGetRequest(anyString());
-        verify(jsonParserUtil).parsePageContent(anyString());
+        // 验证通过REST内容接口获取，只请求一次
+        verify(httpClientUtil).executeConditionalGetRequest(anyString(), any(), any());
+        verify(httpClientUtil).executeConditionalGetRequest(contains("expand=body.view%2Cversion%2Cspace"), any(), any());
+        verify(jsonParserUtil).parseContent(any(), any());
+        assertTrue(result.contains("页面标题: Test Page"));
+        assertTrue(result.contains("Test content"));
     }
 
     @Test
-    void testGetConfluencePage_HtmlResponse() throws Exception {
-        // 准备Mock HTML响应数据
-        String mockResponse = "<html><body><div class=\"wiki-content\">Test HTML content</div></body></html>";
-        when(httpClientUtil.executeGetRequest(anyString())).thenReturn(mockResponse);
+    void testGetConfluencePage_StorageFormat() throws Exception {
+        // 配置使用存储格式，宏参数不应出现在正文中
+        ConfluenceConfig.Fetch fetch = new ConfluenceConfig.Fetch();
+        fetch.setBodyFormat(PageBodyFormat.STORAGE);
+        when(config.getFetch()).thenReturn(fetch);
+        String mockResponse = "{\"id\":\"123\",\"title\":\"Test Page\",\"body\":{\"storage\":{\"value\":" +
+                "\"<ac:structured-macro ac:name=\\\"info\\\"><ac:parameter ac:name=\\\"title\\\">Note</ac:parameter>" +
+                "<ac:rich-text-body><p>Storage content</p></ac:rich-text-body></ac:structured-macro>\"}}}";
+        mockGetResponse("/rest/api/content/123", mockResponse);
 
         // 执行测试
-        confluenceTool.getConfluencePage("123");
+        String result = confluenceTool.getConfluencePage("123");
+
+        // 验证请求存储格式
+        verify(httpClientUtil).executeConditionalGetRequest(contains("expand=body.storage"), any(), any());
+        assertTrue(result.contains("Storage content"));
+        assertFalse(result.contains("Note"));
+    }
+
+    @Test
+    void testGetConfluencePage_ServedFromCache() throws Exception {
+        // 准备Mock数据
+        String mockResponse = "{\"id\":\"123\",\"title\":\"Runbook\"," +
+                "\"body\":{\"view\":{\"value\":\"Cached content\"}}}";
+        mockGetResponse("/rest/api/content/123", mockResponse);
+
+        // 执行测试 - 连续两次获取同一页面
+        String first = confluenceTool.getConfluencePage("123");
+        String second = confluenceTool.getConfluencePage("123");
+
+        // 验证第二次由缓存返回，只发起一次HTTP请求
+        assertEquals(first, second);
+        assertTrue(first.contains("Cached content"));
+        verify(httpClientUtil, times(1)).executeConditionalGetRequest(anyString(), any(), any());
+    }
+
+    @Test
+    void testGetConfluencePage_ThrottledErrorKeepsRetryHint() throws Exception {
+        ConfluenceHttpException throttled = ConfluenceHttpException.of(429, 3000L);
+        when(httpClientUtil.executeConditionalGetRequest(anyString(), any(), any())).thenThrow(throttled);
+
+        // 限流异常原样抛给调用方，错误信息中保留建议的等待时间
+        ConfluenceThrottledException e = assertThrows(ConfluenceThrottledException.class,
+                () -> confluenceTool.getConfluencePage("123"));
+        assertSame(throttled, e);
+        assertTrue(e.getMessage().contains("建议3秒后重试"));
+    }
+
+    @Test
+    void testReadConfluencePage_OutlineSectionsAndChunks() throws Exception {
+        String mockResponse = "{\"id\":\"123\",\"title\":\"Handbook\",\"body\":{\"view\":{\"value\":" +
+                "\"<p>Intro</p><h1 id=\\\"setup\\\">Setup</h1><p>Install it</p>" +
+                "<h2>Linux</h2><p>apt</p><h1>Usage</h1><p>Run it</p>\"}}}";
+        mockGetResponse("/rest/api/content/123", mockResponse);
+
+        // 只指定页面ID时返回大纲，子章节缩进
+        String outline = confluenceTool.readConfluencePage("123", null, null, null);
+        assertTrue(outline.contains("页面标题: Handbook"));
+        assertTrue(outline.contains("1. Setup [#setup]"));
+        assertTrue(outline.contains("\n  2. Linux"));
+        assertTrue(outline.contains("3. Usage"));
+
+        // 按锚点读取章节，包含子章节但不包含下一个同级章节
+        String section = confluenceTool.readConfluencePage("123", "#setup", null, null);
+        assertTrue(section.contains("章节: 1. Setup"));
+        assertTrue(section.contains("Install it Linux apt"));
+        assertFalse(section.contains("Run it"));
+
+        // 按偏移分段读取全文，并给出继续读取的偏移
+        String chunk = confluenceTool.readConfluencePage("123", null, 0, 5);
+        assertTrue(chunk.contains("范围: 第0-5个字符"));
+        assertTrue(chunk.contains("继续读取请使用offset=5"));
+        String last = confluenceTool.readConfluencePage("123", "usage", 0, null);
+        assertTrue(last.contains("Usage Run it"));
+        assertTrue(last.contains("(已读取到结尾)"));
+
+        // 页面只解析一次，后续分段读取由缓存提供
+        verify(httpClientUtil, times(1)).executeGetRequest(contains("/rest/api/content/123"), any());
+    }
+
+    @Test
+    void testGetConfluencePages_DedupesAndReportsPerPageErrors() throws Exception {
+        // 每批一个页面：页面1正常，页面2不存在，页面3请求失败
+        ConfluenceConfig.Fetch fetch = new ConfluenceConfig.Fetch();
+        fetch.setBulkSize(1);
+        when(config.getFetch()).thenReturn(fetch);
+        mockGetResponse("id+in+%28%221%22%29", "{\"results\":[{\"id\":\"1\",\"title\":\"Page One\"," +
+                "\"body\":{\"view\":{\"value\":\"First content\"}}}]}");
+        mockGetResponse("id+in+%28%222%22%29", "{\"results\":[]}");
+        when(httpClientUtil.executeGetRequestAsync(contains("id+in+%28%223%22%29"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("HTTP请求失败，状态码: 500")));
+
+        // 执行测试 - 包含重复和空白的页面ID
+        String result = confluenceTool.getConfluencePages(List.of("1", " 2", "1", "3", ""));
+
+        // 验证重复页面只请求一次，结果按输入顺序返回，单个页面的错误不影响其他页面
+        verify(httpClientUtil, times(3)).executeGetRequestAsync(anyString(), any());
+        assertTrue(result.startsWith("批量获取完成: 成功1个, 失败2个"));
+        assertTrue(result.indexOf("页面ID: 1") < result.indexOf("页面ID: 2"));
+        assertTrue(result.indexOf("页面ID: 2") < result.indexOf("页面ID: 3"));
+        assertTrue(result.contains("First content"));
+        assertTrue(result.contains("获取失败: 页面不存在或无权访问"));
+        assertTrue(result.contains("获取失败: HTTP请求失败，状态码: 500"));
+    }
+
+    @Test
+    void testGetConfluencePages_FailedBatchFallsBackToSinglePages() throws Exception {
+        // 每批两个页面：页面3和4所在的批次失败，逐页获取时页面3正常、页面4失败；非数字ID不发起请求
+        ConfluenceConfig.Fetch fetch = new ConfluenceConfig.Fetch();
+        fetch.setBulkSize(2);
+        when(config.getFetch()).thenReturn(fetch);
+        mockGetResponse("id+in+%28%221%22%2C%222%22%29", "{\"results\":[" +
+                "{\"id\":\"1\",\"title\":\"Page One\",\"body\":{\"view\":{\"value\":\"First content\"}}}," +
+                "{\"id\":\"2\",\"title\":\"Page Two\",\"body\":{\"view\":{\"value\":\"Second content\"}}}]}");
+        when(httpClientUtil.executeGetRequestAsync(contains("id+in+%28%223%22%2C%224%22%29"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("HTTP请求失败，状态码: 500")));
+        mockGetResponse("/rest/api/content/3?", "{\"id\":\"3\",\"title\":\"Page Three\"," +
+                "\"body\":{\"view\":{\"value\":\"Third content\"}}}");
+        when(httpClientUtil.executeConditionalGetRequest(contains("/rest/api/content/4?"), any(), any()))
+                .thenThrow(new RuntimeException("HTTP请求失败，状态码: 403"));
+
+        String result = confluenceTool.getConfluencePages(List.of("1", "2", "3", "abc", "4"));
+
+        // 验证只有出错的页面以失败返回，非数字ID没有进入批量请求
+        verify(httpClientUtil, times(2)).executeGetRequestAsync(anyString(), any());
+        verify(httpClientUtil, never()).executeGetRequestAsync(contains("abc"), any());
+        assertTrue(result.startsWith("批量获取完成: 成功3个, 失败2个"));
+        assertTrue(result.contains("Third content"));
+        assertTrue(result.contains("获取失败: 页面ID必须为数字: abc"));
+        assertTrue(result.contains("获取失败: HTTP请求失败，状态码: 403"));
+    }
+
+    @Test
+    void testSearchConfluence_ServedFromLocalIndex() throws Exception {
+        // 空间RP已建立本地索引
+        when(config.getDefaultSearchMode()).thenReturn(SearchMode.LEAN);
+        when(localSearchIndex.isIndexed("RP")).thenReturn(true);
+        when(localSearchIndex.lastSyncedAt("RP")).thenReturn(Optional.of(0L));
+        when(localSearchIndex.search(eq("test"), eq(List.of("RP")), eq(List.of("blogpost", "page")), eq(10)))
+                .thenReturn(List.of(new IndexHit("123", "Indexed Page", "RP", 3, null,
+                        "/display/RP/Indexed+Page", "indexed test snippet", 1.5f)));
+
+        // 执行测试
+        String result = confluenceTool.searchConfluence("Test", "RP", null, null, null, null);
+
+        // 验证由本地索引回答并注明同步时间，未请求Confluence
+        verify(httpClientUtil, never()).executeGetRequest(anyString(), any());
+        assertTrue(result.contains("Indexed Page"));
+        assertTrue(result.contains("indexed test snippet"));
+        assertTrue(result.contains("数据来源: 本地索引（空间RP最后同步于"));
+
+        // 跳过缓存时回退到实时CQL搜索
+        mockSearchResponse("{\"results\":[]}");
+        confluenceTool.searchConfluence("Test", "RP", null, null, null, true);
+        verify(httpClientUtil).executeGetRequest(contains("/rest/api/search"), any());
+    }
+
+    /**
+     * 模拟搜索接口响应，由真实的流式解析器读取
+     */
+    private void mockSearchResponse(String body) throws Exception {
+        mockGetResponse("/rest/api/search", body);
+    }
+
+    /**
+     * 模拟URL包含指定片段的GET请求响应，由调用方传入的读取函数读取
+     */
+    private void mockGetResponse(String urlPart, String body) throws Exception {
+        when(httpClientUtil.executeGetRequest(contains(urlPart), any()))
+                .thenAnswer(invocation -> readBody(invocation.getArgument(1), body));
+        when(httpClientUtil.executeConditionalGetRequest(contains(urlPart), any(), any()))
+                .thenAnswer(invocation -> new HttpClientUtil.ConditionalResponse<>(false,
+                        readBody(invocation.getArgument(2), body), HttpClientUtil.Validators.NONE, body.length()));
+        when(httpClientUtil.executeGetRequestAsync(contains(urlPart), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(readBody(invocation.getArgument(1), body)));
+    }
 
-        // 验证HTTP调用
-        verify(httpClientUtil).executeGetRequest(anyString());
+    private Object readBody(HttpClientUtil.ResponseBodyReader<?> reader, String body) throws Exception {
+        return reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
     }
-}
\ No newline at end of file
+}
@@ -16,7 +16,7 @@ public class ConfluenceToolTest {
     public void testSearchConfluence() {
         // 测试搜索功能 - 由于没有真实Confluence服务器，测试会失败但不会抛出异常
         try {
-            String result = confluenceTool.searchConfluence("test", "RP", "page", 5);
+            String result = confluenceTool.searchConfluence("test", "RP", "page", 5, null, null);
             System.out.println("搜索结果: " + (result != null ? "成功" : "失败"));
         } catch (Exception e) {
             System.out.println("搜索测试完成（预期失败）: " + e.getMessage());
@@ -0,0 +1,57 @@
+package com.confluence.mcp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ContentDecoder单元测试
+ */
+class ContentDecoderTest {
+
+    private static final String JSON = "{\"results\":[" + "{\"id\":\"1\",\"title\":\"Page\"},".repeat(200) + "{}]}";
+
+    @Test
+    void testDecode_GzipAndDeflate() throws Exception {
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(JSON, read(ContentDecoder.decode(new ByteArrayInputStream(gzip.toByteArray()), "gzip")));
+
+        // deflate同时兼容zlib格式与不带头的原始deflate数据
+        assertEquals(JSON, read(ContentDecoder.decode(new ByteArrayInputStream(deflate(false)), "deflate")));
+        assertEquals(JSON, read(ContentDecoder.decode(new ByteArrayInputStream(deflate(true)), "Deflate")));
+    }
+
+    @Test
+    void testDecode_IdentityAndUnsupported() throws Exception {
+        InputStream plain = new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8));
+        assertSame(plain, ContentDecoder.decode(plain, null));
+        assertEquals(JSON, read(ContentDecoder.decode(plain, "identity")));
+        assertThrows(IOException.class, () -> ContentDecoder.decode(InputStream.nullInputStream(), "compress"));
+    }
+
+    private byte[] deflate(boolean raw) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            out.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private String read(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+package com.confluence.mcp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HtmlTextExtractor单元测试
+ */
+class HtmlTextExtractorTest {
+
+    private final HtmlTextExtractor extractor = new HtmlTextExtractor();
+
+    @Test
+    void testExtractFragment_SkipsRawTagsAndDecodesEntities() throws Exception {
+        String html = "<p>Step&nbsp;one &amp; <b>two</b></p>\n\n<script>var x = '<div>';</script>" +
+                "<div class=\"panel\">Nested   panel</div><style>.a{}</style>" +
+                "<ac:parameter ac:name=\"title\">macro</ac:parameter>";
+
+        HtmlTextExtractor.Result result = extractor.extractFragment(new StringReader(html), 1000);
+
+        assertEquals("Step one & two Nested panel", result.getText());
+        assertFalse(result.isTruncated());
+    }
+
+    @Test
+    void testExtractFragment_NumericEntities() throws Exception {
+        HtmlTextExtractor.Result result = extractor.extractFragment(
+                new StringReader("<p>Plain &#x4e2d;&#25991; body</p>"), 1000);
+
+        assertEquals("Plain 中文 body", result.getText());
+    }
+
+    @Test
+    void testExtractFragment_StopsReadingOnceBudgetIsFull() throws Exception {
+        // 正文远大于输出上限，读取量应当只比上限多出少量内容
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            html.append("<p>paragraph ").append(i).append("</p>");
+        }
+        CountingReader reader = new CountingReader(new StringReader(html.toString()));
+
+        HtmlTextExtractor.Result result = extractor.extractFragment(reader, 100);
+
+        assertEquals(100, result.getText().length());
+        assertTrue(result.isTruncated());
+        assertTrue(reader.count < 64 * 1024, "读取字符数: " + reader.count);
+    }
+
+    @Test
+    void testExtractFragment_WholeInput() throws Exception {
+        HtmlTextExtractor.Result result = extractor.extractFragment(
+                new StringReader("<h1>Title</h1><p>a&lt;b</p>"), 1000);
+
+        assertEquals("Title a<b", result.getText());
+    }
+
+    @Test
+    void testExtractFragment_RecordsHeadingsWithOffsets() throws Exception {
+        String html = "<p>Intro</p><h1 id=\"setup\">Setup</h1><p>Install it</p>" +
+                "<h2><span id=\"linux\"></span>On <b>Linux</b></h2><p>apt</p>";
+
+        HtmlTextExtractor.Result result = extractor.extractFragment(new StringReader(html), 1000);
+
+        // 标题位置指向全文中标题文本的起始字符
+        assertEquals("Intro Setup Install it On Linux apt", result.getText());
+        assertEquals(2, result.getHeadings().size());
+        HtmlTextExtractor.Heading setup = result.getHeadings().get(0);
+        assertEquals(1, setup.getLevel());
+        assertEquals("Setup", setup.getTitle());
+        assertEquals("setup", setup.getAnchor());
+        assertEquals(result.getText().indexOf("Setup"), setup.getOffset());
+        HtmlTextExtractor.Heading linux = result.getHeadings().get(1);
+        assertEquals(2, linux.getLevel());
+        assertEquals("On Linux", linux.getTitle());
+        assertEquals(result.getText().indexOf("On Linux"), linux.getOffset());
+    }
+
+    /**
+     * 统计已读取字符数的Reader
+     */
+    private static final class CountingReader extends Reader {
+
+        private final Reader delegate;
+        private long count;
+
+        CountingReader(Reader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = delegate.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
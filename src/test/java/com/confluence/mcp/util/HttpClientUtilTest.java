@@ -0,0 +1,154 @@
+package com.confluence.mcp.util;
+
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.config.CountingTlsStrategy;
+import com.confluence.mcp.config.HttpClientConfig;
+import com.confluence.mcp.config.HttpClientMode;
+import com.confluence.mcp.exception.ConfluenceNotFoundException;
+import com.confluence.mcp.metrics.UpstreamMetrics;
+import com.confluence.mcp.resilience.UpstreamGuard;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * HttpClientUtil单元测试：默认的异步模式下对本地HTTP服务发起真实请求
+ */
+class HttpClientUtilTest {
+
+    private final HttpClientConfig httpClientConfig = new HttpClientConfig();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final AtomicInteger flakyRequests = new AtomicInteger();
+    private final AtomicInteger largeRequests = new AtomicInteger();
+
+    private HttpServer server;
+    private CloseableHttpAsyncClient asyncClient;
+    private HttpClientUtil httpClientUtil;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ok", exchange -> send(exchange, 200, "{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/gzip", exchange -> {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            send(exchange, 200, gzip("压缩的正文".repeat(1000)));
+        });
+        server.createContext("/missing", exchange -> send(exchange, 404, "not found".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/flaky", exchange -> {
+            if (flakyRequests.incrementAndGet() == 1) {
+                send(exchange, 502, new byte[0]);
+            } else {
+                send(exchange, 200, "recovered".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/large", exchange -> {
+            largeRequests.incrementAndGet();
+            send(exchange, 200, new byte[4 * 1024 * 1024]);
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        ConfluenceConfig config = new ConfluenceConfig();
+        config.setUrl(baseUrl);
+        config.getRetry().setInitialBackoff(10L);
+        assertEquals(HttpClientMode.ASYNC, config.getHttpClientMode());
+        CountingTlsStrategy tlsStrategy = httpClientConfig.tlsStrategy(config);
+        asyncClient = httpClientConfig.asyncHttpClient(httpClientConfig.asyncConnectionManager(config, tlsStrategy), config);
+        httpClientUtil = new HttpClientUtil(mock(CloseableHttpClient.class), asyncClient, config, executor,
+                new UpstreamMetrics(new SimpleMeterRegistry()), new UpstreamGuard(config));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        asyncClient.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testExecuteGetRequestAsync_ReadsBody() throws Exception {
+        assertEquals("{\"id\":\"1\"}", httpClientUtil.executeGetRequestAsync(baseUrl + "/ok").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExecuteGetRequestAsync_DecodesCompressedBody() throws Exception {
+        String body = httpClientUtil.executeGetRequestAsync(baseUrl + "/gzip").get(5, TimeUnit.SECONDS);
+
+        assertEquals("压缩的正文".repeat(1000), body);
+        assertEquals(1L, httpClientUtil.transferStats().get("compressedResponseCount"));
+    }
+
+    @Test
+    void testExecuteGetRequestAsync_ClientErrorIsNotRetried() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> httpClientUtil.executeGetRequestAsync(baseUrl + "/missing").get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(ConfluenceNotFoundException.class, e.getCause());
+        assertEquals(0L, httpClientUtil.transferStats().get("retryCount"));
+    }
+
+    @Test
+    void testExecuteGetRequestAsync_RetriesBadGateway() throws Exception {
+        String body = httpClientUtil.executeGetRequestAsync(baseUrl + "/flaky").get(5, TimeUnit.SECONDS);
+
+        assertEquals("recovered", body);
+        assertEquals(2, flakyRequests.get());
+        Map<String, Object> stats = httpClientUtil.transferStats();
+        assertEquals(1L, stats.get("retryCount"));
+    }
+
+    @Test
+    void testExecuteGetRequestAsync_ReaderStopsEarlyOnLargeBody() throws Exception {
+        // 读取方只读开头部分，剩余的大量内容不再接收，连接中止后后续请求仍然正常
+        int read = httpClientUtil.executeGetRequestAsync(baseUrl + "/large", body -> body.readNBytes(1024).length)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(1024, read);
+        assertEquals(1, largeRequests.get());
+        assertEquals("{\"id\":\"1\"}", httpClientUtil.executeGetRequestAsync(baseUrl + "/ok").get(5, TimeUnit.SECONDS));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException e) {
+                // 客户端中止连接时写入失败
+            }
+        }
+        exchange.close();
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
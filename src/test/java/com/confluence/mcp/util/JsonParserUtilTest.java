@@ -0,0 +1,141 @@
+package com.confluence.mcp.util;
+
+import com.confluence.mcp.util.JsonParserUtil.ConfluencePage;
+import com.confluence.mcp.util.JsonParserUtil.WebhookEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JsonParserUtil单元测试
+ */
+class JsonParserUtilTest {
+
+    private final JsonParserUtil jsonParserUtil = new JsonParserUtil();
+    private final HtmlTextExtractor htmlTextExtractor = new HtmlTextExtractor();
+
+    @Test
+    void testParseSearchResults_KeepsResultsAfterNestedArrays() throws Exception {
+        // 第一个结果中包含数组，旧的正则解析会在第一个"]"处截断
+        String json = "{\"results\":[" +
+                "{\"content\":{\"id\":\"1\",\"type\":\"page\",\"title\":\"First\",\"ancestors\":[{\"id\":\"9\"}]," +
+                "\"space\":{\"key\":\"RP\"},\"version\":{\"number\":3,\"when\":\"2024-01-01T00:00:00.000Z\"}," +
+                "\"_links\":{\"webui\":\"/display/RP/First\",\"self\":\"x\"}}," +
+                "\"title\":\"@@@hl@@@First@@@endhl@@@\",\"excerpt\":\"first [excerpt]\",\"url\":\"/display/RP/First\"," +
+                "\"lastModified\":\"2024-02-01T00:00:00.000Z\"}," +
+                "{\"content\":{\"id\":\"2\",\"title\":\"Second \\\"quoted\\\"\",\"_links\":{\"webui\":\"/display/RP/Second\"}}," +
+                "\"excerpt\":null}" +
+                "],\"start\":0,\"limit\":10,\"size\":2}";
+
+        List<ConfluencePage> pages = jsonParserUtil.parseSearchResults(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, pages.size());
+        ConfluencePage first = pages.get(0);
+        assertEquals("1", first.getId());
+        assertEquals("First", first.getTitle());
+        assertEquals("RP", first.getSpaceKey());
+        assertEquals(3, first.getVersion());
+        assertEquals("/display/RP/First", first.getWebUrl());
+        assertEquals("first [excerpt]", first.getExcerpt());
+        assertEquals("2024-02-01T00:00:00.000Z", first.getLastModified());
+
+        ConfluencePage second = pages.get(1);
+        assertEquals("2", second.getId());
+        assertEquals("Second \"quoted\"", second.getTitle());
+        assertNull(second.getExcerpt());
+        assertNull(second.getVersion());
+    }
+
+    @Test
+    void testParseSearchResults_FlatResultsAndEmpty() throws Exception {
+        String json = "{\"results\":[{\"id\":\"123\",\"title\":\"Test Page\"," +
+                "\"_links\":{\"webui\":\"/pages/viewpage.action?pageId=123\"}}]}";
+
+        List<ConfluencePage> pages = jsonParserUtil.parseSearchResults(stream(json));
+
+        assertEquals(1, pages.size());
+        assertEquals("/pages/viewpage.action?pageId=123", pages.get(0).getWebUrl());
+        assertEquals(0, jsonParserUtil.parseSearchResults(stream("{\"results\":[],\"size\":0}")).size());
+    }
+
+    @Test
+    void testParseContent_ReadsExpandedBody() throws Exception {
+        String json = "{\"id\":\"42\",\"type\":\"page\",\"title\":\"Runbook\"," +
+                "\"space\":{\"key\":\"RP\",\"name\":\"R&P\"},\"version\":{\"number\":5}," +
+                "\"body\":{\"view\":{\"value\":\"<p>Hello</p>\",\"representation\":\"view\"}}}";
+
+        ConfluencePage page = jsonParserUtil.parseContent(stream(json),
+                html -> htmlTextExtractor.extractFragment(html, 100)).orElseThrow();
+
+        assertEquals("42", page.getId());
+        assertEquals("Runbook", page.getTitle());
+        assertEquals("RP", page.getSpaceKey());
+        assertEquals(5, page.getVersion());
+        assertEquals("Hello", page.getBody().getText());
+    }
+
+    @Test
+    void testParseSearchResults_SkipsBodyWithoutExtractor() throws Exception {
+        // 未指定提取函数时跳过正文，后续字段仍能正确读取
+        String json = "{\"results\":[{\"id\":\"7\",\"body\":{\"view\":{\"value\":\"<p>" + "x".repeat(10_000) +
+                "</p>\"}},\"title\":\"After Body\"}]}";
+
+        List<ConfluencePage> pages = jsonParserUtil.parseSearchResults(stream(json));
+
+        assertEquals(1, pages.size());
+        assertEquals("After Body", pages.get(0).getTitle());
+        assertNull(pages.get(0).getBody());
+    }
+
+    @Test
+    void testParseSearchResults_LeavesStreamOpenForCaller() throws Exception {
+        // 调用方解析后还要读完剩余内容以复用连接，解析器不能关闭输入流
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream stream = new FilterInputStream(new ByteArrayInputStream(
+                "{\"results\":[{\"id\":\"1\",\"title\":\"A\"}]}  ".getBytes(StandardCharsets.UTF_8))) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        assertEquals(1, jsonParserUtil.parseSearchResults(stream).size());
+        assertFalse(closed.get());
+    }
+
+    @Test
+    void testParseWebhookEvent_PageAndBlogEvents() throws Exception {
+        WebhookEvent page = jsonParserUtil.parseWebhookEvent(("{\"timestamp\":1,\"event\":\"page_updated\"," +
+                "\"page\":{\"id\":12345,\"spaceKey\":\"OPS\",\"title\":\"Runbook\"}}")
+                .getBytes(StandardCharsets.UTF_8)).orElseThrow();
+        assertEquals("page_updated", page.getEvent());
+        assertEquals("12345", page.getPageId());
+        assertEquals("OPS", page.getSpaceKey());
+
+        WebhookEvent blog = jsonParserUtil.parseWebhookEvent(
+                "{\"event\":\"blogpost_removed\",\"blog\":{\"id\":\"7\"}}".getBytes(StandardCharsets.UTF_8))
+                .orElseThrow();
+        assertEquals("7", blog.getPageId());
+        assertNull(blog.getSpaceKey());
+
+        // 不是页面事件时没有页面ID
+        assertTrue(jsonParserUtil.parseWebhookEvent(
+                "{\"event\":\"space_created\",\"space\":{\"key\":\"OPS\"}}".getBytes(StandardCharsets.UTF_8))
+                .isEmpty());
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
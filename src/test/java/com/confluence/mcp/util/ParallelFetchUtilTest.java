@@ -0,0 +1,121 @@
+package com.confluence.mcp.util;
+
+import com.confluence.mcp.util.ParallelFetchUtil.FetchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ParallelFetchUtil单元测试
+ */
+class ParallelFetchUtilTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final ParallelFetchUtil parallelFetchUtil = new ParallelFetchUtil();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFetchAllAsync_PreservesOrder() {
+        List<Integer> keys = List.of(5, 1, 4, 2, 3);
+
+        // 耗时与键值成反比，完成顺序与输入顺序不同
+        List<FetchResult<String>> results = parallelFetchUtil.fetchAllAsync(keys, key -> supply(() -> {
+            sleep((6 - key) * 20L);
+            return "v" + key;
+        }), 5, Duration.ofSeconds(5));
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals("v" + keys.get(i), results.get(i).getValue());
+        }
+    }
+
+    @Test
+    void testFetchAllAsync_RespectsMaxInFlight() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+
+        parallelFetchUtil.fetchAllAsync(List.of(1, 2, 3, 4, 5, 6, 7, 8), key -> supply(() -> {
+            maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(30);
+            inFlight.decrementAndGet();
+            return key;
+        }), 2, Duration.ofSeconds(5));
+
+        assertTrue(maxObserved.get() <= 2);
+    }
+
+    @Test
+    void testFetchAllAsync_TimeoutAndFailure() {
+        List<FetchResult<String>> results = parallelFetchUtil.fetchAllAsync(List.of("ok", "slow", "bad"), key -> supply(() -> {
+            if ("slow".equals(key)) {
+                sleep(2000);
+            }
+            if ("bad".equals(key)) {
+                throw new IllegalStateException("boom");
+            }
+            return key;
+        }), 3, Duration.ofMillis(200));
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isTimedOut());
+        assertEquals(FetchResult.Status.FAILED, results.get(2).getStatus());
+        assertEquals("boom", results.get(2).getError().getMessage());
+    }
+
+    @Test
+    void testFetchAllAsync_ComposesFuturesWithoutPoolThreads() {
+        // 单线程调度器模拟非阻塞客户端完成响应，不使用共享线程池
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+        try {
+            List<FetchResult<Integer>> results = parallelFetchUtil.fetchAllAsync(List.of(1, 2, 3, 4, 5, 6), key -> {
+                maxObserved.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                CompletableFuture<Integer> future = new CompletableFuture<>();
+                scheduler.schedule(() -> {
+                    inFlight.decrementAndGet();
+                    future.complete(key * 10);
+                }, 20, TimeUnit.MILLISECONDS);
+                return future;
+            }, 2, Duration.ofSeconds(5));
+
+            assertEquals(6, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals((i + 1) * 10, results.get(i).getValue());
+            }
+            assertTrue(maxObserved.get() <= 2);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private <V> CompletableFuture<V> supply(Supplier<V> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
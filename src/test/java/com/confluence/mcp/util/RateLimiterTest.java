@@ -0,0 +1,56 @@
+package com.confluence.mcp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * RateLimiter单元测试
+ */
+class RateLimiterTest {
+
+    @Test
+    void testReserve_BurstThenFixedRate() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(2.0, 2.0, now::get);
+
+        // 积攒的令牌可立即使用，之后按每秒2个的速率排队
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), limiter.reserve());
+
+        // 时间推进后补充令牌，但不超过桶容量
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve());
+    }
+
+    @Test
+    void testReserve_UnlimitedWhenRateNotPositive() {
+        RateLimiter limiter = new RateLimiter(0, 1, () -> 0L);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+    }
+
+    @Test
+    void testReserve_WaitsForPause() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(0, 1, now::get);
+
+        // 暂停期间即使不限流也要等到暂停结束，较短的暂停不会缩短已有的暂停
+        limiter.pause(3, TimeUnit.SECONDS);
+        limiter.pause(1, TimeUnit.SECONDS);
+        assertEquals(TimeUnit.SECONDS.toNanos(3), limiter.reserve());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.reserve());
+    }
+}
@@ -0,0 +1,60 @@
+package com.confluence.mcp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SnippetExtractor单元测试
+ */
+class SnippetExtractorTest {
+
+    private final SnippetExtractor extractor = new SnippetExtractor();
+
+    @Test
+    void testExtract_PicksPassagesMatchingKeyword() {
+        String text = "首页 / 运维 / 发布手册。" + "本页面由平台组维护。".repeat(30)
+                + "灰度发布时先切换10%流量，观察告警。" + "其他说明。".repeat(30)
+                + "回滚步骤：执行 rollback 命令并确认版本。" + "附录。".repeat(30);
+
+        String snippet = extractor.extract(text, "灰度 回滚", 3, 200, 100);
+
+        // 面包屑和模板内容不出现在摘要中，命中关键字的句子按原文顺序输出
+        assertFalse(snippet.startsWith("首页"));
+        assertTrue(snippet.contains("灰度发布时先切换10%流量"));
+        assertTrue(snippet.contains("回滚步骤"));
+        assertTrue(snippet.indexOf("灰度发布") < snippet.indexOf("回滚步骤"));
+        assertTrue(snippet.length() <= 200 + 6);
+    }
+
+    @Test
+    void testExtract_EnglishKeywordsAreCaseInsensitive() {
+        String text = "Intro text. ".repeat(50) + "Restart the Gateway after editing the config. "
+                + "Filler sentence. ".repeat(50);
+
+        String snippet = extractor.extract(text, "gateway", 1, 100, 80);
+
+        assertTrue(snippet.contains("Restart the Gateway after editing the config."));
+        assertTrue(snippet.startsWith("..."));
+    }
+
+    @Test
+    void testExtract_FallsBackToPrefixWithoutMatches() {
+        String text = "a".repeat(300);
+
+        assertEquals("a".repeat(100) + "...", extractor.extract(text, "missing", 3, 100, 50));
+        assertEquals("short", extractor.extract("short", "missing", 3, 100, 50));
+        assertNull(extractor.extract(null, "missing", 3, 100, 50));
+    }
+
+    @Test
+    void testTokenize_SplitsCjkIntoBigrams() {
+        assertEquals(List.of("发布", "布流", "流程", "v2", "rollback"), SnippetExtractor.tokenize("发布流程 V2-Rollback"));
+        assertEquals(List.of("灰"), SnippetExtractor.tokenize("灰"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.confluence.mcp.webhook;
+
+import com.confluence.mcp.cache.PageContentCache;
+import com.confluence.mcp.cache.PageOutlineCache;
+import com.confluence.mcp.cache.SearchResultCache;
+import com.confluence.mcp.config.ConfluenceConfig;
+import com.confluence.mcp.util.JsonParserUtil.WebhookEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * WebhookInvalidationService单元测试
+ */
+class WebhookInvalidationServiceTest {
+
+    private final PageContentCache pageContentCache = mock(PageContentCache.class);
+    private final PageOutlineCache pageOutlineCache = mock(PageOutlineCache.class);
+    private final SearchResultCache searchResultCache = mock(SearchResultCache.class);
+    private final AtomicLong now = new AtomicLong();
+    private final ConfluenceConfig config = new ConfluenceConfig();
+
+    private WebhookInvalidationService service;
+
+    @BeforeEach
+    void setUp() {
+        config.getWebhook().setEnabled(true);
+        config.getWebhook().setSecret("s3cret");
+        config.getWebhook().setDebounce(2000L);
+        config.getWebhook().setMaxDelay(10000L);
+        when(pageContentCache.getAllAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+        service = new WebhookInvalidationService(config, pageContentCache, pageOutlineCache, searchResultCache,
+                now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void testFlush_CoalescesBurstForSamePage() {
+        // 批量编辑：同一页面短时间内收到多次更新
+        for (int i = 0; i < 5; i++) {
+            now.set(i * 100L);
+            assertTrue(service.submit(new WebhookEvent("page_updated", "1", "OPS")));
+        }
+
+        // 最后一个事件后未超过合并等待时间，不处理
+        now.set(1000);
+        service.flush();
+        verifyNoInteractions(searchResultCache);
+        assertEquals(1, service.pendingCount());
+
+        // 超过合并等待时间后只失效并重新获取一次
+        now.set(2500);
+        service.flush();
+        verify(pageContentCache).invalidateAll(List.of("1"));
+        verify(pageOutlineCache).invalidateAll(List.of("1"));
+        verify(searchResultCache).invalidatePages(List.of("1"));
+        verify(pageContentCache).getAllAsync(List.of("1"));
+        assertEquals(0, service.pendingCount());
+        assertEquals(4L, service.stats().get("coalescedCount"));
+    }
+
+    @Test
+    void testFlush_RemovedPagesAreNotRefreshedAndCreatedPagesClearSearches() {
+        service.submit(new WebhookEvent("page_updated", "1", "OPS"));
+        service.submit(new WebhookEvent("page_removed", "1", "OPS"));
+        service.submit(new WebhookEvent("blogpost_created", "2", "OPS"));
+        assertFalse(service.submit(new WebhookEvent("space_created", "3", "OPS")));
+
+        now.set(2000);
+        service.flush();
+
+        // 删除后的页面只失效不重新获取，新建页面使全部搜索结果失效
+        verify(pageContentCache).invalidateAll(List.of("1", "2"));
+        verify(pageContentCache).getAllAsync(List.of("2"));
+        verify(searchResultCache).invalidateAll();
+        verify(searchResultCache, never()).invalidatePages(any());
+    }
+
+    @Test
+    void testFlush_ContinuouslyEditedPageWaitsAtMostMaxDelay() {
+        for (long time = 0; time <= 10000; time += 1000) {
+            now.set(time);
+            service.submit(new WebhookEvent("page_updated", "1", "OPS"));
+            service.flush();
+        }
+
+        // 页面一直在更新，但距第一个事件已达到最长等待时间
+        verify(pageContentCache).invalidateAll(List.of("1"));
+    }
+
+    @Test
+    void testIsAuthorized_VerifiesSignatureOrToken() throws Exception {
+        byte[] body = "{\"event\":\"page_updated\"}".getBytes(StandardCharsets.UTF_8);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("s3cret".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = "sha256=" + HexFormat.of().formatHex(mac.doFinal(body));
+
+        assertTrue(service.isAuthorized(body, signature, null));
+        assertFalse(service.isAuthorized("{}".getBytes(StandardCharsets.UTF_8), signature, null));
+        assertTrue(service.isAuthorized(body, null, "s3cret"));
+        assertFalse(service.isAuthorized(body, null, "wrong"));
+        assertFalse(service.isAuthorized(body, null, null));
+
+        // 未配置密钥时拒绝所有请求
+        config.getWebhook().setSecret("");
+        assertFalse(service.isAuthorized(body, null, ""));
+    }
+}